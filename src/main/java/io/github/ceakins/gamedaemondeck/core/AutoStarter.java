@@ -0,0 +1,92 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+// Brings up the servers flagged for autostart when the daemon boots. Servers start group by group
+// in ascending startGroup order; within a group up to `concurrency` servers start at once, and a
+// slot is only freed once its server is ready. The next group starts once every server of the
+// previous one is ready or has failed.
+public class AutoStarter {
+
+    public interface Launcher {
+        // Returns once the process is launched
+        void start(String serverName) throws Exception;
+
+        boolean awaitReady(String serverName, Duration timeout) throws InterruptedException;
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoStarter.class);
+
+    private final Launcher launcher;
+    private final Executor workers;
+
+    public AutoStarter(Launcher launcher, Executor workers) {
+        this.launcher = launcher;
+        this.workers = workers;
+    }
+
+    // Blocks until every autostart server is ready or has failed. Returns server name -> whether
+    // it came up, in start order; servers already running are left out.
+    public Map<String, Boolean> startAll(List<GameServer> servers, int concurrency, Duration readyTimeout) throws InterruptedException {
+        TreeMap<Integer, List<GameServer>> groups = new TreeMap<>();
+        for (GameServer server : servers) {
+            if (server != null && server.isAutoStart() && !server.isRunning()) {
+                groups.computeIfAbsent(server.getStartGroup(), group -> new ArrayList<>()).add(server);
+            }
+        }
+
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        Semaphore slots = new Semaphore(Math.max(1, concurrency));
+        for (Map.Entry<Integer, List<GameServer>> group : groups.entrySet()) {
+            logger.info("Autostarting group {}: {}", group.getKey(),
+                    group.getValue().stream().map(GameServer::getName).toList());
+            CountDownLatch groupDone = new CountDownLatch(group.getValue().size());
+            for (GameServer server : group.getValue()) {
+                slots.acquire();
+                synchronized (results) {
+                    results.put(server.getName(), false);
+                }
+                workers.execute(() -> {
+                    try {
+                        boolean ready = startAndWait(server.getName(), readyTimeout);
+                        synchronized (results) {
+                            results.put(server.getName(), ready);
+                        }
+                    } finally {
+                        slots.release();
+                        groupDone.countDown();
+                    }
+                });
+            }
+            groupDone.await();
+        }
+        return results;
+    }
+
+    private boolean startAndWait(String serverName, Duration readyTimeout) {
+        try {
+            launcher.start(serverName);
+            if (launcher.awaitReady(serverName, readyTimeout)) {
+                return true;
+            }
+            logger.warn("Autostarted server {} did not become ready within {} s", serverName, readyTimeout.toSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Failed to autostart server {}", serverName, e);
+        }
+        return false;
+    }
+}
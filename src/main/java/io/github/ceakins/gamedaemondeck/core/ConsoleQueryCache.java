@@ -0,0 +1,108 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+// Sits in front of the console sessions for read-only queries such as the player list or the game
+// time. Each game declares which commands are read-only and for how long an answer stays good;
+// within that TTL every caller gets the cached answer, and callers asking while the command is
+// still running wait for that one run instead of sending their own. Other commands pass straight
+// through.
+public class ConsoleQueryCache {
+
+    public interface Console {
+        String execute(String serverName, String command) throws IOException;
+    }
+
+    private final PluginManager pluginManager;
+    private final Function<String, Optional<GameServer>> servers;
+    private final Console console;
+    private final Clock clock;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public ConsoleQueryCache(PluginManager pluginManager, Function<String, Optional<GameServer>> servers, Console console) {
+        this(pluginManager, servers, console, Clock.systemUTC());
+    }
+
+    ConsoleQueryCache(PluginManager pluginManager, Function<String, Optional<GameServer>> servers, Console console, Clock clock) {
+        this.pluginManager = pluginManager;
+        this.servers = servers;
+        this.console = console;
+        this.clock = clock;
+    }
+
+    public String query(String serverName, String command) throws IOException {
+        Duration ttl = ttl(serverName, command);
+        if (ttl == null) {
+            return console.execute(serverName, command);
+        }
+
+        Key key = new Key(serverName, command.trim());
+        Entry mine = new Entry();
+        Entry entry = entries.compute(key, (k, cached) ->
+                cached != null && (!cached.result.isDone() || cached.isFresh(clock.millis())) ? cached : mine);
+        if (entry == mine) {
+            // This caller runs the command; everyone else asking meanwhile waits for it
+            try {
+                String response = console.execute(serverName, command);
+                mine.expiresAtMillis = clock.millis() + ttl.toMillis();
+                mine.result.complete(response);
+            } catch (IOException | RuntimeException e) {
+                // Failures are not cached; the next caller tries again
+                entries.remove(key, mine);
+                mine.result.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return await(entry.result);
+    }
+
+    // Forgets every cached answer of the server, e.g. once it has stopped
+    public void invalidate(String serverName) {
+        entries.keySet().removeIf(key -> key.serverName.equals(serverName));
+    }
+
+    private Duration ttl(String serverName, String command) {
+        GamePlugin plugin = servers.apply(serverName).map(server -> pluginManager.getPlugin(server.getPluginName())).orElse(null);
+        Duration ttl = plugin != null ? plugin.getReadOnlyQueries().get(command.trim()) : null;
+        return ttl != null && ttl.isPositive() ? ttl : null;
+    }
+
+    private static String await(CompletableFuture<String> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a console query");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private record Key(String serverName, String command) {
+    }
+
+    private static final class Entry {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        // Set before the result completes
+        volatile long expiresAtMillis;
+
+        boolean isFresh(long nowMillis) {
+            return !result.isCompletedExceptionally() && nowMillis < expiresAtMillis;
+        }
+    }
+}
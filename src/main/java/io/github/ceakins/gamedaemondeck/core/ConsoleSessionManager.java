@@ -0,0 +1,341 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.plugins.GameConsole;
+import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
+import io.github.ceakins.gamedaemondeck.util.CommandNotSentException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Keeps one logged-in console connection per server and lends it out, one caller at a time, to
+// everything that talks to the game: shutdowns, restart warnings and admin commands. Idle
+// connections are kept alive, and dropped ones are reopened with exponential backoff.
+public class ConsoleSessionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsoleSessionManager.class);
+    private static final Duration DEFAULT_LEASE_TIMEOUT = Duration.ofSeconds(30);
+    private static final long KEEPALIVE_CHECK_SECONDS = 30;
+    private static final long DEFAULT_KEEPALIVE_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(60);
+    private static final long DEFAULT_BASE_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final PluginManager pluginManager;
+    private final Function<String, Optional<GameServer>> servers;
+    private final ScheduledExecutorService timer;
+    private final Executor workers;
+    private final long baseBackoffMillis;
+    private final long keepaliveIdleMillis;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public ConsoleSessionManager(PluginManager pluginManager, Function<String, Optional<GameServer>> servers,
+                                 ScheduledExecutorService timer, Executor workers) {
+        this(pluginManager, servers, timer, workers, DEFAULT_BASE_BACKOFF_MILLIS, DEFAULT_KEEPALIVE_IDLE_MILLIS);
+    }
+
+    ConsoleSessionManager(PluginManager pluginManager, Function<String, Optional<GameServer>> servers,
+                          ScheduledExecutorService timer, Executor workers, long baseBackoffMillis, long keepaliveIdleMillis) {
+        this.pluginManager = pluginManager;
+        this.servers = servers;
+        this.timer = timer;
+        this.workers = workers;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.keepaliveIdleMillis = keepaliveIdleMillis;
+    }
+
+    public void start() {
+        timer.scheduleWithFixedDelay(() -> workers.execute(this::keepAlive),
+                KEEPALIVE_CHECK_SECONDS, KEEPALIVE_CHECK_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // Waits up to the timeout for exclusive use of the server's console. Close the lease to hand
+    // the connection back; it stays open for the next caller.
+    public Lease lease(String serverName, Duration timeout) throws IOException {
+        Session session = sessions.computeIfAbsent(serverName, Session::new);
+        try {
+            if (!session.lock.tryLock(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Console of server " + serverName + " is busy");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the console of " + serverName);
+        }
+        return new Lease(session);
+    }
+
+    public String execute(String serverName, String command) throws IOException {
+        try (Lease lease = lease(serverName, DEFAULT_LEASE_TIMEOUT)) {
+            return lease.execute(command);
+        }
+    }
+
+    // Runs a maintenance batch under one lease, pipelined where the console supports it
+    public List<String> executeAll(String serverName, List<String> commands) throws IOException {
+        try (Lease lease = lease(serverName, DEFAULT_LEASE_TIMEOUT)) {
+            return lease.executeAll(commands);
+        }
+    }
+
+    // Streams the server's log from its console to the listener for as long as the session lives,
+    // reconnecting when it drops. Also works for servers the daemon did not start.
+    public void follow(String serverName, Consumer<String> lines) {
+        Session session = sessions.computeIfAbsent(serverName, Session::new);
+        session.follower = lines;
+        workers.execute(() -> {
+            if (!session.lock.tryLock()) {
+                return; // The lease holder's connection picks the follower up on its next connect
+            }
+            try {
+                if (session.console == null) {
+                    session.connect();
+                } else {
+                    session.attachFollower();
+                }
+            } catch (IOException e) {
+                logger.debug("Could not follow the console log of server {} yet: {}", serverName, e.getMessage());
+            } finally {
+                session.lock.unlock();
+            }
+        });
+    }
+
+    public void unfollow(String serverName) {
+        Session session = sessions.get(serverName);
+        if (session == null || session.follower == null) {
+            return;
+        }
+        session.follower = null;
+        if (session.lock.tryLock()) {
+            try {
+                if (session.console != null) {
+                    session.console.followLog(null);
+                }
+            } finally {
+                session.lock.unlock();
+            }
+        }
+    }
+
+    // Drops the server's connection, e.g. once it has been told to shut down
+    public void close(String serverName) {
+        Session session = sessions.remove(serverName);
+        if (session == null) {
+            return;
+        }
+        session.closed = true;
+        // A lease holder disconnects on release instead
+        if (session.lock.tryLock()) {
+            try {
+                session.disconnect();
+            } finally {
+                session.lock.unlock();
+            }
+        }
+    }
+
+    public void closeAll() {
+        sessions.keySet().forEach(this::close);
+    }
+
+    // Pings idle connections and reopens dropped ones whose backoff has passed
+    void keepAlive() {
+        long now = System.currentTimeMillis();
+        for (Session session : sessions.values()) {
+            if (session.closed || !session.lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (session.console == null) {
+                    if (now >= session.retryAtMillis && (session.follower != null || isRunning(session.serverName))) {
+                        session.connect();
+                    }
+                } else if (now - session.lastUsedMillis >= keepaliveIdleMillis) {
+                    String command = keepaliveCommand(session.serverName);
+                    if (command != null) {
+                        session.console.execute(command);
+                        session.lastUsedMillis = now;
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Console keepalive for server {} failed: {}", session.serverName, e.getMessage());
+                // A failed connect has already scheduled its retry
+                if (session.console != null) {
+                    session.disconnect();
+                    session.failed();
+                }
+            } finally {
+                session.lock.unlock();
+            }
+        }
+    }
+
+    private boolean isRunning(String serverName) {
+        return servers.apply(serverName).map(GameServer::isRunning).orElse(false);
+    }
+
+    private String keepaliveCommand(String serverName) {
+        GamePlugin plugin = servers.apply(serverName).map(server -> pluginManager.getPlugin(server.getPluginName())).orElse(null);
+        return plugin != null ? plugin.getKeepaliveCommand() : null;
+    }
+
+    private final class Session {
+        final String serverName;
+        final ReentrantLock lock = new ReentrantLock();
+        // Everything below is guarded by the lock
+        GameConsole console;
+        long lastUsedMillis;
+        int failures;
+        long retryAtMillis;
+        volatile boolean closed;
+        // Receives the console's log lines while connected
+        volatile Consumer<String> follower;
+
+        Session(String serverName) {
+            this.serverName = serverName;
+        }
+
+        GameConsole connect() throws IOException {
+            if (console != null) {
+                return console;
+            }
+            long now = System.currentTimeMillis();
+            if (now < retryAtMillis) {
+                throw new IOException("Console of server " + serverName + " is unavailable, retrying in "
+                        + TimeUnit.MILLISECONDS.toSeconds(retryAtMillis - now + 999) + " s");
+            }
+            // A followed console may belong to a server started outside the daemon
+            GameServer server = servers.apply(serverName)
+                    .filter(candidate -> candidate.isRunning() || follower != null)
+                    .orElseThrow(() -> new IOException("Server " + serverName + " is not running"));
+            GamePlugin plugin = pluginManager.getPlugin(server.getPluginName());
+            GameConsole opened;
+            try {
+                opened = plugin != null ? plugin.openConsole(server) : null;
+            } catch (IOException e) {
+                failed();
+                throw e;
+            }
+            if (opened == null) {
+                throw new IOException("Server " + serverName + " has no console");
+            }
+            logger.debug("Opened console session for server {}", serverName);
+            console = opened;
+            lastUsedMillis = now;
+            failures = 0;
+            retryAtMillis = 0;
+            attachFollower();
+            return console;
+        }
+
+        void attachFollower() {
+            Consumer<String> lines = follower;
+            if (lines != null && !console.followLog(lines)) {
+                logger.warn("Console of server {} does not carry the server log", serverName);
+            }
+        }
+
+        void failed() {
+            failures++;
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, baseBackoffMillis << Math.min(failures - 1, 16));
+            retryAtMillis = System.currentTimeMillis() + backoff;
+        }
+
+        void disconnect() {
+            if (console != null) {
+                try {
+                    console.close();
+                } catch (IOException e) {
+                    // Ignore close errors
+                }
+                console = null;
+            }
+        }
+    }
+
+    private interface ConsoleCall<T> {
+        T apply(GameConsole console) throws IOException;
+    }
+
+    // Exclusive use of a server's console until closed. Must be closed by the thread that took it.
+    public final class Lease implements GameConsole {
+        private final Session session;
+        private boolean released;
+
+        private Lease(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public String execute(String command) throws IOException {
+            return call(console -> console.execute(command));
+        }
+
+        @Override
+        public List<String> executeAll(List<String> commands) throws IOException {
+            return call(console -> console.executeAll(commands));
+        }
+
+        private <T> T call(ConsoleCall<T> call) throws IOException {
+            if (released) {
+                throw new IOException("Console lease already released");
+            }
+            boolean reused = session.console != null;
+            GameConsole console = session.connect();
+            try {
+                return run(console, call);
+            } catch (IOException e) {
+                session.disconnect();
+                if (!reused || session.closed) {
+                    session.failed();
+                    throw e;
+                }
+                if (!(e instanceof CommandNotSentException)) {
+                    // The command may have reached the server; running it again could kick,
+                    // broadcast or save twice, so the caller decides
+                    throw e;
+                }
+            }
+            // The connection went stale while idle and nothing was sent; log in again and retry once
+            logger.debug("Console of server {} dropped, reconnecting", session.serverName);
+            console = session.connect();
+            try {
+                return run(console, call);
+            } catch (IOException e) {
+                session.disconnect();
+                session.failed();
+                throw e;
+            }
+        }
+
+        private <T> T run(GameConsole console, ConsoleCall<T> call) throws IOException {
+            T response = call.apply(console);
+            session.lastUsedMillis = System.currentTimeMillis();
+            return response;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (session.closed) {
+                session.disconnect();
+            }
+            session.lock.unlock();
+        }
+    }
+}
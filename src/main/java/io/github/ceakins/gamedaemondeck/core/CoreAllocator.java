@@ -0,0 +1,134 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Suggests a CPU affinity for each server so that co-hosted servers do not share cores. Each
+// server is kept inside one NUMA node (its memory stays local) and servers are spread over the
+// nodes, least loaded first. Once every core is taken, allocation wraps around and cores are shared.
+public class CoreAllocator {
+
+    private static final Path NODE_ROOT = Paths.get("/sys/devices/system/node");
+
+    private final List<BitSet> nodes;
+
+    public CoreAllocator(List<BitSet> nodes) {
+        this.nodes = nodes;
+    }
+
+    // Reads the NUMA layout from sysfs; a single node with every CPU when it is not available
+    public static CoreAllocator fromSystem() {
+        List<BitSet> nodes = new ArrayList<>();
+        if (Files.isDirectory(NODE_ROOT)) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(NODE_ROOT, "node[0-9]*")) {
+                List<Path> sorted = new ArrayList<>();
+                dirs.forEach(sorted::add);
+                sorted.sort((a, b) -> Integer.compare(nodeNumber(a), nodeNumber(b)));
+                for (Path dir : sorted) {
+                    Path cpulist = dir.resolve("cpulist");
+                    if (Files.exists(cpulist)) {
+                        BitSet cpus = parseCpuList(Files.readString(cpulist).trim());
+                        if (!cpus.isEmpty()) {
+                            nodes.add(cpus);
+                        }
+                    }
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                nodes.clear();
+            }
+        }
+        if (nodes.isEmpty()) {
+            BitSet all = new BitSet();
+            all.set(0, Runtime.getRuntime().availableProcessors());
+            nodes.add(all);
+        }
+        return new CoreAllocator(nodes);
+    }
+
+    // Returns server name -> cpu list, in the order the servers were given
+    public Map<String, String> allocate(List<GameServer> servers, int coresPerServer) {
+        List<BitSet> free = new ArrayList<>();
+        for (BitSet node : nodes) {
+            free.add((BitSet) node.clone());
+        }
+        Map<String, String> allocation = new LinkedHashMap<>();
+        for (GameServer server : servers) {
+            int node = leastLoaded(free);
+            int wanted = Math.min(coresPerServer, nodes.get(node).cardinality());
+            if (free.get(node).cardinality() < wanted) {
+                // Every node is full; start handing out cores again
+                for (int i = 0; i < free.size(); i++) {
+                    free.set(i, (BitSet) nodes.get(i).clone());
+                }
+                node = leastLoaded(free);
+                wanted = Math.min(coresPerServer, nodes.get(node).cardinality());
+            }
+            BitSet cores = new BitSet();
+            for (int cpu = free.get(node).nextSetBit(0); cpu >= 0 && cores.cardinality() < wanted; cpu = free.get(node).nextSetBit(cpu + 1)) {
+                cores.set(cpu);
+            }
+            free.get(node).andNot(cores);
+            allocation.put(server.getName(), formatCpuList(cores));
+        }
+        return allocation;
+    }
+
+    private static int leastLoaded(List<BitSet> free) {
+        int node = 0;
+        for (int i = 1; i < free.size(); i++) {
+            if (free.get(i).cardinality() > free.get(node).cardinality()) {
+                node = i;
+            }
+        }
+        return node;
+    }
+
+    // Parses a kernel style cpu list such as "0-3,8,10-11"
+    public static BitSet parseCpuList(String cpuList) {
+        BitSet cpus = new BitSet();
+        for (String part : cpuList.trim().split(",")) {
+            String[] bounds = part.trim().split("-", 2);
+            try {
+                int from = Integer.parseInt(bounds[0].trim());
+                int to = bounds.length > 1 ? Integer.parseInt(bounds[1].trim()) : from;
+                if (from < 0 || to < from || to > 4095) {
+                    throw new IllegalArgumentException("Invalid CPU range: " + part);
+                }
+                cpus.set(from, to + 1);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CPU list: " + cpuList, e);
+            }
+        }
+        return cpus;
+    }
+
+    public static String formatCpuList(BitSet cpus) {
+        StringBuilder out = new StringBuilder();
+        for (int start = cpus.nextSetBit(0); start >= 0; ) {
+            int end = cpus.nextClearBit(start) - 1;
+            if (!out.isEmpty()) {
+                out.append(',');
+            }
+            out.append(start);
+            if (end > start) {
+                out.append('-').append(end);
+            }
+            start = cpus.nextSetBit(end + 1);
+        }
+        return out.toString();
+    }
+
+    private static int nodeNumber(Path dir) {
+        return Integer.parseInt(dir.getFileName().toString().substring(4));
+    }
+}
@@ -0,0 +1,207 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.ConfigStore;
+import io.github.ceakins.gamedaemondeck.db.DiscordWebhook;
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.db.JournalEntry;
+import io.github.ceakins.gamedaemondeck.util.WebhookSender;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Tells crashes apart from requested stops and applies each server's crash policy: restart with
+// exponential backoff, and give up (and alert) once a server crashes maxCrashes times within
+// crashWindowSeconds. The breaker stays open until the server is started by hand.
+public class CrashSupervisor {
+
+    public interface Restarter {
+        void restart(String serverName) throws Exception;
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(CrashSupervisor.class);
+    private static final long DEFAULT_BASE_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int MAX_DETAIL_LINES = 20;
+
+    private final ConfigStore configStore;
+    private final ScheduledExecutorService timer;
+    private final Executor workers;
+    private final WebhookSender webhookSender;
+    private final Restarter restarter;
+    private final long baseBackoffMillis;
+    private final Set<String> expectedStops = ConcurrentHashMap.newKeySet();
+    private final Map<String, History> histories = new ConcurrentHashMap<>();
+
+    public CrashSupervisor(ConfigStore configStore, ScheduledExecutorService timer, Executor workers,
+                           WebhookSender webhookSender, Restarter restarter) {
+        this(configStore, timer, workers, webhookSender, restarter, DEFAULT_BASE_BACKOFF_MILLIS);
+    }
+
+    CrashSupervisor(ConfigStore configStore, ScheduledExecutorService timer, Executor workers,
+                    WebhookSender webhookSender, Restarter restarter, long baseBackoffMillis) {
+        this.configStore = configStore;
+        this.timer = timer;
+        this.workers = workers;
+        this.webhookSender = webhookSender;
+        this.restarter = restarter;
+        this.baseBackoffMillis = baseBackoffMillis;
+    }
+
+    // Marks the next exit of this server as requested, and drops any pending auto-restart
+    public void expectStop(String serverName) {
+        expectedStops.add(serverName);
+        History history = histories.get(serverName);
+        if (history != null) {
+            synchronized (history) {
+                history.cancelPending();
+            }
+        }
+    }
+
+    // Called whenever a server process is launched
+    public void onStart(String serverName) {
+        expectedStops.remove(serverName);
+    }
+
+    // Called for an operator start: forgets past crashes and closes the breaker
+    public void reset(String serverName) {
+        History history = histories.remove(serverName);
+        if (history != null) {
+            synchronized (history) {
+                history.cancelPending();
+            }
+        }
+    }
+
+    // Returns true if the exit was a crash
+    public boolean onExit(GameServer server, int exitCode, List<String> lastLines) {
+        if (expectedStops.remove(server.getName())) {
+            return false;
+        }
+        StringBuilder detail = new StringBuilder("Exit code ").append(exitCode);
+        List<String> tail = lastLines.subList(Math.max(0, lastLines.size() - MAX_DETAIL_LINES), lastLines.size());
+        for (String line : tail) {
+            detail.append('\n').append(line);
+        }
+        crashed(server, exitCode, detail.toString());
+        return true;
+    }
+
+    public Map<String, Object> getStatus(String serverName) {
+        History history = histories.get(serverName);
+        if (history == null) {
+            return null;
+        }
+        synchronized (history) {
+            Map<String, Object> status = new HashMap<>();
+            status.put("recentCrashes", history.crashes.size());
+            status.put("lastExitCode", history.lastExitCode);
+            status.put("lastCrashAt", history.lastCrashAt);
+            status.put("nextRestartAt", history.pending != null ? history.nextRestartAt : null);
+            status.put("tripped", history.tripped);
+            return status;
+        }
+    }
+
+    private void crashed(GameServer server, int exitCode, String detail) {
+        String serverName = server.getName();
+        logger.warn("Server {} crashed with exit code {}", serverName, exitCode);
+        configStore.journal(JournalEntry.of(serverName, JournalEntry.Operation.CRASH, false, null, detail));
+
+        History history = histories.computeIfAbsent(serverName, name -> new History());
+        synchronized (history) {
+            long now = System.currentTimeMillis();
+            long windowStart = now - TimeUnit.SECONDS.toMillis(Math.max(1, server.getCrashWindowSeconds()));
+            history.crashes.addLast(now);
+            while (!history.crashes.isEmpty() && history.crashes.peekFirst() < windowStart) {
+                history.crashes.removeFirst();
+            }
+            history.lastExitCode = exitCode;
+            history.lastCrashAt = now;
+            history.cancelPending();
+
+            if (!server.isAutoRestart() || history.tripped) {
+                return;
+            }
+            int crashes = history.crashes.size();
+            if (crashes >= Math.max(1, server.getMaxCrashes())) {
+                history.tripped = true;
+                logger.error("Server {} crashed {} times within {} s, not restarting", serverName, crashes, server.getCrashWindowSeconds());
+                workers.execute(() -> alert(server, "Server " + serverName + " crashed " + crashes + " times within "
+                        + server.getCrashWindowSeconds() + " seconds and will not be restarted automatically. Last exit code: " + exitCode));
+                return;
+            }
+            long delay = Math.min(MAX_BACKOFF_MILLIS, baseBackoffMillis << Math.min(crashes - 1, 20));
+            history.nextRestartAt = now + delay;
+            history.pending = timer.schedule(() -> workers.execute(() -> restart(serverName, history)), delay, TimeUnit.MILLISECONDS);
+            logger.info("Restarting server {} in {} ms", serverName, delay);
+        }
+    }
+
+    private void restart(String serverName, History history) {
+        synchronized (history) {
+            if (history.pending == null || history.pending.isCancelled()) {
+                return;
+            }
+            history.pending = null;
+        }
+        try {
+            restarter.restart(serverName);
+        } catch (Exception e) {
+            logger.error("Automatic restart of {} failed", serverName, e);
+            configStore.getServers().stream()
+                .filter(s -> s != null && s.getName().equals(serverName))
+                .findFirst()
+                .ifPresent(server -> crashed(server, -1, "Restart failed: " + e.getMessage()));
+        }
+    }
+
+    private void alert(GameServer server, String message) {
+        List<String> urls = new ArrayList<>();
+        if (server.getCrashWebhook() != null && !server.getCrashWebhook().isBlank()) {
+            configStore.getWebhook(server.getCrashWebhook()).ifPresent(webhook -> urls.add(webhook.getUrl()));
+        } else {
+            for (DiscordWebhook webhook : configStore.getAllWebhooks()) {
+                if (webhook.getPluginName() == null || webhook.getPluginName().isBlank()
+                        || webhook.getPluginName().equals(server.getPluginName())) {
+                    urls.add(webhook.getUrl());
+                }
+            }
+        }
+        for (String url : urls) {
+            try {
+                webhookSender.sendWebhookMessage(url, message);
+            } catch (Exception e) {
+                logger.error("Failed to send crash alert for {}", server.getName(), e);
+            }
+        }
+    }
+
+    private static final class History {
+        final Deque<Long> crashes = new ArrayDeque<>();
+        Integer lastExitCode;
+        Long lastCrashAt;
+        long nextRestartAt;
+        boolean tripped;
+        ScheduledFuture<?> pending;
+
+        void cancelPending() {
+            if (pending != null) {
+                pending.cancel(false);
+                pending = null;
+            }
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package io.github.ceakins.gamedaemondeck.core;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.ceakins.gamedaemondeck.db.ConfigStore;
 import io.github.ceakins.gamedaemondeck.db.Configuration;
 import io.github.ceakins.gamedaemondeck.db.DiscordBot;
 import io.github.ceakins.gamedaemondeck.db.DiscordWebhook;
 import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.db.JournalEntry;
+import io.github.ceakins.gamedaemondeck.db.MetricResolution;
 import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
 import io.github.ceakins.gamedaemondeck.plugins.LogHighlighter;
+import io.github.ceakins.gamedaemondeck.util.DefaultWebhookSender;
+import io.github.ceakins.gamedaemondeck.util.SteamCmdOutput;
+import io.github.ceakins.gamedaemondeck.util.SteamManager;
 import io.javalin.Javalin;
+import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import io.javalin.http.sse.SseClient;
 import io.javalin.rendering.template.JavalinThymeleaf;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.crypto.bcrypt.BCrypt;
@@ -17,17 +26,16 @@ import org.springframework.security.crypto.bcrypt.BCrypt;
 import java.awt.FileDialog;
 import java.awt.Frame;
 import java.awt.EventQueue;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -40,11 +48,29 @@ public class GameDaemonDeckApp {
     private final PluginManager pluginManager;
     public final io.javalin.Javalin app;
     private static final Logger logger = LoggerFactory.getLogger(GameDaemonDeckApp.class);
-    private final Map<String, Process> runningServerProcesses = new ConcurrentHashMap<>();
-    // Store logs for each server: Map<ServerName, Queue<LogLine>>
-    private final Map<String, Queue<String>> serverLogs = new ConcurrentHashMap<>();
-    private static final int MAX_LOG_LINES = 1000;
+    private final ProcessSupervisor processSupervisor = new ProcessSupervisor(Paths.get("data", "logs"));
+    // Recent log lines of each server
+    private final Map<String, LogBuffer> serverLogs = new ConcurrentHashMap<>();
+    // Servers whose log is read from their console session instead of the process output
+    private final Set<String> consoleLogServers = ConcurrentHashMap.newKeySet();
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final ReadinessTracker readinessTracker;
+    private final ConsoleSessionManager consoleSessions;
+    private final ConsoleQueryCache consoleQueries;
+    private final RestartCountdown restartCountdown;
+    private final RestartScheduler restartScheduler;
+    private final RestartOrchestrator restartOrchestrator;
+    private final CrashSupervisor crashSupervisor;
+    private final ResourceSampler resourceSampler;
+    private final GameMetricsCollector gameMetrics;
+    private final ShutdownCoordinator shutdownCoordinator;
+    private final AutoStarter autoStarter;
+    private final JobManager jobManager = new JobManager(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("job-", 0).factory()));
+    private final Set<SseClient> jobClients = ConcurrentHashMap.newKeySet();
+    // Serializes lifecycle commands and state changes per server
+    private final ServerActors actors = new ServerActors(
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("server-", 0).factory()));
 
     public GameDaemonDeckApp() {
         this(ConfigStore.getInstance(), new DiscordService(ConfigStore.getInstance()), new PluginManager());
@@ -54,6 +80,96 @@ public class GameDaemonDeckApp {
         this.configStore = configStore;
         this.discordService = discordService;
         this.pluginManager = pluginManager;
+        this.readinessTracker = new ReadinessTracker(scheduler,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ready-probe-", 0).factory()),
+                configStore::getMetricStore);
+        this.consoleSessions = new ConsoleSessionManager(pluginManager, this::findServer, scheduler,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("console-", 0).factory()));
+        this.consoleQueries = new ConsoleQueryCache(pluginManager, this::findServer, consoleSessions::execute);
+        this.restartCountdown = new RestartCountdown(consoleSessions, pluginManager, this::findServer,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("countdown-", 0).factory()));
+        this.restartScheduler = new RestartScheduler(scheduler, this::onScheduledRestart,
+                restartCountdown::warn, this::restartWarningOffsets);
+        this.restartOrchestrator = new RestartOrchestrator(configStore, scheduler,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("restart-", 0).factory()),
+                new RestartOrchestrator.RestartAction() {
+                    @Override
+                    public void stop(String serverName) throws Exception {
+                        GameServer server = findServer(serverName)
+                            .orElseThrow(() -> new IllegalStateException("Server not found"));
+                        if (server.isRunning()) {
+                            restartCountdown.finish(serverName);
+                            stopServer(serverName);
+                            // Wait a bit before starting to ensure resources are freed
+                            Thread.sleep(5000);
+                        }
+                    }
+
+                    @Override
+                    public void start(String serverName) throws Exception {
+                        startServer(serverName);
+                        int timeout = configStore.getConfiguration().orElseGet(Configuration::new).getReadyTimeoutSeconds();
+                        if (!readinessTracker.awaitReady(serverName, Duration.ofSeconds(timeout))) {
+                            throw new IllegalStateException("Server did not become ready within " + timeout + " s");
+                        }
+                    }
+                });
+
+        this.crashSupervisor = new CrashSupervisor(configStore, scheduler,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("crash-", 0).factory()),
+                new DefaultWebhookSender(new OkHttpClient(), new ObjectMapper()),
+                serverName -> {
+                    GameServer server = findServer(serverName)
+                        .orElseThrow(() -> new IllegalStateException("Server not found"));
+                    if (!server.isRunning()) {
+                        logger.info("Automatically restarting crashed server {}", serverName);
+                        // Queued like any other restart, so a burst of crashes honours the
+                        // concurrency limit, the stagger and the readiness gate
+                        try {
+                            restartOrchestrator.submit(server, false).get();
+                        } catch (ExecutionException e) {
+                            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+                        }
+                    }
+                });
+
+        this.resourceSampler = new ResourceSampler(processSupervisor, configStore::getMetricStore,
+                Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("resource-sampler").daemon().factory()),
+                () -> configStore.getConfiguration().map(Configuration::getResourceSampleSeconds).orElse(10));
+        this.gameMetrics = new GameMetricsCollector(pluginManager, this::findServer, configStore::getMetricStore,
+                consoleQueries::query, processSupervisor::getNames,
+                serverName -> readinessTracker.getState(serverName) == ReadinessTracker.State.READY,
+                Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("game-metrics").daemon().factory()),
+                () -> configStore.getConfiguration().map(Configuration::getResourceSampleSeconds).orElse(10));
+
+        this.shutdownCoordinator = new ShutdownCoordinator(processSupervisor,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("shutdown-", 0).factory()));
+
+        this.autoStarter = new AutoStarter(new AutoStarter.Launcher() {
+                    @Override
+                    public void start(String serverName) throws Exception {
+                        startServer(serverName);
+                    }
+
+                    @Override
+                    public boolean awaitReady(String serverName, Duration timeout) throws InterruptedException {
+                        return readinessTracker.awaitReady(serverName, timeout);
+                    }
+                },
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("autostart-", 0).factory()));
+
+        // Push every job change to the connected dashboards
+        jobManager.addListener(job -> {
+            for (SseClient client : jobClients) {
+                synchronized (client) {
+                    if (client.terminated()) {
+                        jobClients.remove(client);
+                    } else {
+                        client.sendEvent("job", job);
+                    }
+                }
+            }
+        });
 
         app = Javalin.create(config -> {
             config.fileRenderer(new JavalinThymeleaf());
@@ -100,12 +216,59 @@ public class GameDaemonDeckApp {
         // Start all bots
         discordService.startAllBots();
 
+        // Re-adopt game servers that kept running while the daemon was down
+        reconcileServers();
+
         // Start scheduler
         startScheduler();
+        resourceSampler.start();
+        gameMetrics.start();
+        consoleSessions.start();
+        configStore.getServers().stream()
+            .filter(server -> server != null && server.isConsoleLogSource())
+            .forEach(this::followConsoleLog);
+
+        // Bring up the servers flagged for autostart without holding up the web interface
+        Thread.ofVirtual().name("autostart").start(() -> {
+            Configuration settings = configStore.getConfiguration().orElseGet(Configuration::new);
+            try {
+                Map<String, Boolean> results = autoStarter.startAll(configStore.getServers(),
+                        settings.getAutostartConcurrency(), Duration.ofSeconds(settings.getReadyTimeoutSeconds()));
+                if (!results.isEmpty()) {
+                    logger.info("Autostart finished: {}", results);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // Persist open metric blocks and apply retention once a minute
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                configStore.getMetricStore().flush();
+            } catch (Exception e) {
+                logger.error("Error flushing metrics", e);
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+
+        // Write queued journal entries in batches
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                configStore.flushJournal();
+            } catch (Exception e) {
+                logger.error("Error flushing journal", e);
+            }
+        }, 2, 2, TimeUnit.SECONDS);
 
         // Add a shutdown hook to stop all bots and close the database
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Configuration settings = configStore.getConfiguration().orElseGet(Configuration::new);
+            if (settings.isStopServersOnExit()) {
+                stopAllServers(Duration.ofSeconds(Math.max(1, settings.getShutdownDeadlineSeconds())));
+            }
             discordService.stopAllBots();
+            consoleSessions.closeAll();
+            processSupervisor.close();
             scheduler.shutdown();
             configStore.close();
         }));
@@ -258,54 +421,133 @@ public class GameDaemonDeckApp {
                     serverPath,
                     commandLine);
 
-            configStore.getServers().stream()
-                .filter(s -> s.getName().equals(serverName))
-                .findFirst()
-                .ifPresent(server -> {
-                    server.setServerPath(serverPath);
-                    server.setCommandLine(commandLine);
-                    configStore.saveServer(server);
-                });
+            updateServer(serverName, server -> {
+                server.setServerPath(serverPath);
+                server.setCommandLine(commandLine);
+            });
 
             ctx.redirect("/");
         });
 
         app.post("/servers/{name}/start", ctx -> {
-            String serverName = ctx.pathParam("name");
-            Optional<GameServer> serverOpt = configStore.getServers().stream()
-                .filter(s -> s.getName().equals(serverName))
-                .findFirst();
-
-            if (serverOpt.isPresent()) {
-                GameServer server = serverOpt.get();
-                try {
-                    startServer(server);
-                    ctx.status(HttpStatus.OK).result("Server started with PID " + server.getPid());
-                } catch (Exception e) {
-                    ctx.status(HttpStatus.INTERNAL_SERVER_ERROR).result("Failed to start server: " + e.getMessage());
-                }
-            } else {
+            Optional<GameServer> serverOpt = findServer(ctx.pathParam("name"));
+            if (serverOpt.isEmpty()) {
                 ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+                return;
             }
+            GameServer server = serverOpt.get();
+            submitJob(ctx, server, JobManager.Type.START, job -> {
+                crashSupervisor.reset(server.getName());
+                GameServer started = startServer(server.getName());
+                job.progress("Started with PID " + started.getPid());
+            });
         });
 
         app.post("/servers/{name}/stop", ctx -> {
-            String serverName = ctx.pathParam("name");
-            Optional<GameServer> serverOpt = configStore.getServers().stream()
-                .filter(s -> s.getName().equals(serverName))
-                .findFirst();
+            Optional<GameServer> serverOpt = findServer(ctx.pathParam("name"));
+            if (serverOpt.isEmpty()) {
+                ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+                return;
+            }
+            GameServer server = serverOpt.get();
+            submitJob(ctx, server, JobManager.Type.STOP, job -> {
+                job.progress("Shutting down");
+                stopServer(server.getName());
+            });
+        });
 
-            if (serverOpt.isPresent()) {
-                GameServer server = serverOpt.get();
+        app.post("/servers/{name}/restart", ctx -> {
+            Optional<GameServer> serverOpt = findServer(ctx.pathParam("name"));
+            if (serverOpt.isEmpty()) {
+                ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+                return;
+            }
+            GameServer server = serverOpt.get();
+            submitJob(ctx, server, JobManager.Type.RESTART, job -> {
+                CompletableFuture<Void> done = restartOrchestrator.submit(server, false);
+                job.progress("Restart queued");
                 try {
-                    stopServer(server);
-                    ctx.status(HttpStatus.OK).result("Server stopped");
-                } catch (Exception e) {
-                    ctx.status(HttpStatus.INTERNAL_SERVER_ERROR).result("Failed to stop server: " + e.getMessage());
+                    done.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
                 }
-            } else {
+            });
+        });
+
+        app.post("/servers/{name}/update", ctx -> {
+            Optional<GameServer> serverOpt = findServer(ctx.pathParam("name"));
+            if (serverOpt.isEmpty()) {
                 ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+                return;
             }
+            GameServer server = serverOpt.get();
+            submitJob(ctx, server, JobManager.Type.UPDATE, job -> {
+                if (findServer(server.getName()).map(GameServer::isRunning).orElse(false)) {
+                    throw new IllegalStateException("Stop the server before updating it");
+                }
+                if (server.getAppId() == null || server.getAppId().isBlank()) {
+                    throw new IllegalStateException("Server has no Steam app ID");
+                }
+                if (server.getServerPath() == null || server.getServerPath().isBlank()) {
+                    throw new IllegalStateException("Server path not configured");
+                }
+                job.progress("Running SteamCMD for app " + server.getAppId());
+                new SteamManager(configStore).installOrUpdateGame(server.getName(), server.getAppId(),
+                        Paths.get(executablePath(server)).toAbsolutePath().getParent().toString(),
+                        new SteamCmdOutput.Listener() {
+                            @Override
+                            public void line(String line) {
+                                job.log(line);
+                            }
+
+                            @Override
+                            public void progress(String state, double percent) {
+                                job.progress(String.format("SteamCMD %s %.1f%%", state, percent), percent);
+                            }
+                        });
+            });
+        });
+
+        app.get("/api/jobs", ctx -> ctx.json(jobManager.list()));
+
+        app.get("/api/jobs/{id}", ctx -> {
+            Optional<JobManager.Job> job = jobManager.get(ctx.pathParam("id"));
+            if (job.isPresent()) {
+                ctx.json(job.get());
+            } else {
+                ctx.status(HttpStatus.NOT_FOUND).result("Job not found");
+            }
+        });
+
+        app.get("/api/jobs/{id}/log", ctx -> {
+            Optional<JobManager.Job> job = jobManager.get(ctx.pathParam("id"));
+            if (job.isPresent()) {
+                ctx.json(Map.of("lines", job.get().logLines()));
+            } else {
+                ctx.status(HttpStatus.NOT_FOUND).result("Job not found");
+            }
+        });
+
+        app.sse("/api/jobs/events", client -> {
+            client.keepAlive();
+            client.onClose(() -> jobClients.remove(client));
+            jobClients.add(client);
+        });
+
+        app.get("/api/restarts", ctx -> ctx.json(restartOrchestrator.getStatuses()));
+
+        app.post("/api/servers/stop-all", ctx -> {
+            Integer deadlineSeconds;
+            try {
+                deadlineSeconds = optionalIntParam(ctx.queryParam("deadlineSeconds"), 1);
+            } catch (IllegalArgumentException e) {
+                ctx.status(HttpStatus.BAD_REQUEST).result(e.getMessage());
+                return;
+            }
+            if (deadlineSeconds == null) {
+                deadlineSeconds = configStore.getConfiguration().orElseGet(Configuration::new).getShutdownDeadlineSeconds();
+            }
+            ctx.json(stopAllServers(Duration.ofSeconds(deadlineSeconds)));
         });
 
         app.get("/api/servers/status", ctx -> {
@@ -319,6 +561,18 @@ public class GameDaemonDeckApp {
                     boolean configured = server.getServerPath() != null && !server.getServerPath().isBlank();
                     status.put("configured", configured);
                     status.put("restartTimes", server.getRestartTimes());
+                    status.put("restartTimeZone", server.getRestartTimeZone());
+                    status.put("restartPriority", server.getRestartPriority());
+                    Instant nextRestart = restartScheduler.getNextFire(server.getName());
+                    status.put("nextRestart", nextRestart != null ? nextRestart.toEpochMilli() : null);
+                    status.put("restart", restartOrchestrator.getStatus(server.getName()));
+                    status.put("crash", crashSupervisor.getStatus(server.getName()));
+                    status.put("resources", resourceSampler.getUsage(server.getName()));
+                    status.put("state", server.isRunning() ? readinessTracker.getState(server.getName()) : null);
+                    status.put("readiness", readinessTracker.getStatus(server.getName()));
+                    status.put("autoStart", server.isAutoStart());
+                    status.put("startGroup", server.getStartGroup());
+                    status.put("consoleLogSource", server.isConsoleLogSource());
                     return status;
                 })
                 .collect(Collectors.toList());
@@ -327,9 +581,9 @@ public class GameDaemonDeckApp {
         
         app.get("/api/servers/{name}/logs", ctx -> {
             String serverName = ctx.pathParam("name");
-            Queue<String> logs = serverLogs.get(serverName);
+            LogBuffer logs = serverLogs.get(serverName);
             if (logs != null) {
-                ctx.json(logs);
+                ctx.json(logs.snapshot());
             } else {
                 ctx.json(Collections.emptyList());
             }
@@ -402,9 +656,11 @@ public class GameDaemonDeckApp {
                         
                         // Return the full path to the created file
                         String fullPath = serverDir.resolve(fileName.endsWith(".xml") ? fileName : fileName + ".xml").toAbsolutePath().toString();
+                        configStore.journal(JournalEntry.of(serverName, JournalEntry.Operation.CONFIG_GENERATED, true, null, fullPath));
                         ctx.json(Map.of("path", fullPath));
                     } catch (IOException e) {
                         logger.error("Failed to create config file", e);
+                        configStore.journal(JournalEntry.of(serverName, JournalEntry.Operation.CONFIG_GENERATED, false, null, e.getMessage()));
                         ctx.status(HttpStatus.INTERNAL_SERVER_ERROR).result("Failed to create config file: " + e.getMessage());
                     }
                 } else {
@@ -483,15 +739,268 @@ public class GameDaemonDeckApp {
 
             if (serverOpt.isPresent()) {
                 GameServer server = serverOpt.get();
-                List<String> restartTimes = ctx.bodyAsClass(List.class);
-                server.setRestartTimes(restartTimes);
-                configStore.saveServer(server);
+                // Accept either a bare list of times or
+                // {"times": [...], "timeZone": "Europe/Berlin", "restartPriority": 10}
+                Object body = ctx.bodyAsClass(Object.class);
+                List<String> restartTimes;
+                String timeZone = server.getRestartTimeZone();
+                Integer restartPriority = null;
+                if (body instanceof Map<?, ?> map) {
+                    restartTimes = (List<String>) map.get("times");
+                    timeZone = (String) map.get("timeZone");
+                    if (map.get("restartPriority") instanceof Number priority) {
+                        restartPriority = priority.intValue();
+                    } else if (map.get("restartPriority") != null) {
+                        ctx.status(HttpStatus.BAD_REQUEST).result("restartPriority must be a number");
+                        return;
+                    }
+                } else {
+                    restartTimes = (List<String>) body;
+                }
+
+                try {
+                    RestartScheduler.validate(restartTimes, timeZone);
+                } catch (RuntimeException e) {
+                    ctx.status(HttpStatus.BAD_REQUEST).result("Invalid schedule: " + e.getMessage());
+                    return;
+                }
+
+                List<String> times = restartTimes != null ? restartTimes : new ArrayList<>();
+                String zone = timeZone == null || timeZone.isBlank() ? null : timeZone;
+                Integer priority = restartPriority;
+                updateServer(serverName, current -> {
+                    current.setRestartTimes(times);
+                    current.setRestartTimeZone(zone);
+                    if (priority != null) {
+                        current.setRestartPriority(priority);
+                    }
+                }).ifPresent(restartScheduler::reschedule);
+                ctx.status(HttpStatus.OK);
+            } else {
+                ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+            }
+        });
+
+        app.post("/api/servers/{name}/crash-policy", ctx -> {
+            Optional<GameServer> serverOpt = findServer(ctx.pathParam("name"));
+            if (serverOpt.isEmpty()) {
+                ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+                return;
+            }
+
+            GameServer server = serverOpt.get();
+            Map<String, Object> body = ctx.bodyAsClass(Map.class);
+            if (body.get("autoRestart") instanceof Boolean autoRestart) {
+                server.setAutoRestart(autoRestart);
+            }
+            if (body.get("maxCrashes") instanceof Number maxCrashes) {
+                if (maxCrashes.intValue() < 1) {
+                    ctx.status(HttpStatus.BAD_REQUEST).result("maxCrashes must be at least 1");
+                    return;
+                }
+                server.setMaxCrashes(maxCrashes.intValue());
+            }
+            if (body.get("crashWindowSeconds") instanceof Number window) {
+                if (window.intValue() < 1) {
+                    ctx.status(HttpStatus.BAD_REQUEST).result("crashWindowSeconds must be at least 1");
+                    return;
+                }
+                server.setCrashWindowSeconds(window.intValue());
+            }
+            if (body.containsKey("crashWebhook")) {
+                String webhook = (String) body.get("crashWebhook");
+                server.setCrashWebhook(webhook == null || webhook.isBlank() ? null : webhook);
+            }
+            updateServer(server.getName(), current -> {
+                current.setAutoRestart(server.isAutoRestart());
+                current.setMaxCrashes(server.getMaxCrashes());
+                current.setCrashWindowSeconds(server.getCrashWindowSeconds());
+                current.setCrashWebhook(server.getCrashWebhook());
+            });
+            ctx.status(HttpStatus.OK);
+        });
+
+        app.post("/api/servers/{name}/console", ctx -> {
+            Optional<GameServer> serverOpt = findServer(ctx.pathParam("name"));
+            if (serverOpt.isEmpty()) {
+                ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+                return;
+            }
+            Map<String, Object> body = ctx.bodyAsClass(Map.class);
+            // A list of commands runs as one pipelined batch, e.g. a maintenance script
+            if (body.get("commands") instanceof List<?> list) {
+                List<String> commands = list.stream()
+                        .filter(command -> command instanceof String text && !text.isBlank())
+                        .map(String.class::cast)
+                        .toList();
+                if (commands.isEmpty() || commands.size() != list.size()) {
+                    ctx.status(HttpStatus.BAD_REQUEST).result("Commands must be non-empty strings");
+                    return;
+                }
+                try {
+                    ctx.json(Map.of("responses", consoleSessions.executeAll(serverOpt.get().getName(), commands)));
+                } catch (IOException e) {
+                    ctx.status(HttpStatus.SERVICE_UNAVAILABLE).result("Console commands failed: " + e.getMessage());
+                }
+                return;
+            }
+            if (!(body.get("command") instanceof String command) || command.isBlank()) {
+                ctx.status(HttpStatus.BAD_REQUEST).result("Command is required");
+                return;
+            }
+            try {
+                // Read-only queries are shared between viewers for a few seconds
+                ctx.json(Map.of("response", consoleQueries.query(serverOpt.get().getName(), command)));
+            } catch (IOException e) {
+                ctx.status(HttpStatus.SERVICE_UNAVAILABLE).result("Console command failed: " + e.getMessage());
+            }
+        });
+
+        app.post("/api/servers/{name}/autostart", ctx -> {
+            Map<String, Object> body = ctx.bodyAsClass(Map.class);
+            Optional<GameServer> updated = updateServer(ctx.pathParam("name"), server -> {
+                if (body.get("autoStart") instanceof Boolean autoStart) {
+                    server.setAutoStart(autoStart);
+                }
+                if (body.get("startGroup") instanceof Number startGroup) {
+                    server.setStartGroup(startGroup.intValue());
+                }
+            });
+            if (updated.isPresent()) {
                 ctx.status(HttpStatus.OK);
             } else {
                 ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
             }
         });
 
+        app.post("/api/servers/{name}/log-source", ctx -> {
+            Map<String, Object> body = ctx.bodyAsClass(Map.class);
+            if (!(body.get("console") instanceof Boolean console)) {
+                ctx.status(HttpStatus.BAD_REQUEST).result("console must be true or false");
+                return;
+            }
+            Optional<GameServer> updated = updateServer(ctx.pathParam("name"), server -> server.setConsoleLogSource(console));
+            if (updated.isPresent()) {
+                followConsoleLog(updated.get());
+                ctx.status(HttpStatus.OK);
+            } else {
+                ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+            }
+        });
+
+        app.post("/api/servers/{name}/placement", ctx -> {
+            Optional<GameServer> serverOpt = findServer(ctx.pathParam("name"));
+            if (serverOpt.isEmpty()) {
+                ctx.status(HttpStatus.NOT_FOUND).result("Server not found");
+                return;
+            }
+
+            GameServer server = serverOpt.get();
+            Map<String, Object> body = ctx.bodyAsClass(Map.class);
+            GameServer placement = new GameServer();
+            String cpuAffinity = (String) body.get("cpuAffinity");
+            placement.setCpuAffinity(cpuAffinity == null || cpuAffinity.isBlank() ? null : cpuAffinity.trim());
+            placement.setNiceLevel(body.get("niceLevel") instanceof Number n ? n.intValue() : null);
+            placement.setIoniceClass(body.get("ioniceClass") instanceof Number n ? n.intValue() : null);
+            placement.setIoniceLevel(body.get("ioniceLevel") instanceof Number n ? n.intValue() : null);
+            try {
+                ProcessPlacement.validate(placement);
+            } catch (IllegalArgumentException e) {
+                ctx.status(HttpStatus.BAD_REQUEST).result(e.getMessage());
+                return;
+            }
+
+            // Takes effect the next time the server is started
+            updateServer(server.getName(), current -> {
+                current.setCpuAffinity(placement.getCpuAffinity());
+                current.setNiceLevel(placement.getNiceLevel());
+                current.setIoniceClass(placement.getIoniceClass());
+                current.setIoniceLevel(placement.getIoniceLevel());
+            });
+            ctx.status(HttpStatus.OK);
+        });
+
+        app.post("/api/placement/auto", ctx -> {
+            int coresPerServer;
+            try {
+                coresPerServer = Integer.parseInt(Objects.requireNonNullElse(ctx.queryParam("coresPerServer"), "2"));
+            } catch (NumberFormatException e) {
+                ctx.status(HttpStatus.BAD_REQUEST).result("coresPerServer must be a number");
+                return;
+            }
+            if (coresPerServer < 1) {
+                ctx.status(HttpStatus.BAD_REQUEST).result("coresPerServer must be at least 1");
+                return;
+            }
+
+            List<GameServer> servers = configStore.getServers().stream()
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingInt(GameServer::getRestartPriority).reversed().thenComparing(GameServer::getName))
+                .toList();
+            Map<String, String> allocation = CoreAllocator.fromSystem().allocate(servers, coresPerServer);
+            if (!"false".equals(ctx.queryParam("apply"))) {
+                for (GameServer server : servers) {
+                    updateServer(server.getName(), current -> current.setCpuAffinity(allocation.get(server.getName())));
+                }
+            }
+            ctx.json(allocation);
+        });
+
+        app.get("/api/servers/{name}/metrics", ctx -> {
+            String serverName = ctx.pathParam("name");
+            String metric = ctx.queryParam("metric");
+            if (metric == null || metric.isBlank()) {
+                ctx.status(HttpStatus.BAD_REQUEST).result("Metric is required");
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            long from;
+            long to;
+            MetricResolution resolution = null;
+            try {
+                to = ctx.queryParam("to") != null ? Long.parseLong(ctx.queryParam("to")) : now;
+                from = ctx.queryParam("from") != null ? Long.parseLong(ctx.queryParam("from")) : to - TimeUnit.HOURS.toMillis(1);
+                if (ctx.queryParam("resolution") != null) {
+                    resolution = MetricResolution.valueOf(ctx.queryParam("resolution").toUpperCase());
+                }
+            } catch (IllegalArgumentException e) {
+                ctx.status(HttpStatus.BAD_REQUEST).result("Invalid range or resolution");
+                return;
+            }
+
+            if (resolution == null) {
+                resolution = MetricResolution.forRange(from, to, now);
+            }
+            ctx.json(Map.of(
+                "resolution", resolution,
+                "samples", configStore.getMetricStore().query(serverName, metric, from, to, resolution)
+            ));
+        });
+
+        app.get("/api/journal", ctx -> {
+            long from;
+            long to;
+            Long after;
+            int limit;
+            try {
+                from = ctx.queryParam("from") != null ? Long.parseLong(ctx.queryParam("from")) : 0L;
+                to = ctx.queryParam("to") != null ? Long.parseLong(ctx.queryParam("to")) : System.currentTimeMillis();
+                after = ctx.queryParam("after") != null ? Long.parseLong(ctx.queryParam("after")) : null;
+                limit = ctx.queryParam("limit") != null ? Integer.parseInt(ctx.queryParam("limit")) : 100;
+            } catch (NumberFormatException e) {
+                ctx.status(HttpStatus.BAD_REQUEST).result("Invalid journal query");
+                return;
+            }
+            limit = Math.max(1, Math.min(limit, 1000));
+
+            List<JournalEntry> entries = configStore.getJournal(ctx.queryParam("server"), from, to, after, limit);
+            Map<String, Object> page = new HashMap<>();
+            page.put("entries", entries);
+            page.put("next", entries.size() == limit ? entries.get(entries.size() - 1).getId() : null);
+            ctx.json(page);
+        });
+
         app.get("/servers/config-fields", ctx -> {
             String pluginName = ctx.queryParam("pluginName");
             if (pluginName != null) {
@@ -606,6 +1115,40 @@ public class GameDaemonDeckApp {
             }
 
             Configuration config = configOptional.get();
+            try {
+                Integer maxConcurrentRestarts = optionalIntParam(ctx.formParam("maxConcurrentRestarts"), 1);
+                Integer restartStaggerSeconds = optionalIntParam(ctx.formParam("restartStaggerSeconds"), 0);
+                Integer restartJitterSeconds = optionalIntParam(ctx.formParam("restartJitterSeconds"), 0);
+                Integer resourceSampleSeconds = optionalIntParam(ctx.formParam("resourceSampleSeconds"), 1);
+                Integer autostartConcurrency = optionalIntParam(ctx.formParam("autostartConcurrency"), 1);
+                Integer shutdownDeadlineSeconds = optionalIntParam(ctx.formParam("shutdownDeadlineSeconds"), 1);
+                Integer readyTimeoutSeconds = optionalIntParam(ctx.formParam("readyTimeoutSeconds"), 1);
+                if (maxConcurrentRestarts != null) config.setMaxConcurrentRestarts(maxConcurrentRestarts);
+                if (restartStaggerSeconds != null) config.setRestartStaggerSeconds(restartStaggerSeconds);
+                if (restartJitterSeconds != null) config.setRestartJitterSeconds(restartJitterSeconds);
+                if (resourceSampleSeconds != null) config.setResourceSampleSeconds(resourceSampleSeconds);
+                if (autostartConcurrency != null) config.setAutostartConcurrency(autostartConcurrency);
+                if (shutdownDeadlineSeconds != null) config.setShutdownDeadlineSeconds(shutdownDeadlineSeconds);
+                if (readyTimeoutSeconds != null) config.setReadyTimeoutSeconds(readyTimeoutSeconds);
+                String restartWarningSeconds = ctx.formParam("restartWarningSeconds");
+                if (restartWarningSeconds != null) {
+                    List<Integer> warnings = new ArrayList<>();
+                    for (String value : restartWarningSeconds.split(",")) {
+                        Integer seconds = optionalIntParam(value, 1);
+                        if (seconds != null) warnings.add(seconds);
+                    }
+                    config.setRestartWarningSeconds(warnings);
+                }
+            } catch (IllegalArgumentException e) {
+                ctx.status(HttpStatus.BAD_REQUEST).result(e.getMessage());
+                return;
+            }
+            if (ctx.formParam("restartGateOnReady") != null) {
+                config.setRestartGateOnReady(Boolean.parseBoolean(ctx.formParam("restartGateOnReady")));
+            }
+            if (ctx.formParam("stopServersOnExit") != null) {
+                config.setStopServersOnExit(Boolean.parseBoolean(ctx.formParam("stopServersOnExit")));
+            }
             config.setSteamCmdPath(steamCmdPath);
             config.setSessionTimeoutSeconds(sessionTimeoutSeconds);
             configStore.saveConfiguration(config);
@@ -616,11 +1159,22 @@ public class GameDaemonDeckApp {
         // Settings page
         app.get("/settings", ctx -> {
             configStore.getConfiguration().ifPresent(config -> {
-                ctx.render("templates/settings.html", Map.of(
-                    "title", "Game Daemon Deck - Settings",
-                    "sessionTimeoutSeconds", config.getSessionTimeoutSeconds(),
-                    "steamCmdPath", config.getSteamCmdPath()
-                ));
+                Map<String, Object> model = new HashMap<>();
+                model.put("title", "Game Daemon Deck - Settings");
+                model.put("sessionTimeoutSeconds", config.getSessionTimeoutSeconds());
+                model.put("steamCmdPath", config.getSteamCmdPath());
+                model.put("maxConcurrentRestarts", config.getMaxConcurrentRestarts());
+                model.put("restartStaggerSeconds", config.getRestartStaggerSeconds());
+                model.put("restartJitterSeconds", config.getRestartJitterSeconds());
+                model.put("resourceSampleSeconds", config.getResourceSampleSeconds());
+                model.put("autostartConcurrency", config.getAutostartConcurrency());
+                model.put("stopServersOnExit", config.isStopServersOnExit());
+                model.put("shutdownDeadlineSeconds", config.getShutdownDeadlineSeconds());
+                model.put("readyTimeoutSeconds", config.getReadyTimeoutSeconds());
+                model.put("restartWarningSeconds", config.getRestartWarningSeconds() != null
+                    ? config.getRestartWarningSeconds().stream().map(String::valueOf).collect(Collectors.joining(", "))
+                    : "");
+                ctx.render("templates/settings.html", model);
             });
         });
 
@@ -673,34 +1227,49 @@ public class GameDaemonDeckApp {
     }
 
     private void startScheduler() {
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                LocalTime now = LocalTime.now();
-                String currentTime = now.format(DateTimeFormatter.ofPattern("HH:mm"));
-                
-                for (GameServer server : configStore.getServers()) {
-                    if (server.isRunning() && server.getRestartTimes() != null && server.getRestartTimes().contains(currentTime)) {
-                        logger.info("Scheduled restart for server: {}", server.getName());
-                        // Run restart in a separate thread to avoid blocking the scheduler
-                        new Thread(() -> {
-                            try {
-                                stopServer(server);
-                                // Wait a bit before starting to ensure resources are freed
-                                Thread.sleep(5000);
-                                startServer(server);
-                            } catch (Exception e) {
-                                logger.error("Error during scheduled restart for {}", server.getName(), e);
-                            }
-                        }).start();
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("Error in scheduler", e);
+        try {
+            restartScheduler.rescheduleAll(configStore.getServers());
+        } catch (Exception e) {
+            logger.error("Error in scheduler", e);
+        }
+    }
+
+    private void onScheduledRestart(String serverName) {
+        findServer(serverName).ifPresent(server -> {
+            if (server.isRunning()) {
+                logger.info("Scheduled restart for server: {}", server.getName());
+                restartOrchestrator.submit(server, true);
             }
-        }, 0, 1, TimeUnit.MINUTES);
+        });
     }
 
-    private void startServer(GameServer server) throws IOException {
+    private List<Duration> restartWarningOffsets() {
+        List<Integer> seconds = configStore.getConfiguration()
+            .orElseGet(Configuration::new)
+            .getRestartWarningSeconds();
+        if (seconds == null) {
+            return List.of();
+        }
+        return seconds.stream().filter(s -> s > 0).map(Duration::ofSeconds).toList();
+    }
+
+    private Optional<GameServer> findServer(String serverName) {
+        return configStore.getServers().stream()
+            .filter(s -> s != null && s.getName().equals(serverName))
+            .findFirst();
+    }
+
+    // Starts the server on its actor and returns it as stored, with the new PID
+    private GameServer startServer(String serverName) throws Exception {
+        return actors.ask(serverName, () -> {
+            GameServer server = findServer(serverName)
+                .orElseThrow(() -> new IllegalStateException("Server not found"));
+            launchServer(server);
+            return server;
+        });
+    }
+
+    private void launchServer(GameServer server) throws IOException {
         if (server.isRunning()) {
             throw new IllegalStateException("Server is already running");
         }
@@ -711,11 +1280,7 @@ public class GameDaemonDeckApp {
 
         List<String> command = new ArrayList<>();
         
-        // Clean the server path (remove quotes if present)
-        String serverPath = server.getServerPath();
-        if (serverPath.startsWith("\"") && serverPath.endsWith("\"")) {
-            serverPath = serverPath.substring(1, serverPath.length() - 1);
-        }
+        String serverPath = executablePath(server);
         command.add(serverPath);
 
         if (server.getCommandLine() != null && !server.getCommandLine().isBlank()) {
@@ -731,6 +1296,9 @@ public class GameDaemonDeckApp {
             }
         }
 
+        // Pin CPUs and set priorities through exec wrappers (Linux only)
+        command = ProcessPlacement.wrap(server, command);
+
         logger.info("Starting server {} with command: {}", server.getName(), command);
 
         ProcessBuilder pb = new ProcessBuilder(command);
@@ -743,98 +1311,308 @@ public class GameDaemonDeckApp {
         // Redirect error stream to output stream so we can read both
         pb.redirectErrorStream(true);
         
-        Process process = pb.start();
-        long pid = process.pid();
+        // Initialize log queue for this server
+        serverLogs.put(server.getName(), new LogBuffer());
+
+        crashSupervisor.onStart(server.getName());
+        // Registered before launch so that no early log line can be missed
+        GamePlugin plugin = pluginManager.getPlugin(server.getPluginName());
+        readinessTracker.starting(server.getName(),
+            plugin != null ? plugin.getReadyLogPattern() : null,
+            plugin != null ? plugin.getReadyPort(server) : null);
+        long launchStart = System.nanoTime();
+        ProcessSupervisor.ManagedProcess process;
+        try {
+            process = processSupervisor.start(server.getName(), pb,
+                line -> appendLog(server.getName(), line),
+                exitCode -> onServerExit(server.getName(), exitCode));
+        } catch (IOException e) {
+            readinessTracker.stopped(server.getName());
+            configStore.journal(JournalEntry.of(server.getName(), JournalEntry.Operation.START, false, elapsedMillis(launchStart), e.getMessage()));
+            throw e;
+        }
+        long pid = process.getPid();
+        configStore.journal(JournalEntry.of(server.getName(), JournalEntry.Operation.START, true, elapsedMillis(launchStart), "PID " + pid));
         
         server.setRunning(true);
         server.setPid(pid);
+        Instant startedAt = process.getStartedAt();
+        server.setStartedAt(startedAt != null ? startedAt.toEpochMilli() : System.currentTimeMillis());
         configStore.saveServer(server);
-        runningServerProcesses.put(server.getName(), process);
-        
-        // Initialize log queue for this server
-        serverLogs.put(server.getName(), new ConcurrentLinkedQueue<>());
-
-        // Start a thread to read and log the server's output
-        new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    // Store log line in memory
-                    Queue<String> logs = serverLogs.get(server.getName());
-                    if (logs != null) {
-                        logs.add(line);
-                        if (logs.size() > MAX_LOG_LINES) {
-                            logs.poll(); // Remove oldest
-                        }
-                    }
-                }
-            } catch (IOException e) {
-                logger.error("Error reading output from server {}", server.getName(), e);
+    }
+
+    private void reconcileServers() {
+        for (GameServer server : configStore.getServers()) {
+            if (server == null || (!server.isRunning() && server.getPid() == null)) {
+                continue;
+            }
+            try {
+                actors.ask(server.getName(), () -> {
+                    reconcileServer(server);
+                    return null;
+                });
+            } catch (Exception e) {
+                logger.error("Failed to reconcile server {}", server.getName(), e);
             }
-        }).start();
+        }
+    }
 
-        // Monitor process exit in a separate thread
-        new Thread(() -> {
+    private void reconcileServer(GameServer server) {
+        Optional<ProcessHandle> handle = server.getPid() != null ? ProcessHandle.of(server.getPid()) : Optional.empty();
+        if (handle.isPresent() && ProcessSupervisor.matches(handle.get(), server.getStartedAt(), executablePath(server))) {
             try {
-                int exitCode = process.waitFor();
-                logger.info("Server {} exited with code {}", server.getName(), exitCode);
+                serverLogs.put(server.getName(), new LogBuffer());
+                processSupervisor.adopt(server.getName(), handle.get(),
+                    line -> appendLog(server.getName(), line),
+                    exitCode -> onServerExit(server.getName(), exitCode));
+                readinessTracker.ready(server.getName());
+                logger.info("Reattached to server {} (PID {})", server.getName(), server.getPid());
+                configStore.journal(JournalEntry.of(server.getName(), JournalEntry.Operation.REATTACH, true, null, "PID " + server.getPid()));
+                if (!server.isRunning()) {
+                    server.setRunning(true);
+                    configStore.saveServer(server);
+                }
+                return;
+            } catch (IOException | IllegalStateException e) {
+                logger.error("Failed to reattach to server {}", server.getName(), e);
+            }
+        }
+        logger.info("Server {} is no longer running, clearing stale state", server.getName());
+        server.setRunning(false);
+        server.setPid(null);
+        server.setStartedAt(null);
+        configStore.saveServer(server);
+    }
+
+    // Server executable with surrounding quotes removed
+    static String executablePath(GameServer server) {
+        String serverPath = server.getServerPath();
+        if (serverPath != null && serverPath.startsWith("\"") && serverPath.endsWith("\"")) {
+            serverPath = serverPath.substring(1, serverPath.length() - 1);
+        }
+        return serverPath;
+    }
+
+    private void appendLog(String serverName, String line) {
+        readinessTracker.onLogLine(serverName, line);
+        if (consoleLogServers.contains(serverName)) {
+            return; // The console session feeds the buffer
+        }
+        gameMetrics.onLogLine(serverName, line);
+        LogBuffer logs = serverLogs.get(serverName);
+        if (logs != null) {
+            logs.add(line);
+        }
+    }
+
+    private void appendConsoleLog(String serverName, String line) {
+        readinessTracker.onLogLine(serverName, line);
+        gameMetrics.onLogLine(serverName, line);
+        serverLogs.computeIfAbsent(serverName, name -> new LogBuffer()).add(line);
+    }
+
+    // Starts or stops reading the server's log through its console session, as configured
+    private void followConsoleLog(GameServer server) {
+        String serverName = server.getName();
+        if (server.isConsoleLogSource()) {
+            consoleLogServers.add(serverName);
+            consoleSessions.follow(serverName, line -> appendConsoleLog(serverName, line));
+        } else if (consoleLogServers.remove(serverName)) {
+            consoleSessions.unfollow(serverName);
+        }
+    }
+
+    // Runs on the exit watcher; the state change itself is queued on the server's actor
+    private void onServerExit(String serverName, int exitCode) {
+        logger.info("Server {} exited with code {}", serverName, exitCode);
+        actors.tell(serverName, () -> {
+            if (processSupervisor.isRunning(serverName)) {
+                // Already started again before this exit was handled
+                return null;
+            }
+            readinessTracker.stopped(serverName);
+            gameMetrics.stopped(serverName);
+            consoleSessions.close(serverName);
+            consoleQueries.invalidate(serverName);
+            findServer(serverName).ifPresent(server -> {
+                // Keep listening in case the server is brought back outside the daemon
+                followConsoleLog(server);
                 server.setRunning(false);
                 server.setPid(null);
+                server.setStartedAt(null);
                 configStore.saveServer(server);
-                runningServerProcesses.remove(server.getName());
-            } catch (InterruptedException e) {
-                logger.error("Error waiting for server process", e);
+                LogBuffer logs = serverLogs.get(serverName);
+                crashSupervisor.onExit(server, exitCode, logs != null ? logs.snapshot() : List.of());
+            });
+            return null;
+        });
+    }
+
+    // Asks the game to save and exit, over the pooled console when the plugin has a shutdown command
+    private void requestShutdown(GameServer server, GamePlugin plugin) throws IOException {
+        String command = plugin.getShutdownCommand();
+        if (command == null) {
+            plugin.shutdownServer(server);
+            return;
+        }
+        try {
+            consoleSessions.execute(server.getName(), command);
+        } finally {
+            consoleSessions.close(server.getName());
+        }
+    }
+
+    // Applies a change to the stored server on its actor, so it cannot overwrite a concurrent
+    // state change with a stale copy. Empty if the server does not exist.
+    private Optional<GameServer> updateServer(String serverName, Consumer<GameServer> change) throws Exception {
+        return actors.ask(serverName, () -> {
+            Optional<GameServer> server = findServer(serverName);
+            server.ifPresent(current -> {
+                change.accept(current);
+                configStore.saveServer(current);
+            });
+            return server;
+        });
+    }
+
+    private void markStopped(String serverName) {
+        try {
+            updateServer(serverName, server -> {
+                server.setRunning(false);
+                server.setPid(null);
+                server.setStartedAt(null);
+            });
+        } catch (Exception e) {
+            logger.error("Failed to record that server {} stopped", serverName, e);
+        }
+    }
+
+    private List<ShutdownCoordinator.Result> stopAllServers(Duration deadline) {
+        List<GameServer> running = configStore.getServers().stream()
+            .filter(s -> s != null && s.isRunning())
+            .toList();
+        if (running.isEmpty()) {
+            return List.of();
+        }
+        logger.info("Stopping {} servers within {} s", running.size(), deadline.toSeconds());
+        running.forEach(server -> crashSupervisor.expectStop(server.getName()));
+
+        List<ShutdownCoordinator.Result> results = shutdownCoordinator.stopAll(running, server -> {
+            GamePlugin plugin = pluginManager.getPlugin(server.getPluginName());
+            if (plugin != null) {
+                requestShutdown(server, plugin);
+            }
+        }, deadline);
+
+        for (ShutdownCoordinator.Result result : results) {
+            boolean stopped = result.getOutcome() != ShutdownCoordinator.Outcome.FAILED;
+            if (result.getOutcome() == ShutdownCoordinator.Outcome.NOT_RUNNING) {
+                markStopped(result.getServerName());
+                continue;
             }
-        }).start();
+            JournalEntry.Operation operation = result.getOutcome() == ShutdownCoordinator.Outcome.GRACEFUL
+                ? JournalEntry.Operation.STOP
+                : JournalEntry.Operation.KILL;
+            configStore.journal(JournalEntry.of(result.getServerName(), operation, stopped, result.getElapsedMillis(),
+                "Stop all: " + result.getOutcome() + (result.getDetail() != null ? " (" + result.getDetail() + ")" : "")));
+            if (stopped) {
+                markStopped(result.getServerName());
+            }
+        }
+        return results;
+    }
+
+    private void stopServer(String serverName) throws Exception {
+        actors.ask(serverName, () -> {
+            haltServer(findServer(serverName).orElseThrow(() -> new IllegalStateException("Server not found")));
+            return null;
+        });
     }
 
-    private void stopServer(GameServer server) throws IOException {
+    private void haltServer(GameServer server) throws IOException {
         if (!server.isRunning()) {
             throw new IllegalStateException("Server is not running");
         }
 
+        crashSupervisor.expectStop(server.getName());
+        long stopStart = System.nanoTime();
         GamePlugin plugin = pluginManager.getPlugin(server.getPluginName());
         if (plugin != null) {
             try {
-                plugin.shutdownServer(server);
+                requestShutdown(server, plugin);
             } catch (IOException e) {
                 logger.error("Failed to gracefully shutdown server {}, falling back to kill", server.getName(), e);
             }
         }
 
-        // Wait for process to exit (up to 30 seconds)
-        Process process = runningServerProcesses.get(server.getName());
-        if (process != null) {
+        Optional<ProcessSupervisor.ManagedProcess> process = processSupervisor.get(server.getName());
+        if (process.isPresent()) {
             try {
                 // Give it 5 seconds to shut down gracefully
-                if (process.waitFor(5, java.util.concurrent.TimeUnit.SECONDS)) {
+                if (processSupervisor.awaitExit(server.getName(), Duration.ofSeconds(5))) {
+                    configStore.journal(JournalEntry.of(server.getName(), JournalEntry.Operation.STOP, true, elapsedMillis(stopStart),
+                            "Exit code " + process.get().getExit().getNow(-1)));
                     return;
                 }
             } catch (InterruptedException e) {
-                // Ignore
+                Thread.currentThread().interrupt();
             }
             
             // If we are here, it didn't exit yet. Force kill.
-            process.destroy(); 
+            processSupervisor.terminate(server.getName());
+            configStore.journal(JournalEntry.of(server.getName(), JournalEntry.Operation.KILL, true, elapsedMillis(stopStart),
+                    "Graceful shutdown timed out"));
         } else if (server.getPid() != null) {
-            // Fallback kill by PID
-            try {
-                String os = System.getProperty("os.name").toLowerCase();
-                if (os.contains("win")) {
-                    Runtime.getRuntime().exec("taskkill /F /PID " + server.getPid());
-                } else {
-                    Runtime.getRuntime().exec("kill -9 " + server.getPid());
-                }
-            } catch (IOException e) {
-                logger.error("Failed to kill process by PID", e);
+            // Fallback kill by PID, but only if it is still the process we started
+            Optional<ProcessHandle> handle = ProcessHandle.of(server.getPid())
+                .filter(h -> ProcessSupervisor.matches(h, server.getStartedAt(), executablePath(server)));
+            if (handle.isPresent() && handle.get().destroyForcibly()) {
+                configStore.journal(JournalEntry.of(server.getName(), JournalEntry.Operation.KILL, true, elapsedMillis(stopStart),
+                        "Untracked PID " + server.getPid()));
+            } else if (handle.isPresent()) {
+                logger.error("Failed to kill process by PID {}", server.getPid());
+                configStore.journal(JournalEntry.of(server.getName(), JournalEntry.Operation.KILL, false, elapsedMillis(stopStart),
+                        "Could not kill PID " + server.getPid()));
             }
         }
 
         // Update state immediately for UI feedback, though the process watcher thread should also handle it
+        readinessTracker.stopped(server.getName());
+        gameMetrics.stopped(server.getName());
         server.setRunning(false);
         server.setPid(null);
+        server.setStartedAt(null);
         configStore.saveServer(server);
-        runningServerProcesses.remove(server.getName());
+    }
+
+    // Answers 202 with the queued (or already running) job, or 409 if another operation is in progress
+    private void submitJob(Context ctx, GameServer server, JobManager.Type type, JobManager.Task task) {
+        JobManager.Job job = jobManager.submit(server.getName(), type, task);
+        if (job.getType() != type) {
+            ctx.status(HttpStatus.CONFLICT).json(job);
+            return;
+        }
+        ctx.status(HttpStatus.ACCEPTED).header("Location", "/api/jobs/" + job.getId()).json(job);
+    }
+
+    // Parses an optional numeric form field, returning null when it was not sent
+    private static Integer optionalIntParam(String value, int min) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed < min) {
+                throw new IllegalArgumentException("Value must be at least " + min + ": " + value);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Value must be a valid number: " + value);
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
     }
 
     public static void main(String[] args) {
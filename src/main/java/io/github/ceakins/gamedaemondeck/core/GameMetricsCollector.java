@@ -0,0 +1,154 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.db.MetricStore;
+import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Records the game-level metrics. FPS and errors come from the log lines the daemon already
+// reads; the player count comes from the game's player list query through the console query
+// cache, so it shares the answer with the web console. Each game declares the patterns and the
+// query; games that declare none record nothing.
+public class GameMetricsCollector {
+
+    public interface Console {
+        String query(String serverName, String command) throws IOException;
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(GameMetricsCollector.class);
+
+    private final PluginManager pluginManager;
+    private final Function<String, Optional<GameServer>> servers;
+    private final Supplier<MetricStore> metricStore;
+    private final Console console;
+    private final Supplier<Set<String>> running;
+    private final Predicate<String> ready;
+    private final ScheduledExecutorService executor;
+    private final IntSupplier intervalSeconds;
+    // Looked up once per run rather than per log line; dropped when the server stops
+    private final Map<String, LogPatterns> patterns = new ConcurrentHashMap<>();
+    private final Map<String, ErrorCount> errors = new ConcurrentHashMap<>();
+
+    public GameMetricsCollector(PluginManager pluginManager, Function<String, Optional<GameServer>> servers,
+                                Supplier<MetricStore> metricStore, Console console, Supplier<Set<String>> running,
+                                Predicate<String> ready, ScheduledExecutorService executor, IntSupplier intervalSeconds) {
+        this.pluginManager = pluginManager;
+        this.servers = servers;
+        this.metricStore = metricStore;
+        this.console = console;
+        this.running = running;
+        this.ready = ready;
+        this.executor = executor;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public void start() {
+        schedule();
+    }
+
+    public void onLogLine(String serverName, String line) {
+        LogPatterns logPatterns = patterns.computeIfAbsent(serverName, name -> {
+            GamePlugin plugin = plugin(name);
+            return plugin != null ? new LogPatterns(plugin.getFpsLogPattern(), plugin.getErrorLogPattern()) : LogPatterns.NONE;
+        });
+        if (logPatterns.errors != null && logPatterns.errors.matcher(line).find()) {
+            // Counting starts with the first sample, so the first rate covers a whole interval
+            ErrorCount counted = errors.get(serverName);
+            if (counted != null) {
+                counted.count.incrementAndGet();
+            }
+        }
+        if (logPatterns.fps != null) {
+            Matcher matcher = logPatterns.fps.matcher(line);
+            MetricStore store = metricStore.get();
+            if (matcher.find() && store != null) {
+                store.record(serverName, MetricStore.FPS, System.currentTimeMillis(), Double.parseDouble(matcher.group(1)));
+            }
+        }
+    }
+
+    public void stopped(String serverName) {
+        patterns.remove(serverName);
+        errors.remove(serverName);
+    }
+
+    private void schedule() {
+        executor.schedule(() -> {
+            try {
+                sampleAll();
+            } catch (Exception e) {
+                logger.error("Error sampling game metrics", e);
+            } finally {
+                if (!executor.isShutdown()) {
+                    schedule();
+                }
+            }
+        }, Math.max(1, intervalSeconds.getAsInt()), TimeUnit.SECONDS);
+    }
+
+    void sampleAll() {
+        for (String name : running.get()) {
+            sample(name);
+        }
+    }
+
+    void sample(String serverName) {
+        MetricStore store = metricStore.get();
+        if (store == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        // Errors per minute since the previous sample
+        ErrorCount counted = errors.put(serverName, new ErrorCount(now));
+        if (counted != null && now > counted.sinceMillis) {
+            store.record(serverName, MetricStore.LOG_ERRORS, now, counted.count.get() * 60_000.0 / (now - counted.sinceMillis));
+        }
+
+        GamePlugin plugin = plugin(serverName);
+        String query = plugin != null ? plugin.getPlayerCountQuery() : null;
+        if (query == null || !ready.test(serverName)) {
+            return;
+        }
+        try {
+            Integer players = plugin.parsePlayerCount(console.query(serverName, query));
+            if (players != null) {
+                store.record(serverName, MetricStore.PLAYERS, now, players);
+            }
+        } catch (IOException e) {
+            logger.debug("Could not read the player count of server {}: {}", serverName, e.getMessage());
+        }
+    }
+
+    private GamePlugin plugin(String serverName) {
+        return servers.apply(serverName).map(server -> pluginManager.getPlugin(server.getPluginName())).orElse(null);
+    }
+
+    private record LogPatterns(Pattern fps, Pattern errors) {
+        static final LogPatterns NONE = new LogPatterns(null, null);
+    }
+
+    private static final class ErrorCount {
+        final long sinceMillis;
+        final AtomicInteger count = new AtomicInteger();
+
+        ErrorCount(long sinceMillis) {
+            this.sinceMillis = sinceMillis;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// Runs server lifecycle operations (start, stop, restart, update) in the background so HTTP
+// handlers can answer right away with a job ID. A server has at most one active job; submitting
+// the same operation again returns the job that is already running.
+public class JobManager {
+
+    public interface Task {
+        void run(Job job) throws Exception;
+    }
+
+    public enum Type {
+        START,
+        STOP,
+        RESTART,
+        UPDATE
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(JobManager.class);
+    private static final int MAX_FINISHED_JOBS = 200;
+    // Output kept per job, e.g. SteamCMD's; small enough for every retained job to hold a full log
+    private static final int LOG_LINES = 200;
+    private static final int LOG_LINE_LENGTH = 1024;
+
+    private final Executor workers;
+    private final Map<String, Job> active = new LinkedHashMap<>();
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final List<Consumer<Job>> listeners = new CopyOnWriteArrayList<>();
+
+    public JobManager(Executor workers) {
+        this.workers = workers;
+    }
+
+    // Returns the new job, or the server's active job if one is already running. Callers check
+    // the type of the returned job to tell a coalesced duplicate from a conflicting operation.
+    public Job submit(String serverName, Type type, Task task) {
+        Job job;
+        synchronized (this) {
+            Job running = active.get(serverName);
+            if (running != null && !running.isFinished()) {
+                return running;
+            }
+            job = new Job(UUID.randomUUID().toString(), serverName, type);
+            active.put(serverName, job);
+            jobs.put(job.id, job);
+            trim();
+        }
+        notifyListeners(job);
+        workers.execute(() -> run(job, task));
+        return job;
+    }
+
+    public synchronized Optional<Job> get(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public synchronized Optional<Job> getActive(String serverName) {
+        return Optional.ofNullable(active.get(serverName));
+    }
+
+    // Most recent first
+    public synchronized List<Job> list() {
+        List<Job> list = new ArrayList<>(jobs.values());
+        Collections.reverse(list);
+        return list;
+    }
+
+    // Called on every change of a job's status or progress
+    public void addListener(Consumer<Job> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Job> listener) {
+        listeners.remove(listener);
+    }
+
+    private void run(Job job, Task task) {
+        job.startedAt = System.currentTimeMillis();
+        job.status = Status.RUNNING;
+        notifyListeners(job);
+        try {
+            task.run(job);
+            job.status = Status.SUCCEEDED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.error = "Interrupted";
+            job.status = Status.FAILED;
+        } catch (Exception e) {
+            logger.error("{} job for {} failed", job.type, job.serverName, e);
+            job.error = e.getMessage() != null ? e.getMessage() : e.toString();
+            job.status = Status.FAILED;
+        } finally {
+            job.finishedAt = System.currentTimeMillis();
+            synchronized (this) {
+                active.remove(job.serverName, job);
+                trim();
+            }
+            notifyListeners(job);
+        }
+    }
+
+    // Forgets the oldest finished jobs once there are too many
+    private void trim() {
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (jobs.size() > MAX_FINISHED_JOBS + active.size() && iterator.hasNext()) {
+            if (iterator.next().isFinished()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void notifyListeners(Job job) {
+        for (Consumer<Job> listener : listeners) {
+            try {
+                listener.accept(job);
+            } catch (Exception e) {
+                logger.warn("Job listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    public final class Job {
+        private final String id;
+        private final String serverName;
+        private final Type type;
+        private final long submittedAt = System.currentTimeMillis();
+        private volatile Status status = Status.PENDING;
+        private volatile String progress;
+        private volatile Double percent;
+        private volatile String error;
+        private volatile Long startedAt;
+        private volatile Long finishedAt;
+        private final LogBuffer log = new LogBuffer(LOG_LINES, LOG_LINE_LENGTH);
+
+        private Job(String id, String serverName, Type type) {
+            this.id = id;
+            this.serverName = serverName;
+            this.type = type;
+        }
+
+        // Reports a step of a running job to status requests and listeners
+        public void progress(String message) {
+            progress = message;
+            notifyListeners(this);
+        }
+
+        public void progress(String message, double percent) {
+            this.percent = percent;
+            progress(message);
+        }
+
+        // Log lines are kept but not announced to listeners; read them with logLines()
+        public void log(String line) {
+            log.add(line);
+        }
+
+        // Oldest first. Not a getter, so the log stays out of the job's JSON
+        public List<String> logLines() {
+            return log.snapshot();
+        }
+
+        public boolean isFinished() {
+            return status == Status.SUCCEEDED || status == Status.FAILED;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getServerName() {
+            return serverName;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getProgress() {
+            return progress;
+        }
+
+        public Double getPercent() {
+            return percent;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public long getSubmittedAt() {
+            return submittedAt;
+        }
+
+        public Long getStartedAt() {
+            return startedAt;
+        }
+
+        public Long getFinishedAt() {
+            return finishedAt;
+        }
+    }
+}
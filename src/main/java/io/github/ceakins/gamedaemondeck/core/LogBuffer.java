@@ -0,0 +1,51 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The most recent lines of a server's log, kept for the log viewers and crash reports. A fixed
+// ring of lines, each cut to a maximum length, so a noisy server cannot grow the daemon's memory.
+public class LogBuffer {
+
+    public static final int DEFAULT_MAX_LINES = 1000;
+    public static final int DEFAULT_MAX_LINE_LENGTH = 4096;
+
+    private final String[] lines;
+    private final int maxLineLength;
+    private int next;
+    private int size;
+
+    public LogBuffer() {
+        this(DEFAULT_MAX_LINES, DEFAULT_MAX_LINE_LENGTH);
+    }
+
+    public LogBuffer(int maxLines, int maxLineLength) {
+        this.lines = new String[maxLines];
+        this.maxLineLength = maxLineLength;
+    }
+
+    public synchronized void add(String line) {
+        if (line.length() > maxLineLength) {
+            line = line.substring(0, maxLineLength);
+        }
+        lines[next] = line;
+        next = (next + 1) % lines.length;
+        if (size < lines.length) {
+            size++;
+        }
+    }
+
+    // Oldest first
+    public synchronized List<String> snapshot() {
+        List<String> copy = new ArrayList<>(size);
+        int start = (next - size + lines.length) % lines.length;
+        for (int i = 0; i < size; i++) {
+            copy.add(lines[(start + i) % lines.length]);
+        }
+        return copy;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Applies a server's CPU affinity, nice level and I/O priority by prefixing the launch command
+// with taskset, nice and ionice. Each of them execs the next, so the PID the daemon sees is still
+// the game server's own. Placement is Linux only and left out on other platforms.
+public final class ProcessPlacement {
+
+    private ProcessPlacement() {
+    }
+
+    // Throws IllegalArgumentException if any of the server's placement settings is out of range
+    public static void validate(GameServer server) {
+        if (server.getCpuAffinity() != null && !server.getCpuAffinity().isBlank()) {
+            CoreAllocator.parseCpuList(server.getCpuAffinity());
+        }
+        if (server.getNiceLevel() != null && (server.getNiceLevel() < -20 || server.getNiceLevel() > 19)) {
+            throw new IllegalArgumentException("Nice level must be between -20 and 19");
+        }
+        if (server.getIoniceClass() != null && (server.getIoniceClass() < 1 || server.getIoniceClass() > 3)) {
+            throw new IllegalArgumentException("I/O priority class must be 1 (realtime), 2 (best-effort) or 3 (idle)");
+        }
+        if (server.getIoniceLevel() != null && (server.getIoniceLevel() < 0 || server.getIoniceLevel() > 7)) {
+            throw new IllegalArgumentException("I/O priority level must be between 0 and 7");
+        }
+    }
+
+    public static List<String> wrap(GameServer server, List<String> command) {
+        if (!isLinux()) {
+            return command;
+        }
+        List<String> wrapped = new ArrayList<>();
+        if (server.getCpuAffinity() != null && !server.getCpuAffinity().isBlank()) {
+            wrapped.add("taskset");
+            wrapped.add("--cpu-list");
+            wrapped.add(server.getCpuAffinity().trim());
+        }
+        if (server.getNiceLevel() != null && server.getNiceLevel() != 0) {
+            wrapped.add("nice");
+            wrapped.add("-n");
+            wrapped.add(String.valueOf(server.getNiceLevel()));
+        }
+        if (server.getIoniceClass() != null) {
+            wrapped.add("ionice");
+            // Without the privilege for a realtime class, run anyway rather than not at all
+            wrapped.add("-t");
+            wrapped.add("-c");
+            wrapped.add(String.valueOf(server.getIoniceClass()));
+            if (server.getIoniceLevel() != null && server.getIoniceClass() != 3) {
+                wrapped.add("-n");
+                wrapped.add(String.valueOf(server.getIoniceLevel()));
+            }
+        }
+        if (wrapped.isEmpty()) {
+            return command;
+        }
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    private static boolean isLinux() {
+        return System.getProperty("os.name").toLowerCase().contains("linux");
+    }
+}
@@ -0,0 +1,363 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+// Tracks the game server processes launched by the daemon. Exits are observed through
+// onExit() instead of a blocked waitFor() thread per process, and output is followed on named
+// virtual threads, so the platform thread count stays flat however many servers run.
+//
+// Server output goes to data/logs/<server>.log rather than a pipe, so a game server keeps
+// running when the daemon goes away and can be adopted again (and its log followed) later. The
+// log is rotated at start and, for long-running servers, by copy and truncate while it is followed;
+// the server appends to it, so it simply carries on at the start of the emptied file.
+public class ProcessSupervisor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessSupervisor.class);
+    private static final long POLL_MILLIS = 250;
+    // How much of an adopted server's log is replayed into the in-memory buffer
+    private static final long BACKFILL_BYTES = 64 * 1024;
+    private static final long DEFAULT_ROTATE_BYTES = 16 * 1024 * 1024;
+    // Allowed difference between the recorded and the reported process start time
+    private static final long START_TIME_TOLERANCE_MILLIS = 2000;
+
+    private final Path logDirectory;
+    private final long rotateBytes;
+    private final Map<String, ManagedProcess> processes = new ConcurrentHashMap<>();
+    private final ExecutorService callbacks = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("process-exit-", 0).factory());
+    private volatile boolean closed;
+
+    public ProcessSupervisor(Path logDirectory) {
+        this(logDirectory, DEFAULT_ROTATE_BYTES);
+    }
+
+    ProcessSupervisor(Path logDirectory, long rotateBytes) {
+        this.logDirectory = logDirectory;
+        this.rotateBytes = rotateBytes;
+    }
+
+    // Starts the process and supervises it under the given name. The output consumer receives
+    // every line of stdout (merge stderr into it on the builder if wanted); onExit runs once with
+    // the exit code after the process has ended.
+    public ManagedProcess start(String name, ProcessBuilder builder, Consumer<String> output, IntConsumer onExit) throws IOException {
+        checkOpen(name);
+        Path logFile = prepareLogFile(name);
+        builder.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile.toFile()));
+        long offset = Files.size(logFile);
+
+        Process process = builder.start();
+        ManagedProcess managed = new ManagedProcess(name, process.toHandle(), process, logFile);
+        register(managed, offset, output, onExit);
+        return managed;
+    }
+
+    // Supervises a process left running by a previous daemon instance. Its exit code cannot be
+    // observed, so onExit receives -1.
+    public ManagedProcess adopt(String name, ProcessHandle handle, Consumer<String> output, IntConsumer onExit) throws IOException {
+        checkOpen(name);
+        Path logFile = logFile(name);
+        long offset = Files.exists(logFile) ? Math.max(0, Files.size(logFile) - BACKFILL_BYTES) : 0;
+        ManagedProcess managed = new ManagedProcess(name, handle, null, logFile);
+        register(managed, offset, output, onExit);
+        return managed;
+    }
+
+    // True if the live process is the one recorded for a server: same start time (when one was
+    // recorded) and same executable. A recycled PID fails at least one of the two checks.
+    public static boolean matches(ProcessHandle handle, Long expectedStartMillis, String executable) {
+        if (!handle.isAlive()) {
+            return false;
+        }
+        ProcessHandle.Info info = handle.info();
+        Optional<Instant> started = info.startInstant();
+        Optional<String> command = info.command();
+        if (started.isEmpty() && command.isEmpty()) {
+            return false;
+        }
+        if (expectedStartMillis != null && started.isPresent()
+                && Math.abs(started.get().toEpochMilli() - expectedStartMillis) > START_TIME_TOLERANCE_MILLIS) {
+            return false;
+        }
+        if (executable != null && command.isPresent()) {
+            Path expected = Paths.get(executable);
+            if (sameFileName(expected, command.get())) {
+                return true;
+            }
+            // Symlinked binaries report their target; scripts report the interpreter with the
+            // script as an argument
+            try {
+                if (Files.exists(expected) && sameFileName(expected.toRealPath(), command.get())) {
+                    return true;
+                }
+            } catch (IOException e) {
+                // Fall through to the argument check
+            }
+            for (String argument : info.arguments().orElse(new String[0])) {
+                if (sameFileName(expected, argument)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean sameFileName(Path expected, String actual) {
+        Path expectedName = expected.getFileName();
+        try {
+            return expectedName != null && expectedName.equals(Paths.get(actual).getFileName());
+        } catch (RuntimeException e) {
+            return false; // Not a path
+        }
+    }
+
+    public Optional<ManagedProcess> get(String name) {
+        return Optional.ofNullable(processes.get(name));
+    }
+
+    public boolean isRunning(String name) {
+        ManagedProcess managed = processes.get(name);
+        return managed != null && managed.handle.isAlive();
+    }
+
+    public Set<String> getNames() {
+        return Set.copyOf(processes.keySet());
+    }
+
+    // Names that had characters replaced get a hash of the raw name, so "a b" and "a_b" do not
+    // share a file
+    public Path logFile(String name) {
+        String safe = name.replaceAll("[^A-Za-z0-9._-]", "_");
+        if (!safe.equals(name)) {
+            safe += "-" + String.format("%08x", name.hashCode());
+        }
+        return logDirectory.resolve(safe + ".log");
+    }
+
+    // Waits up to the timeout for the process to exit; true if it is gone (or was never tracked)
+    public boolean awaitExit(String name, Duration timeout) throws InterruptedException {
+        ManagedProcess managed = processes.get(name);
+        if (managed == null) {
+            return true;
+        }
+        try {
+            managed.exit.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return !managed.handle.isAlive();
+        }
+    }
+
+    // Asks the process to terminate (SIGTERM on Unix); false if it is not tracked
+    public boolean terminate(String name) {
+        ManagedProcess managed = processes.get(name);
+        if (managed == null) {
+            return false;
+        }
+        managed.handle.destroy();
+        return true;
+    }
+
+    public boolean kill(String name) {
+        ManagedProcess managed = processes.get(name);
+        if (managed == null) {
+            return false;
+        }
+        managed.handle.destroyForcibly();
+        return true;
+    }
+
+    // Stops supervising; the game servers themselves are left running, as before
+    @Override
+    public void close() {
+        closed = true;
+        callbacks.shutdown();
+    }
+
+    private void checkOpen(String name) {
+        if (closed) {
+            throw new IllegalStateException("Process supervisor is closed");
+        }
+        if (isRunning(name)) {
+            throw new IllegalStateException("Process already running: " + name);
+        }
+    }
+
+    private Path prepareLogFile(String name) throws IOException {
+        Files.createDirectories(logDirectory);
+        Path logFile = logFile(name);
+        if (Files.exists(logFile) && Files.size(logFile) > rotateBytes) {
+            Files.move(logFile, rotatedFile(logFile), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (!Files.exists(logFile)) {
+            Files.createFile(logFile);
+        }
+        return logFile;
+    }
+
+    private void register(ManagedProcess managed, long offset, Consumer<String> output, IntConsumer onExit) {
+        processes.put(managed.name, managed);
+
+        Thread.ofVirtual().name("output-" + managed.name).start(() -> follow(managed, offset, output));
+
+        CompletableFuture<Integer> exited = managed.process != null
+                ? managed.process.onExit().thenApply(Process::exitValue)
+                : managed.handle.onExit().thenApply(handle -> -1);
+        exited.whenCompleteAsync((exitCode, error) -> {
+            int code = exitCode != null ? exitCode : -1;
+            // A newer process may already be registered under the same name
+            processes.remove(managed.name, managed);
+            managed.exit.complete(code);
+            if (closed) {
+                return;
+            }
+            try {
+                onExit.accept(code);
+            } catch (Exception e) {
+                logger.error("Error handling exit of process {}", managed.name, e);
+            }
+        }, callbacks);
+    }
+
+    // Follows the log file from the given offset until the process has exited and all of its
+    // output has been read
+    private void follow(ManagedProcess managed, long offset, Consumer<String> output) {
+        Charset charset = Charset.defaultCharset();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        boolean skipPartial = offset > 0 && managed.process == null;
+        try (FileChannel channel = FileChannel.open(managed.logFile, StandardOpenOption.READ)) {
+            long position = offset;
+            while (!closed) {
+                boolean alive = managed.handle.isAlive();
+                if (channel.size() < position) {
+                    position = 0; // Truncated or replaced underneath us
+                }
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    if (!alive) {
+                        break;
+                    }
+                    if (position > rotateBytes) {
+                        rotate(managed);
+                        position = 0;
+                        continue;
+                    }
+                    Thread.sleep(POLL_MILLIS);
+                    continue;
+                }
+                position += read;
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b != '\n') {
+                        line.write(b);
+                        continue;
+                    }
+                    if (!skipPartial) {
+                        output.accept(stripCarriageReturn(line.toString(charset)));
+                    }
+                    skipPartial = false;
+                    line.reset();
+                }
+            }
+            if (line.size() > 0 && !skipPartial) {
+                output.accept(stripCarriageReturn(line.toString(charset)));
+            }
+        } catch (IOException e) {
+            logger.error("Error reading output from server {}", managed.name, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Copy and truncate: the server keeps its file open, so the file cannot be moved away under
+    // it. Output written between the copy and the truncate is lost, as with logrotate's copytruncate.
+    private static void rotate(ManagedProcess managed) throws IOException {
+        Files.copy(managed.logFile, rotatedFile(managed.logFile), StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel channel = FileChannel.open(managed.logFile, StandardOpenOption.WRITE)) {
+            channel.truncate(0);
+        }
+        logger.info("Rotated log of server {}", managed.name);
+    }
+
+    private static Path rotatedFile(Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName() + ".1");
+    }
+
+    private static String stripCarriageReturn(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    public static final class ManagedProcess {
+        private final String name;
+        private final ProcessHandle handle;
+        private final Process process;
+        private final Path logFile;
+        private final CompletableFuture<Integer> exit = new CompletableFuture<>();
+
+        ManagedProcess(String name, ProcessHandle handle, Process process, Path logFile) {
+            this.name = name;
+            this.handle = handle;
+            this.process = process;
+            this.logFile = logFile;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getPid() {
+            return handle.pid();
+        }
+
+        public Instant getStartedAt() {
+            return handle.info().startInstant().orElse(null);
+        }
+
+        public ProcessHandle getHandle() {
+            return handle;
+        }
+
+        public boolean isAdopted() {
+            return process == null;
+        }
+
+        public Path getLogFile() {
+            return logFile;
+        }
+
+        public CompletableFuture<Integer> getExit() {
+            return exit;
+        }
+    }
+}
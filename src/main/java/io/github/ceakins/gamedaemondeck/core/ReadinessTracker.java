@@ -0,0 +1,222 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.MetricStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+// Follows a server from process launch until the game reports it is joinable, either through a
+// log line or a port that starts accepting connections, and keeps a histogram of how long that
+// took per server.
+public class ReadinessTracker {
+
+    public enum State {
+        STARTING,
+        READY
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadinessTracker.class);
+    private static final long PORT_PROBE_MILLIS = 2000;
+    private static final int PORT_CONNECT_TIMEOUT_MILLIS = 500;
+    // Upper bounds of the time-to-ready histogram buckets, in seconds; the last bucket is open
+    private static final long[] BUCKET_SECONDS = {15, 30, 60, 120, 300, 600, 1200};
+
+    private final ScheduledExecutorService timer;
+    private final Executor workers;
+    private final Supplier<MetricStore> metricStore;
+    private final Map<String, Startup> startups = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    public ReadinessTracker(ScheduledExecutorService timer, Executor workers, Supplier<MetricStore> metricStore) {
+        this.timer = timer;
+        this.workers = workers;
+        this.metricStore = metricStore;
+    }
+
+    // Starts tracking a freshly launched server. Without any signal it is ready straight away.
+    public void starting(String serverName, Pattern logPattern, Integer port) {
+        Startup startup = new Startup(logPattern, port);
+        Startup previous = startups.put(serverName, startup);
+        if (previous != null) {
+            previous.cancel();
+        }
+        if (logPattern == null && port == null) {
+            markReady(serverName, startup, false);
+            return;
+        }
+        if (port != null) {
+            startup.probe = timer.scheduleWithFixedDelay(() -> workers.execute(() -> probe(serverName, startup)),
+                    PORT_PROBE_MILLIS, PORT_PROBE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // For servers that were already running, e.g. after reattaching; not counted in the histogram
+    public void ready(String serverName) {
+        Startup startup = new Startup(null, null);
+        Startup previous = startups.put(serverName, startup);
+        if (previous != null) {
+            previous.cancel();
+        }
+        markReady(serverName, startup, false);
+    }
+
+    public void stopped(String serverName) {
+        Startup startup = startups.remove(serverName);
+        if (startup != null) {
+            startup.cancel();
+        }
+    }
+
+    public void onLogLine(String serverName, String line) {
+        Startup startup = startups.get(serverName);
+        if (startup != null && startup.state == State.STARTING && startup.logPattern != null
+                && startup.logPattern.matcher(line).find()) {
+            markReady(serverName, startup, true);
+        }
+    }
+
+    public State getState(String serverName) {
+        Startup startup = startups.get(serverName);
+        return startup != null ? startup.state : null;
+    }
+
+    // Blocks until the server is ready; false on timeout or if it stopped while starting
+    public boolean awaitReady(String serverName, Duration timeout) throws InterruptedException {
+        Startup startup = startups.get(serverName);
+        if (startup == null) {
+            return false;
+        }
+        try {
+            startup.ready.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        }
+    }
+
+    public Map<String, Object> getStatus(String serverName) {
+        Map<String, Object> status = new HashMap<>();
+        Startup startup = startups.get(serverName);
+        if (startup != null) {
+            status.put("state", startup.state);
+            status.put("startedAt", startup.startedAtMillis);
+            if (startup.state == State.READY) {
+                status.put("readyAt", startup.readyAtMillis);
+            }
+        }
+        Histogram histogram = histograms.get(serverName);
+        if (histogram != null) {
+            status.put("timeToReady", histogram.describe());
+        }
+        return status;
+    }
+
+    private void probe(String serverName, Startup startup) {
+        if (startup.state != State.STARTING) {
+            return;
+        }
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", startup.port), PORT_CONNECT_TIMEOUT_MILLIS);
+            markReady(serverName, startup, true);
+        } catch (IOException e) {
+            // Not listening yet
+        }
+    }
+
+    private void markReady(String serverName, Startup startup, boolean measured) {
+        synchronized (startup) {
+            if (startup.state == State.READY) {
+                return;
+            }
+            startup.state = State.READY;
+            startup.readyAtMillis = System.currentTimeMillis();
+            startup.cancel();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startup.startedAtNanos);
+        startup.ready.complete(Duration.ofMillis(elapsedMillis));
+        if (!measured) {
+            return;
+        }
+        logger.info("Server {} is ready after {} s", serverName, elapsedMillis / 1000);
+        histograms.computeIfAbsent(serverName, name -> new Histogram()).record(elapsedMillis);
+        MetricStore store = metricStore.get();
+        if (store != null) {
+            store.record(serverName, MetricStore.STARTUP_SECONDS, startup.readyAtMillis, elapsedMillis / 1000.0);
+        }
+    }
+
+    private static final class Startup {
+        final Pattern logPattern;
+        final Integer port;
+        final long startedAtMillis = System.currentTimeMillis();
+        final long startedAtNanos = System.nanoTime();
+        final CompletableFuture<Duration> ready = new CompletableFuture<>();
+        volatile State state = State.STARTING;
+        volatile long readyAtMillis;
+        ScheduledFuture<?> probe;
+
+        Startup(Pattern logPattern, Integer port) {
+            this.logPattern = logPattern;
+            this.port = port;
+        }
+
+        synchronized void cancel() {
+            if (probe != null) {
+                probe.cancel(false);
+                probe = null;
+            }
+            if (state == State.STARTING) {
+                ready.cancel(false);
+            }
+        }
+    }
+
+    private static final class Histogram {
+        final long[] counts = new long[BUCKET_SECONDS.length + 1];
+        long count;
+        long sumMillis;
+        long lastMillis;
+
+        synchronized void record(long millis) {
+            int bucket = 0;
+            while (bucket < BUCKET_SECONDS.length && millis > BUCKET_SECONDS[bucket] * 1000) {
+                bucket++;
+            }
+            counts[bucket]++;
+            count++;
+            sumMillis += millis;
+            lastMillis = millis;
+        }
+
+        synchronized Map<String, Object> describe() {
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < BUCKET_SECONDS.length; i++) {
+                buckets.put("le" + BUCKET_SECONDS[i] + "s", counts[i]);
+            }
+            buckets.put("inf", counts[BUCKET_SECONDS.length]);
+            Map<String, Object> description = new HashMap<>();
+            description.put("count", count);
+            description.put("averageMillis", count > 0 ? sumMillis / count : 0);
+            description.put("lastMillis", lastMillis);
+            description.put("buckets", buckets);
+            return description;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.MetricStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+// Samples CPU, memory, thread and disk usage of every supervised server (including its child
+// processes) from /proc on a single thread. Files are read into one reused buffer and parsed in
+// place, so a sampling pass allocates nothing per field. Linux only; elsewhere it stays idle.
+public class ResourceSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceSampler.class);
+    // USER_HZ; fixed at 100 on every mainstream Linux architecture
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+    private static final Path PROC = Paths.get("/proc");
+
+    private static final byte[] VM_RSS = "VmRSS:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] THREADS = "Threads:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] READ_BYTES = "read_bytes:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WRITE_BYTES = "write_bytes:".getBytes(StandardCharsets.US_ASCII);
+
+    private final ProcessSupervisor supervisor;
+    private final Supplier<MetricStore> metricStore;
+    private final ScheduledExecutorService executor;
+    private final IntSupplier intervalSeconds;
+    private final Path procRoot;
+    private final Map<String, ResourceUsage> usages = new ConcurrentHashMap<>();
+    private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+    private final Totals totals = new Totals();
+
+    public ResourceSampler(ProcessSupervisor supervisor, Supplier<MetricStore> metricStore,
+                           ScheduledExecutorService executor, IntSupplier intervalSeconds) {
+        this(supervisor, metricStore, executor, intervalSeconds, PROC);
+    }
+
+    ResourceSampler(ProcessSupervisor supervisor, Supplier<MetricStore> metricStore,
+                    ScheduledExecutorService executor, IntSupplier intervalSeconds, Path procRoot) {
+        this.supervisor = supervisor;
+        this.metricStore = metricStore;
+        this.executor = executor;
+        this.intervalSeconds = intervalSeconds;
+        this.procRoot = procRoot;
+    }
+
+    public void start() {
+        if (!Files.isDirectory(procRoot.resolve("self"))) {
+            logger.info("No /proc filesystem, per-server resource sampling is disabled");
+            return;
+        }
+        schedule();
+    }
+
+    public ResourceUsage getUsage(String serverName) {
+        return usages.get(serverName);
+    }
+
+    private void schedule() {
+        executor.schedule(() -> {
+            try {
+                sampleAll();
+            } catch (Exception e) {
+                logger.error("Error sampling server resources", e);
+            } finally {
+                if (!executor.isShutdown()) {
+                    schedule();
+                }
+            }
+        }, Math.max(1, intervalSeconds.getAsInt()), TimeUnit.SECONDS);
+    }
+
+    void sampleAll() {
+        usages.keySet().retainAll(supervisor.getNames());
+        for (String name : supervisor.getNames()) {
+            supervisor.get(name).ifPresent(process -> sample(name, process.getHandle()));
+        }
+    }
+
+    void sample(String serverName, ProcessHandle handle) {
+        totals.reset();
+        accumulate(handle.pid());
+        handle.descendants().forEach(child -> accumulate(child.pid()));
+        if (totals.processes == 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        ResourceUsage previous = usages.get(serverName);
+        ResourceUsage usage = new ResourceUsage();
+        usage.sampledAt = now;
+        usage.cpuTicks = totals.cpuTicks;
+        usage.rssBytes = totals.rssKilobytes * 1024;
+        usage.threads = totals.threads;
+        usage.readBytes = totals.readBytes;
+        usage.writeBytes = totals.writeBytes;
+        usage.processes = totals.processes;
+
+        double readRate = 0;
+        double writeRate = 0;
+        if (previous != null && now > previous.sampledAt) {
+            double seconds = (now - previous.sampledAt) / 1000.0;
+            // A child exiting lowers the totals; report zero rather than a negative rate
+            usage.cpuPercent = Math.max(0, usage.cpuTicks - previous.cpuTicks) * 100.0 / (CLOCK_TICKS_PER_SECOND * seconds);
+            readRate = Math.max(0, usage.readBytes - previous.readBytes) / seconds;
+            writeRate = Math.max(0, usage.writeBytes - previous.writeBytes) / seconds;
+        }
+        usages.put(serverName, usage);
+
+        MetricStore store = metricStore.get();
+        if (store != null) {
+            if (previous != null) {
+                store.record(serverName, MetricStore.CPU, now, usage.cpuPercent);
+                store.record(serverName, MetricStore.DISK_READ, now, readRate);
+                store.record(serverName, MetricStore.DISK_WRITE, now, writeRate);
+            }
+            store.record(serverName, MetricStore.RSS, now, usage.rssBytes);
+            store.record(serverName, MetricStore.THREADS, now, usage.threads);
+        }
+    }
+
+    private void accumulate(long pid) {
+        Path dir = procRoot.resolve(Long.toString(pid));
+        if (!read(dir.resolve("stat"))) {
+            return; // Exited between listing and reading
+        }
+        totals.processes++;
+        totals.cpuTicks += statTicks();
+        if (read(dir.resolve("status"))) {
+            totals.rssKilobytes += field(VM_RSS);
+            totals.threads += field(THREADS);
+        }
+        // Unreadable for processes of other users; leaves the I/O totals as they are
+        if (read(dir.resolve("io"))) {
+            totals.readBytes += field(READ_BYTES);
+            totals.writeBytes += field(WRITE_BYTES);
+        }
+    }
+
+    private boolean read(Path file) {
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // Keep reading; /proc files may arrive in several chunks
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        buffer.flip();
+        return true;
+    }
+
+    // utime + stime: fields 14 and 15, counted from the last ')' since the command name may
+    // itself contain spaces and parentheses
+    private long statTicks() {
+        int position = buffer.limit() - 1;
+        while (position >= 0 && buffer.get(position) != ')') {
+            position--;
+        }
+        // After ") " comes field 3 (state); skip to field 14
+        int field = 2;
+        long utime = 0;
+        for (int i = position + 1; i < buffer.limit(); i++) {
+            if (buffer.get(i) == ' ') {
+                field++;
+                if (field == 14) {
+                    utime = number(i + 1);
+                } else if (field == 15) {
+                    return utime + number(i + 1);
+                }
+            }
+        }
+        return utime;
+    }
+
+    // Value of a "Key:   123 kB" line, or 0 if the key is missing
+    private long field(byte[] key) {
+        int limit = buffer.limit();
+        for (int start = 0; start < limit; ) {
+            if (startsWith(start, key)) {
+                int i = start + key.length;
+                while (i < limit && (buffer.get(i) == ' ' || buffer.get(i) == '\t')) {
+                    i++;
+                }
+                return number(i);
+            }
+            while (start < limit && buffer.get(start) != '\n') {
+                start++;
+            }
+            start++;
+        }
+        return 0;
+    }
+
+    private boolean startsWith(int start, byte[] key) {
+        if (start + key.length > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(start + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long number(int start) {
+        long value = 0;
+        for (int i = start; i < buffer.limit(); i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                break;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static final class Totals {
+        int processes;
+        long cpuTicks;
+        long rssKilobytes;
+        long threads;
+        long readBytes;
+        long writeBytes;
+
+        void reset() {
+            processes = 0;
+            cpuTicks = 0;
+            rssKilobytes = 0;
+            threads = 0;
+            readBytes = 0;
+            writeBytes = 0;
+        }
+    }
+
+    public static final class ResourceUsage {
+        private long sampledAt;
+        private long cpuTicks;
+        private double cpuPercent;
+        private long rssBytes;
+        private long threads;
+        private long readBytes;
+        private long writeBytes;
+        private int processes;
+
+        public long getSampledAt() {
+            return sampledAt;
+        }
+
+        public double getCpuPercent() {
+            return cpuPercent;
+        }
+
+        public long getRssBytes() {
+            return rssBytes;
+        }
+
+        public long getThreads() {
+            return threads;
+        }
+
+        public long getReadBytes() {
+            return readBytes;
+        }
+
+        public long getWriteBytes() {
+            return writeBytes;
+        }
+
+        public int getProcesses() {
+            return processes;
+        }
+    }
+}
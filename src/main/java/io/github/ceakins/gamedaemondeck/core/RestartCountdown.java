@@ -0,0 +1,89 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+// Broadcasts restart countdown warnings to players over the server's pooled console session. The
+// final goodbye message and the world save go out under one lease right before the server is
+// stopped, so no other console user can slip in between.
+public class RestartCountdown {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestartCountdown.class);
+    private static final Duration FINISH_LEASE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ConsoleSessionManager consoles;
+    private final PluginManager pluginManager;
+    private final Function<String, Optional<GameServer>> servers;
+    private final Executor executor;
+
+    public RestartCountdown(ConsoleSessionManager consoles, PluginManager pluginManager,
+                            Function<String, Optional<GameServer>> servers, Executor executor) {
+        this.consoles = consoles;
+        this.pluginManager = pluginManager;
+        this.servers = servers;
+        this.executor = executor;
+    }
+
+    // Called from the scheduler thread, so the console I/O is handed to the executor
+    public void warn(String serverName, Duration remaining) {
+        executor.execute(() -> {
+            GamePlugin plugin = broadcastingPlugin(serverName);
+            if (plugin == null) {
+                return;
+            }
+            try {
+                consoles.execute(serverName, plugin.getBroadcastCommand("Server restart in " + describe(remaining)));
+            } catch (IOException e) {
+                logger.warn("Restart warning for server {} failed: {}", serverName, e.getMessage());
+            }
+        });
+    }
+
+    // Sends the final message and saves the world; blocks until done so the stop can follow
+    public void finish(String serverName) {
+        GamePlugin plugin = broadcastingPlugin(serverName);
+        if (plugin == null) {
+            return;
+        }
+        List<String> commands = new ArrayList<>();
+        commands.add(plugin.getBroadcastCommand("Server is restarting now"));
+        String save = plugin.getSaveCommand();
+        if (save != null) {
+            commands.add(save);
+        }
+        try (ConsoleSessionManager.Lease console = consoles.lease(serverName, FINISH_LEASE_TIMEOUT)) {
+            console.executeAll(commands);
+        } catch (IOException e) {
+            logger.warn("Final restart broadcast for server {} failed: {}", serverName, e.getMessage());
+        }
+    }
+
+    // The server's plugin if the server is running and the game can broadcast, otherwise null
+    private GamePlugin broadcastingPlugin(String serverName) {
+        Optional<GameServer> server = servers.apply(serverName);
+        if (server.isEmpty() || !server.get().isRunning()) {
+            return null;
+        }
+        GamePlugin plugin = pluginManager.getPlugin(server.get().getPluginName());
+        return plugin != null && plugin.getBroadcastCommand("") != null ? plugin : null;
+    }
+
+    static String describe(Duration remaining) {
+        long seconds = remaining.toSeconds();
+        if (seconds >= 60 && seconds % 60 == 0) {
+            long minutes = seconds / 60;
+            return minutes + (minutes == 1 ? " minute" : " minutes");
+        }
+        return seconds + (seconds == 1 ? " second" : " seconds");
+    }
+}
@@ -0,0 +1,237 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.ConfigStore;
+import io.github.ceakins.gamedaemondeck.db.Configuration;
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.db.JournalEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Queues server restarts and runs them with a concurrency limit and a stagger between starts.
+// Stops may overlap up to the limit, but with gating enabled only one server is starting at a
+// time: the next start waits until the previous server reports ready.
+public class RestartOrchestrator {
+
+    public interface RestartAction {
+        void stop(String serverName) throws Exception;
+
+        // Returns once the server reports ready
+        void start(String serverName) throws Exception;
+    }
+
+    public enum Phase {
+        QUEUED,
+        STOPPING,
+        WAITING_FOR_START,
+        STARTING
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(RestartOrchestrator.class);
+    private static final long DEFAULT_RESTART_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final ConfigStore configStore;
+    private final ScheduledExecutorService timer;
+    private final Executor workers;
+    private final RestartAction action;
+    private final Semaphore startGate = new Semaphore(1, true);
+
+    private final PriorityQueue<Request> queue = new PriorityQueue<>(
+            Comparator.comparingInt((Request r) -> -r.priority).thenComparingLong(r -> r.sequence));
+    private final Map<String, Request> requests = new LinkedHashMap<>();
+    private long sequence;
+    private int active;
+    private long nextDispatchAtMillis;
+    private boolean dispatchArmed;
+    private double averageRestartMillis = DEFAULT_RESTART_MILLIS;
+
+    public RestartOrchestrator(ConfigStore configStore, ScheduledExecutorService timer, Executor workers, RestartAction action) {
+        this.configStore = configStore;
+        this.timer = timer;
+        this.workers = workers;
+        this.action = action;
+    }
+
+    // Completes when the restart is done, or fails with its error. A server with a restart already
+    // queued or in progress gets that restart's future back instead of a second restart.
+    public synchronized CompletableFuture<Void> submit(GameServer server, boolean scheduled) {
+        Request existing = requests.get(server.getName());
+        if (existing != null) {
+            return existing.done;
+        }
+        Request request = new Request(server.getName(), server.getRestartPriority(), sequence++, scheduled);
+        requests.put(request.serverName, request);
+        queue.add(request);
+        dispatch();
+        return request.done;
+    }
+
+    public synchronized boolean cancel(String serverName) {
+        Request request = requests.get(serverName);
+        if (request == null || request.phase != Phase.QUEUED) {
+            return false;
+        }
+        queue.remove(request);
+        requests.remove(serverName);
+        request.done.completeExceptionally(new IllegalStateException("Restart cancelled"));
+        return true;
+    }
+
+    public synchronized Map<String, Object> getStatus(String serverName) {
+        Request request = requests.get(serverName);
+        return request != null ? describe(request, positionOf(request)) : null;
+    }
+
+    public synchronized List<Map<String, Object>> getStatuses() {
+        List<Map<String, Object>> statuses = new ArrayList<>();
+        for (Request request : requests.values()) {
+            statuses.add(describe(request, positionOf(request)));
+        }
+        return statuses;
+    }
+
+    private Map<String, Object> describe(Request request, int position) {
+        Configuration config = settings();
+        int limit = Math.max(1, config.getMaxConcurrentRestarts());
+        long now = System.currentTimeMillis();
+        long eta;
+        if (request.phase == Phase.QUEUED) {
+            // Waves ahead of this request, plus the stagger between each start
+            long waves = (position - 1 + active) / limit;
+            long stagger = (position - 1) * TimeUnit.SECONDS.toMillis(config.getRestartStaggerSeconds());
+            eta = now + Math.max((waves + 1) * (long) averageRestartMillis, stagger + (long) averageRestartMillis);
+        } else {
+            eta = Math.max(now, request.startedAtMillis + (long) averageRestartMillis);
+        }
+        Map<String, Object> status = new HashMap<>();
+        status.put("serverName", request.serverName);
+        status.put("phase", request.phase);
+        status.put("position", request.phase == Phase.QUEUED ? position : 0);
+        status.put("scheduled", request.scheduled);
+        status.put("eta", eta);
+        return status;
+    }
+
+    private int positionOf(Request request) {
+        if (request.phase != Phase.QUEUED) {
+            return 0;
+        }
+        int position = 1;
+        for (Request other : queue) {
+            if (queue.comparator().compare(other, request) < 0) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    private synchronized void dispatch() {
+        dispatchArmed = false;
+        Configuration config = settings();
+        int limit = Math.max(1, config.getMaxConcurrentRestarts());
+        while (active < limit && !queue.isEmpty()) {
+            long now = System.currentTimeMillis();
+            if (now < nextDispatchAtMillis) {
+                if (!dispatchArmed) {
+                    dispatchArmed = true;
+                    timer.schedule(this::dispatch, nextDispatchAtMillis - now, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            Request request = queue.poll();
+            active++;
+            request.phase = Phase.STOPPING;
+            request.startedAtMillis = now;
+            long jitter = config.getRestartJitterSeconds() > 0
+                    ? ThreadLocalRandom.current().nextLong(TimeUnit.SECONDS.toMillis(config.getRestartJitterSeconds()) + 1)
+                    : 0;
+            nextDispatchAtMillis = now + TimeUnit.SECONDS.toMillis(Math.max(0, config.getRestartStaggerSeconds())) + jitter;
+            workers.execute(() -> run(request, config.isRestartGateOnReady()));
+        }
+    }
+
+    private void run(Request request, boolean gateOnReady) {
+        long start = System.nanoTime();
+        boolean success = false;
+        String detail = null;
+        try {
+            logger.info("Restarting server {}", request.serverName);
+            action.stop(request.serverName);
+            if (gateOnReady) {
+                setPhase(request, Phase.WAITING_FOR_START);
+                startGate.acquire();
+            }
+            try {
+                setPhase(request, Phase.STARTING);
+                action.start(request.serverName);
+            } finally {
+                if (gateOnReady) {
+                    startGate.release();
+                }
+            }
+            success = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            detail = "Interrupted";
+        } catch (Exception e) {
+            logger.error("Error during restart for {}", request.serverName, e);
+            detail = e.getMessage();
+        } finally {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            configStore.journal(JournalEntry.of(request.serverName,
+                    request.scheduled ? JournalEntry.Operation.SCHEDULED_RESTART : JournalEntry.Operation.RESTART,
+                    success, elapsed, detail));
+            finish(request, success ? elapsed : -1, detail);
+        }
+    }
+
+    private synchronized void setPhase(Request request, Phase phase) {
+        request.phase = phase;
+    }
+
+    private synchronized void finish(Request request, long elapsedMillis, String detail) {
+        requests.remove(request.serverName);
+        active--;
+        if (elapsedMillis >= 0) {
+            averageRestartMillis = averageRestartMillis * 0.7 + elapsedMillis * 0.3;
+            request.done.complete(null);
+        } else {
+            request.done.completeExceptionally(new IllegalStateException(detail != null ? detail : "Restart failed"));
+        }
+        dispatch();
+    }
+
+    private Configuration settings() {
+        return configStore.getConfiguration().orElseGet(Configuration::new);
+    }
+
+    private static final class Request {
+        final String serverName;
+        final int priority;
+        final long sequence;
+        final boolean scheduled;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        Phase phase = Phase.QUEUED;
+        long startedAtMillis;
+
+        Request(String serverName, int priority, long sequence, boolean scheduled) {
+            this.serverName = serverName;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.scheduled = scheduled;
+        }
+    }
+}
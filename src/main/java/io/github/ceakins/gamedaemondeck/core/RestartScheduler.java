@@ -0,0 +1,209 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.util.CronExpression;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Plans each server's next restart as an exact instant and sleeps on the executor's delay queue
+// until then, or until the next countdown warning before it. Nothing runs between events apart
+// from an hourly re-check that picks up wall-clock changes the monotonic delay queue cannot see.
+public class RestartScheduler {
+
+    public interface WarningListener {
+        void onWarning(String serverName, Duration remaining);
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(RestartScheduler.class);
+    private static final long MAX_SLEEP_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long EARLY_TOLERANCE_MILLIS = 250;
+
+    private final ScheduledExecutorService executor;
+    private final Clock clock;
+    private final Consumer<String> onFire;
+    private final WarningListener onWarning;
+    private final Supplier<List<Duration>> warningOffsets;
+    private final Map<String, Plan> plans = new ConcurrentHashMap<>();
+
+    public RestartScheduler(ScheduledExecutorService executor, Consumer<String> onFire) {
+        this(executor, Clock.systemUTC(), onFire, (serverName, remaining) -> { }, List::of);
+    }
+
+    public RestartScheduler(ScheduledExecutorService executor, Consumer<String> onFire,
+                            WarningListener onWarning, Supplier<List<Duration>> warningOffsets) {
+        this(executor, Clock.systemUTC(), onFire, onWarning, warningOffsets);
+    }
+
+    RestartScheduler(ScheduledExecutorService executor, Clock clock, Consumer<String> onFire,
+                     WarningListener onWarning, Supplier<List<Duration>> warningOffsets) {
+        this.executor = executor;
+        this.clock = clock;
+        this.onFire = onFire;
+        this.onWarning = onWarning;
+        this.warningOffsets = warningOffsets;
+    }
+
+    // Throws IllegalArgumentException (or DateTimeException for the zone) if the schedule is invalid
+    public static void validate(List<String> restartTimes, String timeZone) {
+        if (restartTimes != null) {
+            restartTimes.forEach(CronExpression::parse);
+        }
+        if (timeZone != null && !timeZone.isBlank()) {
+            ZoneId.of(timeZone);
+        }
+    }
+
+    public void rescheduleAll(List<GameServer> servers) {
+        for (GameServer server : servers) {
+            reschedule(server);
+        }
+    }
+
+    public synchronized void reschedule(GameServer server) {
+        cancel(server.getName());
+        if (server.getRestartTimes() == null || server.getRestartTimes().isEmpty()) {
+            return;
+        }
+
+        List<CronExpression> expressions = new ArrayList<>();
+        for (String restartTime : server.getRestartTimes()) {
+            try {
+                expressions.add(CronExpression.parse(restartTime));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring invalid restart time '{}' for server {}", restartTime, server.getName());
+            }
+        }
+        if (expressions.isEmpty()) {
+            return;
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        if (server.getRestartTimeZone() != null && !server.getRestartTimeZone().isBlank()) {
+            try {
+                zone = ZoneId.of(server.getRestartTimeZone());
+            } catch (Exception e) {
+                logger.warn("Invalid time zone '{}' for server {}, using {}", server.getRestartTimeZone(), server.getName(), zone);
+            }
+        }
+
+        Plan plan = new Plan(server.getName(), expressions, zone);
+        plans.put(plan.serverName, plan);
+        planAfter(plan, clock.instant());
+    }
+
+    public synchronized void cancel(String serverName) {
+        Plan plan = plans.remove(serverName);
+        if (plan != null && plan.future != null) {
+            plan.future.cancel(false);
+        }
+    }
+
+    public Instant getNextFire(String serverName) {
+        Plan plan = plans.get(serverName);
+        return plan != null ? plan.nextFire : null;
+    }
+
+    private void planAfter(Plan plan, Instant after) {
+        ZonedDateTime base = after.atZone(plan.zone);
+        Instant next = null;
+        for (CronExpression expression : plan.expressions) {
+            try {
+                Instant candidate = expression.next(base).toInstant();
+                if (next == null || candidate.isBefore(next)) {
+                    next = candidate;
+                }
+            } catch (IllegalStateException e) {
+                logger.warn("Restart time '{}' for server {} never fires", expression, plan.serverName);
+            }
+        }
+        if (next == null) {
+            plans.remove(plan.serverName, plan);
+            return;
+        }
+        plan.nextFire = next;
+        // Warnings whose time has already passed when the fire is planned are not sent late
+        Instant now = clock.instant();
+        plan.pendingWarnings = new ArrayList<>();
+        for (Duration offset : warningOffsets.get()) {
+            if (!next.minus(offset).isBefore(now)) {
+                plan.pendingWarnings.add(offset);
+            }
+        }
+        plan.pendingWarnings.sort(Comparator.reverseOrder());
+        arm(plan);
+    }
+
+    private void arm(Plan plan) {
+        Instant target = plan.pendingWarnings.isEmpty()
+                ? plan.nextFire
+                : plan.nextFire.minus(plan.pendingWarnings.get(0));
+        long delay = Duration.between(clock.instant(), target).toMillis();
+        plan.future = executor.schedule(() -> wake(plan), Math.max(0, Math.min(delay, MAX_SLEEP_MILLIS)), TimeUnit.MILLISECONDS);
+    }
+
+    private void wake(Plan plan) {
+        Duration warning = null;
+        boolean fire = false;
+        synchronized (this) {
+            if (plans.get(plan.serverName) != plan) {
+                return; // Replaced or cancelled while this wake-up was queued
+            }
+            Instant now = clock.instant();
+            Instant horizon = now.plusMillis(EARLY_TOLERANCE_MILLIS);
+            // Only the most urgent of several due warnings is sent, e.g. after a long pause
+            while (!plan.pendingWarnings.isEmpty() && !horizon.isBefore(plan.nextFire.minus(plan.pendingWarnings.get(0)))) {
+                warning = plan.pendingWarnings.remove(0);
+            }
+            if (horizon.isBefore(plan.nextFire)) {
+                arm(plan); // Warning sent, intermediate wake-up, or the wall clock moved back
+            } else {
+                Instant fired = plan.nextFire;
+                // Plan strictly after the instant just fired so it can never fire twice
+                planAfter(plan, now.isAfter(fired) ? now : fired);
+                fire = true;
+                warning = null;
+            }
+        }
+        try {
+            if (warning != null) {
+                onWarning.onWarning(plan.serverName, warning);
+            }
+            if (fire) {
+                onFire.accept(plan.serverName);
+            }
+        } catch (Exception e) {
+            logger.error("Error firing scheduled restart event for {}", plan.serverName, e);
+        }
+    }
+
+    private static final class Plan {
+        final String serverName;
+        final List<CronExpression> expressions;
+        final ZoneId zone;
+        volatile Instant nextFire;
+        List<Duration> pendingWarnings = new ArrayList<>();
+        ScheduledFuture<?> future;
+
+        Plan(String serverName, List<CronExpression> expressions, ZoneId zone) {
+            this.serverName = serverName;
+            this.expressions = expressions;
+            this.zone = zone;
+        }
+    }
+}
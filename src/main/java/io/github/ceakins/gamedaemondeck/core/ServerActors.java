@@ -0,0 +1,90 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+// Gives every server its own mailbox. Commands for one server run one at a time in the order they
+// were sent, so lifecycle operations and state changes never interleave, while the mailboxes of
+// different servers drain in parallel on the shared executor.
+public class ServerActors {
+
+    public interface Command<T> {
+        T run() throws Exception;
+    }
+
+    private final Executor executor;
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public ServerActors(Executor executor) {
+        this.executor = executor;
+    }
+
+    // Queues a command for the server and returns without waiting for it
+    public <T> CompletableFuture<T> tell(String serverName, Command<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        mailboxes.computeIfAbsent(serverName, name -> new Mailbox()).enqueue(() -> {
+            try {
+                result.complete(command.run());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    // Runs a command on the server's mailbox and waits for its result. Called from a command of
+    // the same server it runs inline, since waiting on its own mailbox would never return.
+    public <T> T ask(String serverName, Command<T> command) throws Exception {
+        Mailbox mailbox = mailboxes.get(serverName);
+        if (mailbox != null && mailbox.owner == Thread.currentThread()) {
+            return command.run();
+        }
+        try {
+            return tell(serverName, command).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        }
+    }
+
+    private final class Mailbox {
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+        private boolean draining;
+        private volatile Thread owner;
+
+        void enqueue(Runnable command) {
+            synchronized (this) {
+                queue.add(command);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        // Commands complete their own futures, so none of them can throw out of here
+        private void drain() {
+            owner = Thread.currentThread();
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        owner = null;
+                        draining = false;
+                        return;
+                    }
+                }
+                next.run();
+            }
+        }
+    }
+}
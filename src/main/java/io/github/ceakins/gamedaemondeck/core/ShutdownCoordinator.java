@@ -0,0 +1,203 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Stops many servers at once within one overall deadline. Every server is asked to shut down
+// gracefully in parallel; whatever is still alive after most of the deadline gets SIGTERM, and
+// SIGKILL shortly before the deadline runs out.
+public class ShutdownCoordinator {
+
+    public interface GracefulStop {
+        void requestStop(GameServer server) throws Exception;
+    }
+
+    public enum Outcome {
+        GRACEFUL,
+        TERMINATED,
+        KILLED,
+        FAILED,
+        NOT_RUNNING
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ShutdownCoordinator.class);
+    // Share of the deadline given to each phase
+    private static final double GRACEFUL_SHARE = 0.6;
+    private static final double TERMINATE_SHARE = 0.85;
+
+    private final ProcessSupervisor supervisor;
+    private final Executor workers;
+
+    public ShutdownCoordinator(ProcessSupervisor supervisor, Executor workers) {
+        this.supervisor = supervisor;
+        this.workers = workers;
+    }
+
+    public List<Result> stopAll(List<GameServer> servers, GracefulStop graceful, Duration deadline) {
+        long start = System.nanoTime();
+        long deadlineNanos = deadline.toNanos();
+        Map<GameServer, ProcessHandle> handles = new LinkedHashMap<>();
+        List<Result> results = new ArrayList<>();
+        for (GameServer server : servers) {
+            Optional<ProcessHandle> handle = handleOf(server);
+            if (handle.isPresent()) {
+                handles.put(server, handle.get());
+            } else {
+                results.add(new Result(server.getName(), Outcome.NOT_RUNNING, 0, null));
+            }
+        }
+
+        Map<GameServer, String> failures = new LinkedHashMap<>();
+        for (GameServer server : handles.keySet()) {
+            workers.execute(() -> {
+                try {
+                    graceful.requestStop(server);
+                } catch (Exception e) {
+                    logger.warn("Graceful shutdown of {} failed: {}", server.getName(), e.getMessage());
+                    synchronized (failures) {
+                        failures.put(server, e.getMessage());
+                    }
+                }
+            });
+        }
+
+        Map<GameServer, Outcome> outcomes = new LinkedHashMap<>();
+        Map<GameServer, Long> stoppedAt = new LinkedHashMap<>();
+        awaitExits(handles, outcomes, stoppedAt, Outcome.GRACEFUL, start, (long) (deadlineNanos * GRACEFUL_SHARE));
+
+        for (Map.Entry<GameServer, ProcessHandle> entry : handles.entrySet()) {
+            if (!outcomes.containsKey(entry.getKey())) {
+                logger.warn("Server {} did not shut down in time, sending SIGTERM", entry.getKey().getName());
+                entry.getValue().destroy();
+            }
+        }
+        awaitExits(handles, outcomes, stoppedAt, Outcome.TERMINATED, start, (long) (deadlineNanos * TERMINATE_SHARE));
+
+        for (Map.Entry<GameServer, ProcessHandle> entry : handles.entrySet()) {
+            if (!outcomes.containsKey(entry.getKey())) {
+                logger.warn("Server {} ignored SIGTERM, sending SIGKILL", entry.getKey().getName());
+                entry.getValue().destroyForcibly();
+            }
+        }
+        awaitExits(handles, outcomes, stoppedAt, Outcome.KILLED, start, deadlineNanos);
+
+        for (GameServer server : handles.keySet()) {
+            Outcome outcome = outcomes.getOrDefault(server, Outcome.FAILED);
+            long stopped;
+            synchronized (stoppedAt) {
+                stopped = stoppedAt.getOrDefault(server, System.nanoTime());
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(stopped - start);
+            String detail;
+            synchronized (failures) {
+                detail = outcome == Outcome.FAILED ? "Still running after deadline" : failures.get(server);
+            }
+            results.add(new Result(server.getName(), outcome, elapsed, detail));
+        }
+        return results;
+    }
+
+    private Optional<ProcessHandle> handleOf(GameServer server) {
+        Optional<ProcessSupervisor.ManagedProcess> managed = supervisor.get(server.getName());
+        if (managed.isPresent()) {
+            return Optional.of(managed.get().getHandle()).filter(ProcessHandle::isAlive);
+        }
+        if (server.getPid() == null) {
+            return Optional.empty();
+        }
+        String executable = GameDaemonDeckApp.executablePath(server);
+        return ProcessHandle.of(server.getPid())
+            .filter(handle -> {
+                // A PID that cannot be tied to the server might belong to anything by now
+                if (!verifiable(handle, server.getStartedAt(), executable)) {
+                    logger.warn("Not signalling PID {} for server {}: cannot verify it is the server", server.getPid(), server.getName());
+                    return false;
+                }
+                return ProcessSupervisor.matches(handle, server.getStartedAt(), executable);
+            });
+    }
+
+    // True if at least one of the start time or executable can be checked against the process
+    private static boolean verifiable(ProcessHandle handle, Long startedAt, String executable) {
+        ProcessHandle.Info info = handle.info();
+        return (startedAt != null && info.startInstant().isPresent())
+            || (executable != null && !executable.isBlank() && info.command().isPresent());
+    }
+
+    // Waits until every remaining process has exited or the phase ends, recording the exits
+    private void awaitExits(Map<GameServer, ProcessHandle> handles, Map<GameServer, Outcome> outcomes,
+                            Map<GameServer, Long> stoppedAt, Outcome outcome, long start, long phaseEndNanos) {
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (Map.Entry<GameServer, ProcessHandle> entry : handles.entrySet()) {
+            if (!outcomes.containsKey(entry.getKey())) {
+                GameServer server = entry.getKey();
+                pending.add(entry.getValue().onExit().thenRun(() -> {
+                    synchronized (stoppedAt) {
+                        stoppedAt.putIfAbsent(server, System.nanoTime());
+                    }
+                }));
+            }
+        }
+        if (!pending.isEmpty()) {
+            long remaining = phaseEndNanos - (System.nanoTime() - start);
+            try {
+                CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                // Stragglers are escalated by the caller
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Map.Entry<GameServer, ProcessHandle> entry : handles.entrySet()) {
+            if (!outcomes.containsKey(entry.getKey()) && !entry.getValue().isAlive()) {
+                outcomes.put(entry.getKey(), outcome);
+                synchronized (stoppedAt) {
+                    stoppedAt.putIfAbsent(entry.getKey(), System.nanoTime());
+                }
+            }
+        }
+    }
+
+    public static final class Result {
+        private final String serverName;
+        private final Outcome outcome;
+        private final long elapsedMillis;
+        private final String detail;
+
+        Result(String serverName, Outcome outcome, long elapsedMillis, String detail) {
+            this.serverName = serverName;
+            this.outcome = outcome;
+            this.elapsedMillis = elapsedMillis;
+            this.detail = detail;
+        }
+
+        public String getServerName() {
+            return serverName;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public String getDetail() {
+            return detail;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.github.ceakins.gamedaemondeck.db;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.mvstore.Cursor;
 import org.h2.mvstore.MVMap;
 import org.h2.mvstore.MVStore;
 
@@ -9,8 +10,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class ConfigStore {
@@ -18,11 +23,19 @@ public class ConfigStore {
     private static ConfigStore instance;
     private final MVStore store;
     private final ObjectMapper objectMapper;
+    private MetricStore metricStore;
+    private final Queue<JournalEntry> pendingJournal = new ConcurrentLinkedQueue<>();
+    private final AtomicLong lastJournalId = new AtomicLong();
 
     private static final String CONFIG_KEY = "configuration";
     private static final String WEBHOOKS_MAP = "webhooks";
     private static final String BOTS_MAP = "bots";
     private static final String SERVERS_MAP = "servers";
+    private static final String JOURNAL_MAP = "journal";
+    // Journal IDs are epoch millis shifted left, leaving room for 4096 entries per millisecond
+    private static final int JOURNAL_SEQUENCE_BITS = 12;
+    // Latest timestamp whose shifted key still fits in a long
+    private static final long MAX_JOURNAL_MILLIS = Long.MAX_VALUE >>> JOURNAL_SEQUENCE_BITS;
     private static final String DB_FILE_NAME = "gamedaemondeck.db";
     private static final String DATA_DIR = "data";
 
@@ -30,6 +43,7 @@ public class ConfigStore {
     ConfigStore(MVStore store, ObjectMapper objectMapper) {
         this.store = store;
         this.objectMapper = objectMapper;
+        seedJournalId();
     }
 
     private ConfigStore() {
@@ -43,6 +57,7 @@ public class ConfigStore {
         }
         this.store = MVStore.open(dataDirPath.resolve(DB_FILE_NAME).toString());
         this.objectMapper = new ObjectMapper();
+        seedJournalId();
     }
 
     public static synchronized ConfigStore getInstance() {
@@ -191,14 +206,96 @@ public class ConfigStore {
         }).collect(Collectors.toList());
     }
 
+    // Also drops the server's metrics, so a new server of the same name starts without them
     public void deleteServer(String name) {
         MVMap<String, String> serversMap = store.openMap(SERVERS_MAP);
         serversMap.remove(name);
+        getMetricStore().deleteSeries(name);
         store.commit();
     }
 
+    // Queues an entry for the journal. Entries are written in batches by flushJournal() so that
+    // callers on the lifecycle path never pay for serialization or a commit.
+    public void journal(JournalEntry entry) {
+        long now = System.currentTimeMillis();
+        if (entry.getTimestamp() == 0) {
+            entry.setTimestamp(now);
+        }
+        entry.setId(nextJournalId(entry.getTimestamp()));
+        pendingJournal.add(entry);
+    }
+
+    public synchronized void flushJournal() {
+        if (pendingJournal.isEmpty()) {
+            return;
+        }
+        MVMap<Long, String> journalMap = store.openMap(JOURNAL_MAP);
+        JournalEntry entry;
+        while ((entry = pendingJournal.poll()) != null) {
+            try {
+                journalMap.put(entry.getId(), objectMapper.writeValueAsString(entry));
+            } catch (JsonProcessingException e) {
+                e.printStackTrace();
+            }
+        }
+        store.commit();
+    }
+
+    // Returns up to 'limit' entries in time order, optionally filtered by server. Pass the last
+    // ID of the previous page as 'afterId' to continue paging.
+    public List<JournalEntry> getJournal(String serverName, long fromMillis, long toMillis, Long afterId, int limit) {
+        flushJournal();
+        MVMap<Long, String> journalMap = store.openMap(JOURNAL_MAP);
+        long fromKey = Math.min(fromMillis, MAX_JOURNAL_MILLIS) << JOURNAL_SEQUENCE_BITS;
+        if (afterId != null && afterId >= fromKey) {
+            fromKey = afterId + 1;
+        }
+        long toKey = (Math.min(toMillis, MAX_JOURNAL_MILLIS) << JOURNAL_SEQUENCE_BITS) | ((1L << JOURNAL_SEQUENCE_BITS) - 1);
+
+        List<JournalEntry> entries = new ArrayList<>();
+        Cursor<Long, String> cursor = journalMap.cursor(fromKey, toKey, false);
+        while (cursor.hasNext() && entries.size() < limit) {
+            cursor.next();
+            try {
+                JournalEntry entry = objectMapper.readValue(cursor.getValue(), JournalEntry.class);
+                if (serverName == null || serverName.equals(entry.getServerName())) {
+                    entries.add(entry);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return entries;
+    }
+
+    // IDs continue after the newest stored entry, so a clock that stepped back across a restart
+    // cannot reissue an ID and overwrite an old entry
+    private void seedJournalId() {
+        MVMap<Long, String> journalMap = store.openMap(JOURNAL_MAP);
+        Long lastKey = journalMap.lastKey();
+        if (lastKey != null) {
+            lastJournalId.set(lastKey);
+        }
+    }
+
+    private long nextJournalId(long timestampMillis) {
+        long candidate = timestampMillis << JOURNAL_SEQUENCE_BITS;
+        return lastJournalId.accumulateAndGet(candidate, (last, next) -> next > last ? next : last + 1);
+    }
+
+    public synchronized MetricStore getMetricStore() {
+        if (metricStore == null) {
+            metricStore = new MetricStore(store);
+        }
+        return metricStore;
+    }
+
     public void close() {
         if (store != null && !store.isClosed()) {
+            flushJournal();
+            if (metricStore != null) {
+                metricStore.flush();
+            }
             store.close();
         }
     }
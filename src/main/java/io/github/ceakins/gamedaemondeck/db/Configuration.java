@@ -13,6 +13,16 @@ public class Configuration implements Serializable {
     private String steamCmdPath;
     private List<String> allowedIps;
     private int sessionTimeoutSeconds;
+    private int maxConcurrentRestarts = 1;
+    private int restartStaggerSeconds = 30;
+    private int restartJitterSeconds = 10;
+    private boolean restartGateOnReady = true;
+    private List<Integer> restartWarningSeconds = List.of(600, 300, 60, 10);
+    private int resourceSampleSeconds = 10;
+    private boolean stopServersOnExit = true;
+    private int shutdownDeadlineSeconds = 20;
+    private int readyTimeoutSeconds = 900;
+    private int autostartConcurrency = 2;
 
     public Configuration() {
     }
@@ -56,4 +66,84 @@ public class Configuration implements Serializable {
     public void setAllowedIps(List<String> allowedIps) {
         this.allowedIps = allowedIps;
     }
+
+    public int getMaxConcurrentRestarts() {
+        return maxConcurrentRestarts;
+    }
+
+    public void setMaxConcurrentRestarts(int maxConcurrentRestarts) {
+        this.maxConcurrentRestarts = maxConcurrentRestarts;
+    }
+
+    public int getRestartStaggerSeconds() {
+        return restartStaggerSeconds;
+    }
+
+    public void setRestartStaggerSeconds(int restartStaggerSeconds) {
+        this.restartStaggerSeconds = restartStaggerSeconds;
+    }
+
+    public int getRestartJitterSeconds() {
+        return restartJitterSeconds;
+    }
+
+    public void setRestartJitterSeconds(int restartJitterSeconds) {
+        this.restartJitterSeconds = restartJitterSeconds;
+    }
+
+    public boolean isRestartGateOnReady() {
+        return restartGateOnReady;
+    }
+
+    public void setRestartGateOnReady(boolean restartGateOnReady) {
+        this.restartGateOnReady = restartGateOnReady;
+    }
+
+    public List<Integer> getRestartWarningSeconds() {
+        return restartWarningSeconds;
+    }
+
+    public void setRestartWarningSeconds(List<Integer> restartWarningSeconds) {
+        this.restartWarningSeconds = restartWarningSeconds;
+    }
+
+    public int getResourceSampleSeconds() {
+        return resourceSampleSeconds;
+    }
+
+    public void setResourceSampleSeconds(int resourceSampleSeconds) {
+        this.resourceSampleSeconds = resourceSampleSeconds;
+    }
+
+    public boolean isStopServersOnExit() {
+        return stopServersOnExit;
+    }
+
+    public void setStopServersOnExit(boolean stopServersOnExit) {
+        this.stopServersOnExit = stopServersOnExit;
+    }
+
+    public int getShutdownDeadlineSeconds() {
+        return shutdownDeadlineSeconds;
+    }
+
+    public void setShutdownDeadlineSeconds(int shutdownDeadlineSeconds) {
+        this.shutdownDeadlineSeconds = shutdownDeadlineSeconds;
+    }
+
+    public int getReadyTimeoutSeconds() {
+        return readyTimeoutSeconds;
+    }
+
+    public void setReadyTimeoutSeconds(int readyTimeoutSeconds) {
+        this.readyTimeoutSeconds = readyTimeoutSeconds;
+    }
+
+    public int getAutostartConcurrency() {
+        return autostartConcurrency;
+    }
+
+    public void setAutostartConcurrency(int autostartConcurrency) {
+        this.autostartConcurrency = autostartConcurrency;
+    }
 }
@@ -17,7 +17,21 @@ public class GameServer implements Serializable {
     private String serverPath;
     private String commandLine;
     private Long pid;
+    private Long startedAt;
     private List<String> restartTimes = new ArrayList<>();
+    private String restartTimeZone;
+    private int restartPriority;
+    private boolean autoRestart;
+    private int maxCrashes = 3;
+    private int crashWindowSeconds = 600;
+    private String crashWebhook;
+    private String cpuAffinity;
+    private Integer niceLevel;
+    private Integer ioniceClass;
+    private Integer ioniceLevel;
+    private boolean autoStart;
+    private int startGroup;
+    private boolean consoleLogSource;
 
     public GameServer() {
     }
@@ -94,6 +108,14 @@ public class GameServer implements Serializable {
         this.pid = pid;
     }
 
+    public Long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Long startedAt) {
+        this.startedAt = startedAt;
+    }
+
     public List<String> getRestartTimes() {
         return restartTimes;
     }
@@ -101,4 +123,108 @@ public class GameServer implements Serializable {
     public void setRestartTimes(List<String> restartTimes) {
         this.restartTimes = restartTimes;
     }
+
+    public String getRestartTimeZone() {
+        return restartTimeZone;
+    }
+
+    public void setRestartTimeZone(String restartTimeZone) {
+        this.restartTimeZone = restartTimeZone;
+    }
+
+    public int getRestartPriority() {
+        return restartPriority;
+    }
+
+    public void setRestartPriority(int restartPriority) {
+        this.restartPriority = restartPriority;
+    }
+
+    public boolean isAutoRestart() {
+        return autoRestart;
+    }
+
+    public void setAutoRestart(boolean autoRestart) {
+        this.autoRestart = autoRestart;
+    }
+
+    public int getMaxCrashes() {
+        return maxCrashes;
+    }
+
+    public void setMaxCrashes(int maxCrashes) {
+        this.maxCrashes = maxCrashes;
+    }
+
+    public int getCrashWindowSeconds() {
+        return crashWindowSeconds;
+    }
+
+    public void setCrashWindowSeconds(int crashWindowSeconds) {
+        this.crashWindowSeconds = crashWindowSeconds;
+    }
+
+    public String getCrashWebhook() {
+        return crashWebhook;
+    }
+
+    public void setCrashWebhook(String crashWebhook) {
+        this.crashWebhook = crashWebhook;
+    }
+
+    public String getCpuAffinity() {
+        return cpuAffinity;
+    }
+
+    public void setCpuAffinity(String cpuAffinity) {
+        this.cpuAffinity = cpuAffinity;
+    }
+
+    public Integer getNiceLevel() {
+        return niceLevel;
+    }
+
+    public void setNiceLevel(Integer niceLevel) {
+        this.niceLevel = niceLevel;
+    }
+
+    public Integer getIoniceClass() {
+        return ioniceClass;
+    }
+
+    public void setIoniceClass(Integer ioniceClass) {
+        this.ioniceClass = ioniceClass;
+    }
+
+    public Integer getIoniceLevel() {
+        return ioniceLevel;
+    }
+
+    public void setIoniceLevel(Integer ioniceLevel) {
+        this.ioniceLevel = ioniceLevel;
+    }
+
+    public boolean isAutoStart() {
+        return autoStart;
+    }
+
+    public void setAutoStart(boolean autoStart) {
+        this.autoStart = autoStart;
+    }
+
+    public int getStartGroup() {
+        return startGroup;
+    }
+
+    public void setStartGroup(int startGroup) {
+        this.startGroup = startGroup;
+    }
+
+    public boolean isConsoleLogSource() {
+        return consoleLogSource;
+    }
+
+    public void setConsoleLogSource(boolean consoleLogSource) {
+        this.consoleLogSource = consoleLogSource;
+    }
 }
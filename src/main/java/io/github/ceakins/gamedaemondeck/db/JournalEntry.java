@@ -0,0 +1,96 @@
+package io.github.ceakins.gamedaemondeck.db;
+
+public class JournalEntry {
+
+    public enum Operation {
+        START,
+        STOP,
+        KILL,
+        CRASH,
+        REATTACH,
+        SCHEDULED_RESTART,
+        RESTART,
+        CONFIG_GENERATED,
+        STEAM_UPDATE
+    }
+
+    private long id;
+    private long timestamp;
+    private String serverName;
+    private Operation operation;
+    private boolean success = true;
+    private Long durationMillis;
+    private String detail;
+
+    public JournalEntry() {
+    }
+
+    public JournalEntry(String serverName, Operation operation) {
+        this.serverName = serverName;
+        this.operation = operation;
+    }
+
+    public static JournalEntry of(String serverName, Operation operation, boolean success, Long durationMillis, String detail) {
+        JournalEntry entry = new JournalEntry(serverName, operation);
+        entry.setSuccess(success);
+        entry.setDurationMillis(durationMillis);
+        entry.setDetail(detail);
+        return entry;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    public void setServerName(String serverName) {
+        this.serverName = serverName;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(Operation operation) {
+        this.operation = operation;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public Long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(Long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+}
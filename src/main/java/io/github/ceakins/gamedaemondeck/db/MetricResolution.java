@@ -0,0 +1,53 @@
+package io.github.ceakins.gamedaemondeck.db;
+
+import java.util.concurrent.TimeUnit;
+
+// Storage tiers for metrics. Every tier rolls its buckets up into the next one.
+public enum MetricResolution {
+    RAW("metrics.10s", TimeUnit.SECONDS.toMillis(10), TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(1)),
+    MINUTE("metrics.1m", TimeUnit.MINUTES.toMillis(1), TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(7)),
+    HOUR("metrics.1h", TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(30), TimeUnit.DAYS.toMillis(365));
+
+    private final String mapName;
+    private final long bucketMillis;
+    private final long blockMillis;
+    private final long retentionMillis;
+
+    MetricResolution(String mapName, long bucketMillis, long blockMillis, long retentionMillis) {
+        this.mapName = mapName;
+        this.bucketMillis = bucketMillis;
+        this.blockMillis = blockMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    public String getMapName() {
+        return mapName;
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    public long getBlockMillis() {
+        return blockMillis;
+    }
+
+    public long getRetentionMillis() {
+        return retentionMillis;
+    }
+
+    public MetricResolution next() {
+        int next = ordinal() + 1;
+        return next < values().length ? values()[next] : null;
+    }
+
+    // Picks the finest tier that still covers the whole range.
+    public static MetricResolution forRange(long fromMillis, long toMillis, long nowMillis) {
+        for (MetricResolution resolution : values()) {
+            if (fromMillis >= nowMillis - resolution.retentionMillis && (toMillis - fromMillis) / resolution.bucketMillis <= 2000) {
+                return resolution;
+            }
+        }
+        return HOUR;
+    }
+}
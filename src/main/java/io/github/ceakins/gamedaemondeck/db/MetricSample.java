@@ -0,0 +1,31 @@
+package io.github.ceakins.gamedaemondeck.db;
+
+public class MetricSample {
+
+    private long timestamp;
+    private double value;
+
+    public MetricSample() {
+    }
+
+    public MetricSample(long timestamp, double value) {
+        this.timestamp = timestamp;
+        this.value = value;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,217 @@
+package io.github.ceakins.gamedaemondeck.db;
+
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+// Per-server numeric time series kept in the application's MVStore. Samples are averaged into
+// 10 second buckets, rolled up into 1 minute and 1 hour tiers, and stored as compressed blocks.
+public class MetricStore {
+
+    public static final String CPU = "cpu";
+    public static final String RSS = "rss";
+    public static final String THREADS = "threads";
+    public static final String DISK_READ = "disk.read";
+    public static final String DISK_WRITE = "disk.write";
+    public static final String PLAYERS = "players";
+    public static final String FPS = "fps";
+    public static final String LOG_ERRORS = "log.errors";
+    public static final String STARTUP_SECONDS = "startup.seconds";
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final MVStore store;
+    private final Map<String, Series> series = new HashMap<>();
+
+    public MetricStore(MVStore store) {
+        this.store = store;
+    }
+
+    public synchronized void record(String serverName, String metric, long timestampMillis, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        Series s = series.computeIfAbsent(seriesKey(serverName, metric), Series::new);
+        s.accumulate(MetricResolution.RAW, timestampMillis, value, 1);
+    }
+
+    public List<MetricSample> query(String serverName, String metric, long fromMillis, long toMillis) {
+        return query(serverName, metric, fromMillis, toMillis,
+                MetricResolution.forRange(fromMillis, toMillis, System.currentTimeMillis()));
+    }
+
+    public synchronized List<MetricSample> query(String serverName, String metric, long fromMillis, long toMillis,
+                                                 MetricResolution resolution) {
+        String prefix = seriesKey(serverName, metric);
+        MVMap<String, byte[]> map = store.openMap(resolution.getMapName());
+        Series s = series.get(prefix);
+        OpenBlock open = s != null ? s.open.get(resolution) : null;
+
+        List<MetricSample> samples = new ArrayList<>();
+        long firstBlock = fromMillis - Math.floorMod(fromMillis, resolution.getBlockMillis());
+        Cursor<String, byte[]> cursor = map.cursor(blockKey(prefix, firstBlock));
+        while (cursor.hasNext()) {
+            String key = cursor.next();
+            if (!key.startsWith(prefix) || key.charAt(prefix.length()) != SEPARATOR) {
+                break;
+            }
+            long blockStart = Long.parseLong(key.substring(prefix.length() + 1), 16);
+            if (blockStart > toMillis) {
+                break;
+            }
+            if (open != null && open.start == blockStart) {
+                continue; // The in-memory copy is newer
+            }
+            collect(TimeSeriesBlock.decode(cursor.getValue()), fromMillis, toMillis, samples);
+        }
+        if (open != null && open.start <= toMillis && open.start + resolution.getBlockMillis() > fromMillis) {
+            collect(open.block, fromMillis, toMillis, samples);
+            samples.sort((a, b) -> Long.compare(a.getTimestamp(), b.getTimestamp()));
+        }
+        return samples;
+    }
+
+    // Persists every open block and drops blocks that have aged out of their tier.
+    public synchronized void flush() {
+        for (Series s : series.values()) {
+            for (OpenBlock open : s.open.values()) {
+                if (open.dirty) {
+                    writeBlock(s.key, open);
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (MetricResolution resolution : MetricResolution.values()) {
+            MVMap<String, byte[]> map = store.openMap(resolution.getMapName());
+            long cutoff = now - resolution.getRetentionMillis() - resolution.getBlockMillis();
+            Iterator<String> keys = map.keyIterator(null);
+            List<String> expired = new ArrayList<>();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                long blockStart = Long.parseLong(key.substring(key.lastIndexOf(SEPARATOR) + 1), 16);
+                if (blockStart < cutoff) {
+                    expired.add(key);
+                }
+            }
+            expired.forEach(map::remove);
+        }
+        store.commit();
+    }
+
+    public synchronized void deleteSeries(String serverName) {
+        String prefix = serverName + SEPARATOR;
+        series.keySet().removeIf(key -> key.startsWith(prefix));
+        for (MetricResolution resolution : MetricResolution.values()) {
+            MVMap<String, byte[]> map = store.openMap(resolution.getMapName());
+            List<String> keys = new ArrayList<>();
+            Iterator<String> it = map.keyIterator(prefix);
+            while (it.hasNext()) {
+                String key = it.next();
+                if (!key.startsWith(prefix)) {
+                    break;
+                }
+                keys.add(key);
+            }
+            keys.forEach(map::remove);
+        }
+        store.commit();
+    }
+
+    private void writeBlock(String key, OpenBlock open) {
+        MVMap<String, byte[]> map = store.openMap(open.resolution.getMapName());
+        map.put(blockKey(key, open.start), open.block.encode());
+        open.dirty = false;
+    }
+
+    private static void collect(TimeSeriesBlock block, long fromMillis, long toMillis, List<MetricSample> samples) {
+        for (int i = 0; i < block.size(); i++) {
+            long timestamp = block.timestampAt(i);
+            if (timestamp >= fromMillis && timestamp <= toMillis) {
+                samples.add(new MetricSample(timestamp, block.valueAt(i)));
+            }
+        }
+    }
+
+    private static String seriesKey(String serverName, String metric) {
+        return serverName + SEPARATOR + metric;
+    }
+
+    private static String blockKey(String seriesKey, long blockStart) {
+        return seriesKey + SEPARATOR + String.format("%016x", blockStart);
+    }
+
+    private static final class OpenBlock {
+        final MetricResolution resolution;
+        final long start;
+        final TimeSeriesBlock block;
+        boolean dirty;
+
+        OpenBlock(MetricResolution resolution, long start, TimeSeriesBlock block) {
+            this.resolution = resolution;
+            this.start = start;
+            this.block = block;
+        }
+    }
+
+    private final class Series {
+        final String key;
+        final Map<MetricResolution, OpenBlock> open = new EnumMap<>(MetricResolution.class);
+        final long[] bucketStart = new long[MetricResolution.values().length];
+        final double[] bucketSum = new double[MetricResolution.values().length];
+        final long[] bucketCount = new long[MetricResolution.values().length];
+
+        Series(String key) {
+            this.key = key;
+            Arrays.fill(bucketStart, Long.MIN_VALUE);
+        }
+
+        // Adds a weighted value to the tier's current bucket. When the bucket closes, its mean is
+        // appended to the tier's block and its sum/count cascade into the next coarser tier.
+        void accumulate(MetricResolution resolution, long timestamp, double sum, long count) {
+            int tier = resolution.ordinal();
+            long bucket = timestamp - Math.floorMod(timestamp, resolution.getBucketMillis());
+            if (bucket != bucketStart[tier]) {
+                if (bucketCount[tier] > 0) {
+                    long closedStart = bucketStart[tier];
+                    double closedSum = bucketSum[tier];
+                    long closedCount = bucketCount[tier];
+                    append(resolution, closedStart, closedSum / closedCount);
+                    MetricResolution next = resolution.next();
+                    if (next != null) {
+                        accumulate(next, closedStart, closedSum, closedCount);
+                    }
+                }
+                bucketStart[tier] = bucket;
+                bucketSum[tier] = 0;
+                bucketCount[tier] = 0;
+            }
+            bucketSum[tier] += sum;
+            bucketCount[tier] += count;
+        }
+
+        private void append(MetricResolution resolution, long timestamp, double value) {
+            long blockStart = timestamp - Math.floorMod(timestamp, resolution.getBlockMillis());
+            OpenBlock block = open.get(resolution);
+            if (block == null || block.start != blockStart) {
+                if (block != null && block.dirty) {
+                    writeBlock(key, block);
+                }
+                MVMap<String, byte[]> map = store.openMap(resolution.getMapName());
+                byte[] existing = map.get(blockKey(key, blockStart));
+                block = new OpenBlock(resolution, blockStart,
+                        existing != null ? TimeSeriesBlock.decode(existing) : new TimeSeriesBlock());
+                open.put(resolution, block);
+            }
+            block.block.add(timestamp, value);
+            block.dirty = true;
+        }
+    }
+}
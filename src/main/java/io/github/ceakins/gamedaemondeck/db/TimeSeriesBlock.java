@@ -0,0 +1,152 @@
+package io.github.ceakins.gamedaemondeck.db;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// A run of samples encoded Gorilla style: delta-of-delta timestamps as zigzag varints and
+// values XOR'd against their predecessor with the leading/trailing zero bytes stripped.
+final class TimeSeriesBlock {
+
+    private long[] timestamps;
+    private double[] values;
+    private int size;
+
+    TimeSeriesBlock() {
+        this(16);
+    }
+
+    TimeSeriesBlock(int capacity) {
+        timestamps = new long[capacity];
+        values = new double[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    double valueAt(int index) {
+        return values[index];
+    }
+
+    // Samples are expected in time order; an out-of-order sample replaces nothing and is dropped.
+    void add(long timestamp, double value) {
+        if (size > 0 && timestamp <= timestamps[size - 1]) {
+            if (timestamp == timestamps[size - 1]) {
+                values[size - 1] = value;
+            }
+            return;
+        }
+        if (size == timestamps.length) {
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        timestamps[size] = timestamp;
+        values[size] = value;
+        size++;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + size * 4);
+        writeVarLong(out, size);
+        if (size == 0) {
+            return out.toByteArray();
+        }
+        writeVarLong(out, timestamps[0]);
+        writeLong(out, Double.doubleToRawLongBits(values[0]));
+
+        long previousTimestamp = timestamps[0];
+        long previousDelta = 0;
+        long previousBits = Double.doubleToRawLongBits(values[0]);
+        for (int i = 1; i < size; i++) {
+            long delta = timestamps[i] - previousTimestamp;
+            writeVarLong(out, zigzag(delta - previousDelta));
+            previousTimestamp = timestamps[i];
+            previousDelta = delta;
+
+            long bits = Double.doubleToRawLongBits(values[i]);
+            long xor = bits ^ previousBits;
+            previousBits = bits;
+            if (xor == 0) {
+                out.write(0);
+                continue;
+            }
+            int leading = Long.numberOfLeadingZeros(xor) / 8;
+            int trailing = Long.numberOfTrailingZeros(xor) / 8;
+            out.write(0x80 | (leading << 3) | trailing);
+            for (int shift = (7 - leading) * 8; shift >= trailing * 8; shift -= 8) {
+                out.write((int) (xor >>> shift) & 0xFF);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    static TimeSeriesBlock decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        int count = (int) readVarLong(in);
+        TimeSeriesBlock block = new TimeSeriesBlock(Math.max(count, 1));
+        if (count == 0) {
+            return block;
+        }
+        long timestamp = readVarLong(in);
+        long bits = in.getLong();
+        block.add(timestamp, Double.longBitsToDouble(bits));
+
+        long delta = 0;
+        for (int i = 1; i < count; i++) {
+            delta += unzigzag(readVarLong(in));
+            timestamp += delta;
+
+            int control = in.get() & 0xFF;
+            if (control != 0) {
+                int leading = (control >>> 3) & 0x07;
+                int trailing = control & 0x07;
+                long xor = 0;
+                for (int shift = (7 - leading) * 8; shift >= trailing * 8; shift -= 8) {
+                    xor |= (long) (in.get() & 0xFF) << shift;
+                }
+                bits ^= xor;
+            }
+            block.add(timestamp, Double.longBitsToDouble(bits));
+        }
+        return block;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xFF);
+        }
+    }
+}
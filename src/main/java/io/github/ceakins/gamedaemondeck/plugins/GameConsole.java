@@ -0,0 +1,50 @@
+package io.github.ceakins.gamedaemondeck.plugins;
+
+import io.github.ceakins.gamedaemondeck.util.CommandNotSentException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+// An authenticated admin console session (telnet, RCON, ...) to a running game server. A call that
+// fails before anything reached the server throws CommandNotSentException; it may be resent.
+public interface GameConsole extends Closeable {
+
+    String execute(String command) throws IOException;
+
+    // Queues a command without blocking the caller. Consoles that cannot do that run it right away.
+    default CompletableFuture<String> submit(String command) {
+        try {
+            return CompletableFuture.completedFuture(execute(command));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Streams the server log printed on this console to the listener, or stops with null. Returns
+    // false if the console does not carry the log.
+    default boolean followLog(Consumer<String> lines) {
+        return false;
+    }
+
+    // Runs the commands in order and returns their responses. Consoles that can split responses
+    // without waiting for each one pipeline them; others run them one after the other.
+    default List<String> executeAll(List<String> commands) throws IOException {
+        List<String> responses = new ArrayList<>(commands.size());
+        for (String command : commands) {
+            try {
+                responses.add(execute(command));
+            } catch (CommandNotSentException e) {
+                if (responses.isEmpty()) {
+                    throw e;
+                }
+                // The earlier commands did reach the server, so the batch as a whole was sent
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        return responses;
+    }
+}
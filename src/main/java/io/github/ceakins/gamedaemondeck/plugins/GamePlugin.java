@@ -3,9 +3,11 @@ package io.github.ceakins.gamedaemondeck.plugins;
 import io.github.ceakins.gamedaemondeck.db.GameServer;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 public interface GamePlugin {
 
@@ -44,4 +46,64 @@ public interface GamePlugin {
     default void shutdownServer(GameServer server) throws IOException {
         stopServer(); // Default fallback
     }
+
+    // Log line that means the server is accepting players, or null if the game logs none
+    default Pattern getReadyLogPattern() {
+        return null;
+    }
+
+    // Port that starts accepting connections once the server is ready, or null
+    default Integer getReadyPort(GameServer server) {
+        return null;
+    }
+
+    // Opens an admin console to the running server, or returns null if the game has none
+    default GameConsole openConsole(GameServer server) throws IOException {
+        return null;
+    }
+
+    // Console command that broadcasts a chat message to all players, or null if unsupported
+    default String getBroadcastCommand(String message) {
+        return null;
+    }
+
+    // Console command that flushes the world to disk, or null if unsupported
+    default String getSaveCommand() {
+        return null;
+    }
+
+    // Console command that makes the server save and exit, or null to use shutdownServer instead
+    default String getShutdownCommand() {
+        return null;
+    }
+
+    // Cheap console command sent to keep an idle console connection open, or null for none
+    default String getKeepaliveCommand() {
+        return null;
+    }
+
+    // Console commands that only read state, with how long their answer may be served from cache
+    default Map<String, Duration> getReadOnlyQueries() {
+        return Collections.emptyMap();
+    }
+
+    // Console query whose answer holds the player count, or null if the game has none
+    default String getPlayerCountQuery() {
+        return null;
+    }
+
+    // Player count in the answer to getPlayerCountQuery(), or null if it cannot be read
+    default Integer parsePlayerCount(String response) {
+        return null;
+    }
+
+    // Log line reporting the server's frame rate, with the rate in group 1, or null if none
+    default Pattern getFpsLogPattern() {
+        return null;
+    }
+
+    // Log lines counted as errors, or null to count none
+    default Pattern getErrorLogPattern() {
+        return null;
+    }
 }
@@ -1,7 +1,8 @@
 package io.github.ceakins.gamedaemondeck.plugins;
 
 import io.github.ceakins.gamedaemondeck.db.GameServer;
-import io.github.ceakins.gamedaemondeck.util.TelnetClientManager;
+import io.github.ceakins.gamedaemondeck.util.NioConsoleClient;
+import io.github.ceakins.gamedaemondeck.util.NioEventLoop;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -10,18 +11,43 @@ import org.w3c.dom.NodeList;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class SevenDaysToDiePlugin implements GamePlugin {
 
+    private static final String PASSWORD_PROMPT = "Please enter password:";
+    // Upper bounds only: reads return as soon as the server has answered
+    private static final Duration LOGIN_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration BANNER_TIMEOUT = Duration.ofSeconds(1);
+    private static final Duration RESPONSE_DEADLINE = Duration.ofSeconds(2);
+    // The console has no prompt, so a response is complete once it goes quiet
+    private static final Duration IDLE_GAP = Duration.ofMillis(250);
+    private static final Map<String, Duration> READ_ONLY_QUERIES = Map.of(
+            "lp", Duration.ofSeconds(5),
+            "listplayers", Duration.ofSeconds(5),
+            "gettime", Duration.ofSeconds(10),
+            "mem", Duration.ofSeconds(10),
+            "version", Duration.ofMinutes(10));
+    private static final Pattern READY_PATTERN = Pattern.compile("GameServer\\.LogOn successful|StartGame done");
+    // Total of 3 in the game
+    private static final Pattern PLAYER_COUNT = Pattern.compile("Total of (\\d+) in the game");
+    // 2024-01-01T12:00:00 123.456 INF Time: 1.00m FPS: 59.87 Heap: 1024.0MB Max: 1100.0MB ...
+    private static final Pattern FPS_PATTERN = Pattern.compile("\\bFPS: ([0-9]+(?:\\.[0-9]+)?)");
+    private static final Pattern ERROR_PATTERN = Pattern.compile("\\bERR\\b|Exception:");
+
     @Override
     public String getName() {
         return "7 Days to Die";
@@ -263,63 +289,165 @@ public class SevenDaysToDiePlugin implements GamePlugin {
 
     @Override
     public void shutdownServer(GameServer server) throws IOException {
-        Map<String, String> params = new HashMap<>();
-        params.put("commandLine", server.getCommandLine());
-        Path configPath = getConfigFileFromParams(params);
+        GameConsole console = openConsole(server);
+        if (console == null) {
+            // Fallback if config not found or telnet disabled
+            throw new IOException("Telnet not configured or disabled");
+        }
+        try (console) {
+            console.execute("shutdown");
+        } catch (Exception e) {
+            throw new IOException("Telnet shutdown failed", e);
+        }
+    }
 
-        if (configPath != null) {
-            // Resolve relative path if needed
-            if (!configPath.isAbsolute()) {
-                String serverPath = server.getServerPath();
-                if (serverPath.startsWith("\"") && serverPath.endsWith("\"")) {
-                    serverPath = serverPath.substring(1, serverPath.length() - 1);
+    @Override
+    public GameConsole openConsole(GameServer server) throws IOException {
+        Map<String, String> config = readServerConfig(server);
+        if (config == null) {
+            return null;
+        }
+        String telnetEnabled = config.get("TelnetEnabled");
+        String telnetPortStr = config.get("TelnetPort");
+        String telnetPassword = config.get("TelnetPassword");
+        // 1 and 3 hide the "Executing command" lines that pipelined responses are split on
+        String hiddenCommandLog = config.getOrDefault("HideCommandExecutionLog", "0");
+        boolean echoesCommands = !"1".equals(hiddenCommandLog) && !"3".equals(hiddenCommandLog);
+        if (!"true".equalsIgnoreCase(telnetEnabled) || telnetPortStr == null) {
+            return null;
+        }
+
+        int telnetPort = Integer.parseInt(telnetPortStr);
+        // All consoles share one event loop thread however many servers are polled
+        NioConsoleClient client = NioConsoleClient.await(NioConsoleClient.connect(NioEventLoop.shared(),
+                "localhost", telnetPort, StandardCharsets.UTF_8, LOGIN_TIMEOUT));
+        try {
+            // Servers without a telnet password log us straight in
+            String greeting = NioConsoleClient.await(client.readResponse(LOGIN_TIMEOUT, IDLE_GAP, PASSWORD_PROMPT));
+            if (greeting.endsWith(PASSWORD_PROMPT)) {
+                client.write(telnetPassword, true); // Mask password in logs
+                String login = NioConsoleClient.await(client.readUntil(LOGIN_TIMEOUT, "Logon successful.", "Password incorrect"));
+                if (login.endsWith("Password incorrect")) {
+                    throw new IOException("Telnet password incorrect");
                 }
-                Path serverDir = Paths.get(serverPath).getParent();
-                configPath = serverDir.resolve(configPath);
             }
 
-            if (Files.exists(configPath)) {
-                Map<String, String> config = parseConfigFile(configPath);
-                String telnetEnabled = config.get("TelnetEnabled");
-                String telnetPortStr = config.get("TelnetPort");
-                String telnetPassword = config.get("TelnetPassword");
-
-                if ("true".equalsIgnoreCase(telnetEnabled) && telnetPortStr != null) {
-                    int telnetPort = Integer.parseInt(telnetPortStr);
-                    TelnetClientManager telnetManager = new TelnetClientManager();
-                    try {
-                        telnetManager.connect("localhost", telnetPort);
-                        
-                        // Wait for password prompt
-                        String response = telnetManager.readUntil("Please enter password:");
-                        if (response.contains("Please enter password:")) {
-                            telnetManager.sendCommand(telnetPassword, null, true); // Mask password in logs
-                        }
-
-                        // Read login response (wait up to 2 seconds)
-                        telnetManager.read(2000);
-
-                        // Send shutdown command
-                        telnetManager.sendCommand("shutdown", null);
-                        
-                        // Read shutdown response (wait up to 2 seconds)
-                        telnetManager.read(2000);
-
-                    } catch (Exception e) {
-                        throw new IOException("Telnet shutdown failed", e);
-                    } finally {
-                        try {
-                            telnetManager.disconnect();
-                        } catch (Exception e) {
-                            // Ignore disconnect errors
-                        }
-                    }
-                    return; // Success
+            // Skip the banner that follows the login
+            NioConsoleClient.await(client.readResponse(BANNER_TIMEOUT, IDLE_GAP));
+        } catch (Exception e) {
+            client.close();
+            throw new IOException("Telnet login failed", e);
+        }
+
+        return new GameConsole() {
+            @Override
+            public String execute(String command) throws IOException {
+                return NioConsoleClient.await(submit(command));
+            }
+
+            @Override
+            public CompletableFuture<String> submit(String command) {
+                return client.send(command, RESPONSE_DEADLINE, IDLE_GAP);
+            }
+
+            @Override
+            public List<String> executeAll(List<String> commands) throws IOException {
+                if (!echoesCommands || commands.size() < 2) {
+                    return GameConsole.super.executeAll(commands);
+                }
+                // There is no prompt, but the server logs every command it runs before its output
+                List<String> responses = new ArrayList<>(commands.size());
+                for (CompletableFuture<String> response : client.pipelineByEcho(commands, RESPONSE_DEADLINE, IDLE_GAP,
+                        command -> "Executing command '" + command + "'")) {
+                    responses.add(NioConsoleClient.await(response));
                 }
+                return responses;
+            }
+
+            @Override
+            public boolean followLog(Consumer<String> lines) {
+                // The telnet console prints the server log after login
+                client.followLines(lines);
+                return true;
+            }
+
+            @Override
+            public void close() {
+                client.close();
             }
+        };
+    }
+
+    @Override
+    public Pattern getReadyLogPattern() {
+        return READY_PATTERN;
+    }
+
+    @Override
+    public String getBroadcastCommand(String message) {
+        return "say \"" + message.replace("\"", "'") + "\"";
+    }
+
+    @Override
+    public String getSaveCommand() {
+        return "saveworld";
+    }
+
+    @Override
+    public String getShutdownCommand() {
+        return "shutdown";
+    }
+
+    @Override
+    public String getKeepaliveCommand() {
+        return "gettime";
+    }
+
+    @Override
+    public Map<String, Duration> getReadOnlyQueries() {
+        return READ_ONLY_QUERIES;
+    }
+
+    @Override
+    public String getPlayerCountQuery() {
+        return "lp";
+    }
+
+    @Override
+    public Integer parsePlayerCount(String response) {
+        Matcher matcher = PLAYER_COUNT.matcher(response);
+        return matcher.find() ? Integer.valueOf(matcher.group(1)) : null;
+    }
+
+    @Override
+    public Pattern getFpsLogPattern() {
+        return FPS_PATTERN;
+    }
+
+    @Override
+    public Pattern getErrorLogPattern() {
+        return ERROR_PATTERN;
+    }
+
+    // Reads the serverconfig.xml referenced by -configfile, or returns null if there is none
+    private Map<String, String> readServerConfig(GameServer server) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        params.put("commandLine", server.getCommandLine());
+        Path configPath = getConfigFileFromParams(params);
+        if (configPath == null) {
+            return null;
         }
-        
-        // Fallback if config not found or telnet disabled
-        throw new IOException("Telnet not configured or disabled");
+
+        // Resolve relative path if needed
+        if (!configPath.isAbsolute()) {
+            String serverPath = server.getServerPath();
+            if (serverPath.startsWith("\"") && serverPath.endsWith("\"")) {
+                serverPath = serverPath.substring(1, serverPath.length() - 1);
+            }
+            Path serverDir = Paths.get(serverPath).getParent();
+            configPath = serverDir.resolve(configPath);
+        }
+
+        return Files.exists(configPath) ? parseConfigFile(configPath) : null;
     }
 }
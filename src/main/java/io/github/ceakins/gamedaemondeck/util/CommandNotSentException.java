@@ -0,0 +1,16 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import java.io.IOException;
+
+// A console command failed before any of it was written, e.g. because the connection had already
+// closed. The server never saw it, so it is safe to send again on a new connection.
+public class CommandNotSentException extends IOException {
+
+    public CommandNotSentException(String message) {
+        super(message);
+    }
+
+    public CommandNotSentException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.BitSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Standard five field cron expression (minute hour day-of-month month day-of-week) supporting
+// '*', lists, ranges and steps. A plain "HH:mm" is accepted as shorthand for a daily time.
+public final class CronExpression {
+
+    private static final Pattern DAILY_TIME = Pattern.compile("(\\d{1,2}):(\\d{2})");
+    // Searching further than this without a match means the expression can never fire (e.g. Feb 30)
+    private static final int MAX_SEARCH_DAYS = 366 * 8;
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.daysOfMonth = parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+        this.daysOfWeek = parseField(fields[4], 0, 7);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0); // Both 0 and 7 mean Sunday
+        }
+        this.dayOfMonthRestricted = !fields[2].equals("*");
+        this.dayOfWeekRestricted = !fields[4].equals("*");
+    }
+
+    public static CronExpression parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Schedule expression is empty");
+        }
+        String trimmed = expression.trim();
+        Matcher daily = DAILY_TIME.matcher(trimmed);
+        if (daily.matches()) {
+            int hour = Integer.parseInt(daily.group(1));
+            int minute = Integer.parseInt(daily.group(2));
+            if (hour > 23 || minute > 59) {
+                throw new IllegalArgumentException("Invalid time of day: " + expression);
+            }
+            return new CronExpression(trimmed, new String[]{String.valueOf(minute), String.valueOf(hour), "*", "*", "*"});
+        }
+        String[] fields = trimmed.split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Expected 5 cron fields or HH:mm: " + expression);
+        }
+        return new CronExpression(trimmed, fields);
+    }
+
+    // Returns the first matching instant strictly after 'after', in the same zone. Local times
+    // skipped by a DST gap fire at the first instant after the gap (02:30 fires at 03:00 when the
+    // clocks jump from 02:00 to 03:00), once however many of them the gap swallows; local times
+    // repeated by a DST overlap fire once, at the earlier offset.
+    public ZonedDateTime next(ZonedDateTime after) {
+        LocalDateTime start = after.toLocalDateTime().truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDate date = start.toLocalDate();
+        for (int day = 0; day < MAX_SEARCH_DAYS; day++, date = date.plusDays(1)) {
+            if (!matchesDate(date)) {
+                continue;
+            }
+            boolean firstDay = date.equals(start.toLocalDate());
+            for (int hour = hours.nextSetBit(firstDay ? start.getHour() : 0); hour >= 0; hour = hours.nextSetBit(hour + 1)) {
+                boolean firstHour = firstDay && hour == start.getHour();
+                for (int minute = minutes.nextSetBit(firstHour ? start.getMinute() : 0); minute >= 0; minute = minutes.nextSetBit(minute + 1)) {
+                    ZonedDateTime candidate = atZone(LocalDateTime.of(date, LocalTime.of(hour, minute)), after.getZone());
+                    if (candidate.isAfter(after)) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        throw new IllegalStateException("Schedule never fires: " + expression);
+    }
+
+    // Unlike ZonedDateTime.ofLocal, which moves a time in a gap forward by the gap's length, this
+    // snaps it to the end of the gap
+    private static ZonedDateTime atZone(LocalDateTime local, ZoneId zone) {
+        ZoneOffsetTransition transition = zone.getRules().getTransition(local);
+        if (transition != null && transition.isGap()) {
+            return transition.getInstant().atZone(zone);
+        }
+        return ZonedDateTime.ofLocal(local, zone, null);
+    }
+
+    private boolean matchesDate(LocalDate date) {
+        if (!months.get(date.getMonthValue())) {
+            return false;
+        }
+        boolean domMatch = daysOfMonth.get(date.getDayOfMonth());
+        boolean dowMatch = daysOfWeek.get(date.getDayOfWeek().getValue() % 7);
+        // As in Vixie cron, when both day fields are restricted either one may match
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return domMatch || dowMatch;
+        }
+        return domMatch && dowMatch;
+    }
+
+    private static BitSet parseField(String field, int min, int max) {
+        BitSet bits = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, part);
+                range = part.substring(0, slash);
+            }
+            int from;
+            int to;
+            if (range.equals("*")) {
+                from = min;
+                to = max;
+            } else if (range.contains("-")) {
+                String[] bounds = range.split("-", 2);
+                from = parseNumber(bounds[0], min, max, part);
+                to = parseNumber(bounds[1], min, max, part);
+            } else {
+                from = parseNumber(range, min, max, part);
+                to = slash >= 0 ? max : from;
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("Invalid range in cron field: " + part);
+            }
+            for (int i = from; i <= to; i += step) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String value, int min, int max, String part) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number < min || number > max) {
+                throw new IllegalArgumentException("Value out of range in cron field: " + part);
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron field: " + part, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
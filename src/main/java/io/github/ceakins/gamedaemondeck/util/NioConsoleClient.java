@@ -0,0 +1,656 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Non-blocking telnet console connection driven by an NioEventLoop, so the consoles of any number
+// of servers share one thread. Requests queue per connection and run in order; each completes a
+// CompletableFuture when its response is done (end marker, idle gap, deadline or end of stream),
+// with the same rules as TelnetClientManager.readUntil and readResponse. Requests that fail before
+// any of their bytes were written fail with CommandNotSentException.
+public class NioConsoleClient implements NioEventLoop.Handler {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioConsoleClient.class);
+    private static final int DEFAULT_MAX_RESPONSE_BYTES = 1024 * 1024;
+    // Longer log lines are cut, so a line that never ends cannot grow memory
+    private static final int MAX_LINE_BYTES = 8192;
+    private static final byte IAC = (byte) 255;
+    private static final byte DONT = (byte) 254;
+    private static final byte DO = (byte) 253;
+    private static final byte WONT = (byte) 252;
+    private static final byte WILL = (byte) 251;
+    private static final byte SB = (byte) 250;
+    private static final byte SE = (byte) 240;
+
+    private final NioEventLoop loop;
+    private final Charset charset;
+    private final String name;
+    private final int maxResponseBytes;
+    // Everything below is only touched on the loop thread
+    private final Queue<Request> requests = new ArrayDeque<>();
+    private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+    private final TelnetDecoder decoder = new TelnetDecoder();
+    private SocketChannel channel;
+    private SelectionKey key;
+    private CompletableFuture<NioConsoleClient> connectFuture;
+    private NioEventLoop.Timer connectTimer;
+    private Request current;
+    // Bytes received while no request was waiting for them
+    private byte[] unsolicited = new byte[0];
+    private Consumer<String> lineListener;
+    private final byte[] line = new byte[MAX_LINE_BYTES];
+    private int lineLength;
+    private boolean lineCut;
+    private boolean closed;
+
+    private NioConsoleClient(NioEventLoop loop, Charset charset, String name, int maxResponseBytes) {
+        this.loop = loop;
+        this.charset = charset;
+        this.name = name;
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    public static CompletableFuture<NioConsoleClient> connect(NioEventLoop loop, String host, int port,
+                                                              Charset charset, Duration timeout) {
+        NioConsoleClient client = new NioConsoleClient(loop, charset, host + ":" + port, DEFAULT_MAX_RESPONSE_BYTES);
+        CompletableFuture<NioConsoleClient> connected = new CompletableFuture<>();
+        loop.execute(() -> client.open(new InetSocketAddress(host, port), timeout, connected));
+        return connected;
+    }
+
+    // Sends a command and collects its response. The response is complete once an end marker
+    // arrives, or the server goes quiet for idleGap after it started answering, or the stream
+    // ends; otherwise it completes with whatever arrived by the deadline.
+    public CompletableFuture<String> send(String command, Duration deadline, Duration idleGap, String... endMarkers) {
+        return submit(new Request(command, false, deadline, idleGap, false, endMarkers));
+    }
+
+    // Sends a line without waiting for a response, e.g. a password
+    public CompletableFuture<String> write(String line, boolean maskLog) {
+        return submit(new Request(line, maskLog, null, null, false));
+    }
+
+    // Reads until one of the terminators arrives, failing with SocketTimeoutException otherwise.
+    // Bytes that arrived before the call count, so prompts sent on connect are not missed.
+    public CompletableFuture<String> readUntil(Duration timeout, String... terminators) {
+        return submit(new Request(null, false, timeout, null, true, terminators));
+    }
+
+    // Like send, without sending anything first
+    public CompletableFuture<String> readResponse(Duration deadline, Duration idleGap, String... endMarkers) {
+        return submit(new Request(null, false, deadline, idleGap, false, endMarkers));
+    }
+
+    // Writes all commands at once and splits the responses at prompt boundaries: the response to
+    // each command ends with one of the prompts. Saves a round trip per command.
+    public List<CompletableFuture<String>> pipeline(List<String> commands, Duration deadline, String... prompts) {
+        if (prompts.length == 0) {
+            throw new IllegalArgumentException("Pipelined responses need a prompt to split on");
+        }
+        List<Request> batch = new ArrayList<>();
+        for (String command : commands) {
+            batch.add(new Request(command, false, deadline, null, false, prompts));
+        }
+        return submit(batch);
+    }
+
+    // Pipelines commands over a console without a prompt that echoes every command it runs. The
+    // response to a command starts at the line holding its echo and ends where the next command's
+    // echo line starts; the last one ends once the console goes quiet for idleGap.
+    public List<CompletableFuture<String>> pipelineByEcho(List<String> commands, Duration deadline, Duration idleGap,
+                                                         Function<String, String> echo) {
+        List<Request> batch = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            Request request;
+            if (i + 1 < commands.size()) {
+                request = new Request(commands.get(i), false, deadline, null, false, echo.apply(commands.get(i + 1)));
+                request.markerStartsNext = true;
+            } else {
+                request = new Request(commands.get(i), false, deadline, idleGap, false);
+            }
+            // Only look for the next echo once this command's own one has gone by
+            request.opening = new PromptMatcher(charset, echo.apply(commands.get(i)));
+            batch.add(request);
+        }
+        return submit(batch);
+    }
+
+    // Streams everything the console prints, line by line, to the listener on the event loop
+    // thread: the server log for consoles that echo it, plus command responses. Null stops it.
+    public void followLines(Consumer<String> listener) {
+        loop.execute(() -> {
+            lineListener = listener;
+            lineLength = 0;
+            lineCut = false;
+        });
+    }
+
+    public void close() {
+        loop.execute(() -> shutdown(new IOException("Console connection to " + name + " closed")));
+    }
+
+    // Waits for a console result on the calling thread, unwrapping the failure
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the console");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private CompletableFuture<String> submit(Request request) {
+        return submit(List.of(request)).get(0);
+    }
+
+    private List<CompletableFuture<String>> submit(List<Request> batch) {
+        if (batch.size() > 1) {
+            Batch shared = new Batch(batch);
+            batch.forEach(request -> request.batch = shared);
+        }
+        loop.execute(() -> {
+            if (closed) {
+                batch.forEach(request -> request.result.completeExceptionally(
+                        new CommandNotSentException("Console connection to " + name + " closed")));
+                return;
+            }
+            requests.addAll(batch);
+            if (current == null) {
+                next();
+            }
+        });
+        return batch.stream().map(request -> request.result).toList();
+    }
+
+    private void open(InetSocketAddress address, Duration timeout, CompletableFuture<NioConsoleClient> connected) {
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            boolean done = channel.connect(address);
+            key = loop.register(channel, done ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+            if (done) {
+                connected.complete(this);
+                return;
+            }
+            connectFuture = connected;
+            connectTimer = loop.schedule(timeout, () -> {
+                if (!connected.isDone()) {
+                    connected.completeExceptionally(new SocketTimeoutException("Connect to " + name + " timed out"));
+                    shutdown(new IOException("Console connection to " + name + " timed out"));
+                }
+            });
+        } catch (IOException e) {
+            shutdown(e);
+            connected.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public void ready(SelectionKey key) throws IOException {
+        try {
+            if (key.isConnectable()) {
+                channel.finishConnect();
+                connectTimer.cancel();
+                key.interestOps(SelectionKey.OP_READ);
+                logger.debug("Connected to console at {}", name);
+                connectFuture.complete(this);
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                receive();
+            }
+        } catch (IOException e) {
+            if (connectFuture != null) {
+                connectFuture.completeExceptionally(e);
+            }
+            shutdown(e);
+        }
+    }
+
+    // Starts the next queued request once the previous one has completed
+    private void next() {
+        while (current == null && !requests.isEmpty()) {
+            Request request = requests.poll();
+            if (request.result.isDone() && request.batch == null) {
+                continue; // Cancelled by the caller; pipelined responses must still be read to stay in step
+            }
+            current = request;
+            if (request.line == null && request.deadline == null) {
+                complete("");
+                return;
+            }
+            if (request.batch == null && request.line != null) {
+                dropUnsolicited();
+                logger.debug("Console TX {}: {}", name, request.maskLog ? "******" : request.line);
+                // Write-only requests complete once flushed, which may already start the next one
+                queueWrite(encodeLine(request.line));
+            } else if (request.batch != null && !request.batch.written) {
+                // The whole batch goes out at once; the responses are split as they come back
+                dropUnsolicited();
+                request.batch.written = true;
+                ByteArrayOutputStream lines = new ByteArrayOutputStream();
+                for (Request pipelined : request.batch.requests) {
+                    logger.debug("Console TX {} (pipelined): {}", name, pipelined.line);
+                    lines.writeBytes(encodeLine(pipelined.line));
+                }
+                queueWrite(lines.toByteArray());
+            }
+            if (current != request || request.deadline == null) {
+                return;
+            }
+            request.deadlineTimer = loop.schedule(request.deadline, this::deadlineReached);
+            if (unsolicited.length > 0) {
+                byte[] pending = unsolicited;
+                unsolicited = new byte[0];
+                accept(pending, pending.length);
+            }
+        }
+    }
+
+    private void dropUnsolicited() {
+        if (unsolicited.length > 0) {
+            // Not a response to this command: console chatter that arrived in between
+            logger.debug("Discarding {} unsolicited bytes from {}", unsolicited.length, name);
+            unsolicited = new byte[0];
+        }
+    }
+
+    private void receive() throws IOException {
+        readBuffer.clear();
+        int read = channel.read(readBuffer);
+        if (read < 0) {
+            logger.debug("Console at {} closed the connection", name);
+            if (current != null && current.deadline != null) {
+                complete(current.text());
+            }
+            shutdown(new IOException("Console connection to " + name + " closed by the server"));
+            return;
+        }
+        byte[] data = decoder.decode(readBuffer.array(), read);
+        if (lineListener != null) {
+            splitLines(data);
+        }
+        if (data.length > 0) {
+            accept(data, data.length);
+        }
+    }
+
+    private void splitLines(byte[] data) {
+        for (byte b : data) {
+            if (b == '\n') {
+                int end = lineLength > 0 && line[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+                if (!lineCut) {
+                    deliverLine(end);
+                }
+                // Otherwise the start of this line was already delivered
+                lineLength = 0;
+                lineCut = false;
+            } else if (lineLength < line.length) {
+                line[lineLength++] = b;
+            } else if (!lineCut) {
+                // Deliver what fits and drop the rest of the line
+                lineCut = true;
+                deliverLine(lineLength);
+            }
+        }
+    }
+
+    private void deliverLine(int length) {
+        try {
+            lineListener.accept(new String(line, 0, length, charset));
+        } catch (RuntimeException e) {
+            logger.warn("Console line listener for {} failed: {}", name, e.toString());
+        }
+    }
+
+    // Feeds received bytes to the active request; whatever it does not consume is kept
+    private void accept(byte[] data, int length) {
+        int offset = 0;
+        while (offset < length) {
+            Request request = current;
+            if (request == null || request.deadline == null) {
+                if (lineListener == null) {
+                    keepUnsolicited(data, offset, length - offset);
+                }
+                // Otherwise it has gone to the listener already and need not be kept
+                return;
+            }
+            int end = offset;
+            int matched = -1;
+            while (end < length && request.opening != null) {
+                if (request.opening.feed(data[end++]) >= 0) {
+                    request.opening = null;
+                }
+            }
+            if (request.opening == null && request.matcher == null) {
+                end = length;
+            } else if (request.opening == null) {
+                while (end < length && matched < 0) {
+                    matched = request.matcher.feed(data[end++]);
+                }
+            }
+            if (!request.append(data, offset, end - offset, maxResponseBytes)) {
+                fail(new IOException("Console response from " + name + " exceeds " + maxResponseBytes + " bytes"));
+                return;
+            }
+            offset = end;
+            if (matched >= 0 && request.markerStartsNext) {
+                // The line holding the marker opens the next response
+                byte[] carried = request.cutLine(request.matcher.length(matched));
+                complete(request.text());
+                carry(carried);
+            } else if (matched >= 0) {
+                complete(request.text());
+            } else {
+                restartIdleTimer(request);
+            }
+        }
+    }
+
+    // Hands an echo line to the next pipelined response without matching it again, since the
+    // next command may be the same one
+    private void carry(byte[] line) {
+        Request request = current;
+        if (request == null || request.batch == null) {
+            keepUnsolicited(line, 0, line.length);
+        } else if (!request.append(line, 0, line.length, maxResponseBytes)) {
+            fail(new IOException("Console response from " + name + " exceeds " + maxResponseBytes + " bytes"));
+        } else {
+            request.opening = null;
+            restartIdleTimer(request);
+        }
+    }
+
+    private void restartIdleTimer(Request request) {
+        if (request.idleGap == null) {
+            return;
+        }
+        if (request.idleTimer != null) {
+            request.idleTimer.cancel();
+        }
+        request.idleTimer = loop.schedule(request.idleGap, () -> {
+            if (current == request) {
+                complete(request.text()); // Quiet for the idle gap: the response is complete
+            }
+        });
+    }
+
+    private void keepUnsolicited(byte[] data, int offset, int length) {
+        int keep = Math.min(length, maxResponseBytes);
+        int retained = Math.min(unsolicited.length, maxResponseBytes - keep);
+        byte[] merged = Arrays.copyOfRange(unsolicited, unsolicited.length - retained, unsolicited.length + keep);
+        System.arraycopy(data, offset + length - keep, merged, retained, keep);
+        unsolicited = merged;
+    }
+
+    private void deadlineReached() {
+        Request request = current;
+        if (request == null) {
+            return;
+        }
+        if (request.failOnTimeout) {
+            fail(new SocketTimeoutException("No prompt received from " + name + " in time"));
+        } else {
+            complete(request.text());
+        }
+    }
+
+    private void complete(String response) {
+        Request request = current;
+        current = null;
+        request.cancelTimers();
+        if (logger.isDebugEnabled() && request.deadline != null) {
+            logger.debug("Console RX {}: {}", name, response.trim());
+        }
+        request.result.complete(response);
+        next();
+    }
+
+    private void fail(IOException error) {
+        Request request = current;
+        current = null;
+        request.cancelTimers();
+        request.result.completeExceptionally(error);
+        next();
+    }
+
+    private void queueWrite(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        outbound.add(buffer);
+        try {
+            flush();
+        } catch (IOException e) {
+            // Typically a connection the server dropped while it sat idle
+            shutdown(buffer.position() == 0 ? notSent(e) : e);
+        }
+    }
+
+    private void flush() throws IOException {
+        while (!outbound.isEmpty()) {
+            ByteBuffer buffer = outbound.peek();
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            outbound.poll();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        if (current != null && current.deadline == null && current.line != null) {
+            complete("");
+        }
+    }
+
+    private byte[] encodeLine(String line) {
+        byte[] text = (line + "\r\n").getBytes(charset);
+        int escapes = 0;
+        for (byte b : text) {
+            if (b == IAC) {
+                escapes++;
+            }
+        }
+        if (escapes == 0) {
+            return text;
+        }
+        byte[] escaped = new byte[text.length + escapes];
+        int i = 0;
+        for (byte b : text) {
+            escaped[i++] = b;
+            if (b == IAC) {
+                escaped[i++] = IAC;
+            }
+        }
+        return escaped;
+    }
+
+    private void shutdown(IOException cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignore close errors
+            }
+        }
+        if (current != null) {
+            fail(cause);
+        }
+        Request request;
+        while ((request = requests.poll()) != null) {
+            // The rest of a pipelined batch went out with its first command
+            boolean written = request.batch != null && request.batch.written;
+            request.result.completeExceptionally(written ? cause : notSent(cause));
+        }
+    }
+
+    private static CommandNotSentException notSent(IOException cause) {
+        return cause instanceof CommandNotSentException notSent ? notSent : new CommandNotSentException(cause.getMessage(), cause);
+    }
+
+    private final class Request {
+        final String line;
+        final boolean maskLog;
+        // Null for write-only requests
+        final Duration deadline;
+        final Duration idleGap;
+        final boolean failOnTimeout;
+        final PromptMatcher matcher;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        byte[] response = new byte[256];
+        int length;
+        // Set for requests pipelined with others
+        Batch batch;
+        // Must match before the end markers are looked for
+        PromptMatcher opening;
+        boolean markerStartsNext;
+        NioEventLoop.Timer deadlineTimer;
+        NioEventLoop.Timer idleTimer;
+
+        Request(String line, boolean maskLog, Duration deadline, Duration idleGap, boolean failOnTimeout, String... endMarkers) {
+            this.line = line;
+            this.maskLog = maskLog;
+            this.deadline = deadline;
+            this.idleGap = idleGap;
+            this.failOnTimeout = failOnTimeout;
+            this.matcher = endMarkers.length > 0 ? new PromptMatcher(charset, endMarkers) : null;
+        }
+
+        // Returns false once the response would grow past the limit
+        boolean append(byte[] data, int offset, int count, int limit) {
+            if (length + count > limit) {
+                return false;
+            }
+            if (length + count > response.length) {
+                response = Arrays.copyOf(response, Math.min(limit, Math.max(length + count, response.length * 2)));
+            }
+            System.arraycopy(data, offset, response, length, count);
+            length += count;
+            return true;
+        }
+
+        // Removes and returns the line that ends with the last markerLength bytes
+        byte[] cutLine(int markerLength) {
+            int start = length - markerLength;
+            while (start > 0 && response[start - 1] != '\n') {
+                start--;
+            }
+            byte[] line = Arrays.copyOfRange(response, start, length);
+            length = start;
+            return line;
+        }
+
+        String text() {
+            return new String(response, 0, length, charset);
+        }
+
+        void cancelTimers() {
+            if (deadlineTimer != null) {
+                deadlineTimer.cancel();
+            }
+            if (idleTimer != null) {
+                idleTimer.cancel();
+            }
+        }
+    }
+
+    private static final class Batch {
+        final List<Request> requests;
+        boolean written;
+
+        Batch(List<Request> requests) {
+            this.requests = requests;
+        }
+    }
+
+    // Strips telnet negotiation from the stream and refuses every option the server offers or asks
+    // for, which leaves a plain line-based session
+    private final class TelnetDecoder {
+        private static final int DATA = 0;
+        private static final int COMMAND = 1;
+        private static final int OPTION = 2;
+        private static final int SUBNEGOTIATION = 3;
+        private static final int SUBNEGOTIATION_COMMAND = 4;
+
+        private int state = DATA;
+        private byte verb;
+
+        byte[] decode(byte[] input, int length) {
+            byte[] data = new byte[length];
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                byte b = input[i];
+                switch (state) {
+                    case DATA -> {
+                        if (b == IAC) {
+                            state = COMMAND;
+                        } else {
+                            data[count++] = b;
+                        }
+                    }
+                    case COMMAND -> {
+                        if (b == IAC) {
+                            data[count++] = b; // Escaped 0xFF
+                            state = DATA;
+                        } else if (b == WILL || b == WONT || b == DO || b == DONT) {
+                            verb = b;
+                            state = OPTION;
+                        } else if (b == SB) {
+                            state = SUBNEGOTIATION;
+                        } else {
+                            state = DATA; // Other commands carry no option
+                        }
+                    }
+                    case OPTION -> {
+                        if (verb == WILL) {
+                            queueWrite(new byte[]{IAC, DONT, b});
+                        } else if (verb == DO) {
+                            queueWrite(new byte[]{IAC, WONT, b});
+                        }
+                        state = DATA;
+                    }
+                    case SUBNEGOTIATION -> {
+                        if (b == IAC) {
+                            state = SUBNEGOTIATION_COMMAND;
+                        }
+                    }
+                    default -> state = b == SE ? DATA : SUBNEGOTIATION;
+                }
+            }
+            return count == length ? data : Arrays.copyOf(data, count);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// A single thread that owns a Selector and drives any number of non-blocking channels. Channel
+// handlers, timers and submitted tasks all run on that thread, so the state they touch needs no
+// locking; other threads hand work over with execute().
+public class NioEventLoop implements Closeable {
+
+    public interface Handler {
+        // Called on the loop thread when the key's channel is ready for one of its interest ops
+        void ready(SelectionKey key) throws IOException;
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(NioEventLoop.class);
+
+    private final Selector selector;
+    private final Thread thread;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    // Only touched on the loop thread
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>();
+    private long timerSequence;
+    private volatile boolean closed;
+
+    public NioEventLoop(String name) throws IOException {
+        this.selector = Selector.open();
+        this.thread = Thread.ofPlatform().name(name).daemon().unstarted(this::run);
+        thread.start();
+    }
+
+    // The loop shared by every console connection of the daemon, started on first use
+    public static NioEventLoop shared() {
+        return Shared.LOOP;
+    }
+
+    public boolean inLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    public void execute(Runnable task) {
+        if (closed) {
+            throw new RejectedExecutionException("Event loop is closed");
+        }
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    // Runs the task on the loop after the delay. Must be called on the loop thread.
+    public Timer schedule(Duration delay, Runnable task) {
+        checkInLoop();
+        Timer timer = new Timer(System.nanoTime() + delay.toNanos(), timerSequence++, task);
+        timers.add(timer);
+        return timer;
+    }
+
+    // Must be called on the loop thread
+    public SelectionKey register(SelectableChannel channel, int ops, Handler handler) throws IOException {
+        checkInLoop();
+        return channel.register(selector, ops, handler);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                long wait = runTimers();
+                if (tasks.isEmpty()) {
+                    selector.select(wait);
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    dispatch(key);
+                }
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    runSafely(task);
+                }
+            } catch (ClosedSelectorException e) {
+                break;
+            } catch (IOException e) {
+                logger.error("Event loop select failed", e);
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Ignore close errors
+        }
+    }
+
+    // Runs due timers and returns how long select may block until the next one, 0 for no limit
+    private long runTimers() {
+        long now = System.nanoTime();
+        Timer next;
+        while ((next = timers.peek()) != null) {
+            if (next.cancelled) {
+                timers.poll();
+            } else if (next.dueNanos - now <= 0) {
+                timers.poll();
+                runSafely(next.task);
+                now = System.nanoTime();
+            } else {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(next.dueNanos - now));
+            }
+        }
+        return 0;
+    }
+
+    private void dispatch(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        try {
+            ((Handler) key.attachment()).ready(key);
+        } catch (Exception e) {
+            logger.warn("Channel handler failed, closing channel: {}", e.toString());
+            closeQuietly(key);
+        }
+    }
+
+    private void runSafely(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            logger.error("Event loop task failed", e);
+        }
+    }
+
+    private void checkInLoop() {
+        if (!inLoop()) {
+            throw new IllegalStateException("Must be called on the event loop thread");
+        }
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            // Ignore close errors
+        }
+    }
+
+    public static final class Timer implements Comparable<Timer> {
+        private final long dueNanos;
+        private final long sequence;
+        private final Runnable task;
+        private boolean cancelled;
+
+        private Timer(long dueNanos, long sequence, Runnable task) {
+            this.dueNanos = dueNanos;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        // Must be called on the loop thread
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public int compareTo(Timer other) {
+            int byDue = Long.compare(dueNanos - other.dueNanos, 0);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class Shared {
+        static final NioEventLoop LOOP = create();
+
+        private static NioEventLoop create() {
+            try {
+                return new NioEventLoop("console-io");
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open the console event loop", e);
+            }
+        }
+    }
+}
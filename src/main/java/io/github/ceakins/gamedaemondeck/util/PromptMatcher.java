@@ -0,0 +1,86 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+// Incremental matcher for one or more terminators (prompts, end markers) in a byte stream. Each
+// terminator runs its own KMP automaton, so every byte is looked at once per terminator however
+// long the response grows, and nothing is decoded or copied while matching.
+public final class PromptMatcher {
+
+    private final byte[][] patterns;
+    private final int[][] failures;
+    private final int[] states;
+
+    public PromptMatcher(Charset charset, String... terminators) {
+        this(encode(charset, terminators));
+    }
+
+    public PromptMatcher(byte[]... patterns) {
+        if (patterns.length == 0) {
+            throw new IllegalArgumentException("At least one terminator is required");
+        }
+        this.patterns = patterns;
+        this.failures = new int[patterns.length][];
+        this.states = new int[patterns.length];
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i].length == 0) {
+                throw new IllegalArgumentException("Terminators must not be empty");
+            }
+            failures[i] = failureTable(patterns[i]);
+        }
+    }
+
+    // Feeds the next byte; returns the index of the terminator that ends with it, or -1. After a
+    // match the matcher starts over, so terminators never overlap two responses.
+    public int feed(byte b) {
+        for (int i = 0; i < patterns.length; i++) {
+            byte[] pattern = patterns[i];
+            int state = states[i];
+            while (state > 0 && pattern[state] != b) {
+                state = failures[i][state - 1];
+            }
+            if (pattern[state] == b) {
+                state++;
+            }
+            if (state == pattern.length) {
+                reset();
+                return i;
+            }
+            states[i] = state;
+        }
+        return -1;
+    }
+
+    public void reset() {
+        Arrays.fill(states, 0);
+    }
+
+    // Length in bytes of the given terminator
+    public int length(int index) {
+        return patterns[index].length;
+    }
+
+    private static int[] failureTable(byte[] pattern) {
+        int[] failure = new int[pattern.length];
+        int k = 0;
+        for (int i = 1; i < pattern.length; i++) {
+            while (k > 0 && pattern[i] != pattern[k]) {
+                k = failure[k - 1];
+            }
+            if (pattern[i] == pattern[k]) {
+                k++;
+            }
+            failure[i] = k;
+        }
+        return failure;
+    }
+
+    private static byte[][] encode(Charset charset, String... terminators) {
+        byte[][] patterns = new byte[terminators.length][];
+        for (int i = 0; i < terminators.length; i++) {
+            patterns[i] = terminators[i].getBytes(charset);
+        }
+        return patterns;
+    }
+}
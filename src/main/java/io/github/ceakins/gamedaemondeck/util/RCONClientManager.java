@@ -1,48 +1,69 @@
 package io.github.ceakins.gamedaemondeck.util;
 
-import org.glavo.rcon.AuthenticationException;
-import org.glavo.rcon.Rcon;
-
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
+// Blocking RCON access for one server. The connection itself lives in the shared RconPool, so
+// managers for the same server share it and it is reopened whenever it has dropped. Each connected
+// manager retains the pooled connection, so disconnecting one leaves the others working.
 public class RCONClientManager {
 
-    private Rcon rcon;
+    private static final Duration DEFAULT_COMMAND_TIMEOUT = Duration.ofSeconds(10);
+
+    private final RconPool pool;
     private final String host;
     private final int port;
     private final String password;
-    private final Rcon rconInstance; // For testing
+    private volatile boolean connected;
 
     public RCONClientManager(String host, int port, String password) {
-        this(host, port, password, null); // Default to null for non-test usage
+        this(host, port, password, RconPool.shared());
     }
 
-    // Constructor for testing purposes
-    RCONClientManager(String host, int port, String password, Rcon rconInstance) {
+    RCONClientManager(String host, int port, String password, RconPool pool) {
         this.host = host;
         this.port = port;
         this.password = password;
-        this.rconInstance = rconInstance;
+        this.pool = pool;
     }
 
-    public void connect() throws IOException, AuthenticationException {
-        if (rconInstance != null) {
-            rcon = rconInstance;
-        } else {
-            rcon = new Rcon(host, port, password);
+    // Logs in, failing with an IOException if the server rejects the password
+    public synchronized void connect() throws IOException {
+        await(pool.connect(host, port, password));
+        if (!connected) {
+            pool.retain(host, port, password);
+            connected = true;
         }
     }
 
-    public void disconnect() throws IOException {
-        if (rcon != null) {
-            rcon.close();
+    public synchronized void disconnect() throws IOException {
+        if (connected) {
+            connected = false;
+            pool.release(host, port, password);
         }
     }
 
     public String sendCommand(String command) throws IOException {
-        if (rcon == null) {
+        if (!connected) {
             throw new IOException("Not connected to server.");
         }
-        return rcon.command(command);
+        return await(pool.send(host, port, password, command, DEFAULT_COMMAND_TIMEOUT));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for RCON");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
     }
 }
@@ -0,0 +1,301 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+// Source RCON over a non-blocking socket on an NioEventLoop. Commands from any number of callers
+// share one authenticated connection: each gets its own request ID and the replies are routed back
+// by ID. Every command is followed by an empty marker packet, which the server answers only after
+// the whole (possibly multi-packet) response, so long responses are reassembled reliably.
+public class RconClient implements NioEventLoop.Handler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RconClient.class);
+    static final int SERVERDATA_AUTH = 3;
+    static final int SERVERDATA_AUTH_RESPONSE = 2;
+    static final int SERVERDATA_EXECCOMMAND = 2;
+    static final int SERVERDATA_RESPONSE_VALUE = 0;
+    // Size field covers ID, type, body and the two terminating nulls
+    private static final int HEADER_BYTES = 8;
+    private static final int MIN_PACKET_SIZE = HEADER_BYTES + 2;
+    // Servers send at most 4 KB per packet; anything far beyond that is a broken stream
+    private static final int MAX_PACKET_SIZE = 64 * 1024;
+    private static final int MAX_RESPONSE_BYTES = 1024 * 1024;
+
+    private final NioEventLoop loop;
+    private final String name;
+    // Everything below is only touched on the loop thread
+    private final Map<Integer, Pending> pending = new HashMap<>();
+    private final Map<Integer, Pending> markers = new HashMap<>();
+    private final Queue<ByteBuffer> outbound = new ArrayDeque<>();
+    private ByteBuffer inbound = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+    private SocketChannel channel;
+    private SelectionKey key;
+    private CompletableFuture<RconClient> authenticated;
+    private int authId;
+    private int nextId = 1;
+    private NioEventLoop.Timer connectTimer;
+    private volatile boolean closed;
+
+    private RconClient(NioEventLoop loop, String name) {
+        this.loop = loop;
+        this.name = name;
+    }
+
+    // Connects and logs in; completes once the server has accepted the password
+    public static CompletableFuture<RconClient> connect(NioEventLoop loop, String host, int port, String password, Duration timeout) {
+        RconClient client = new RconClient(loop, host + ":" + port);
+        CompletableFuture<RconClient> result = new CompletableFuture<>();
+        loop.execute(() -> client.open(new InetSocketAddress(host, port), password, timeout, result));
+        return result;
+    }
+
+    public CompletableFuture<String> send(String command, Duration timeout) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        loop.execute(() -> {
+            if (closed) {
+                result.completeExceptionally(new IOException("RCON connection to " + name + " closed"));
+                return;
+            }
+            Pending request = new Pending(nextId(), nextId(), result);
+            pending.put(request.id, request);
+            markers.put(request.markerId, request);
+            request.timer = loop.schedule(timeout, () -> {
+                if (pending.remove(request.id) != null) {
+                    // Late replies to this ID are dropped
+                    markers.remove(request.markerId);
+                    result.completeExceptionally(new SocketTimeoutException("RCON command to " + name + " timed out"));
+                }
+            });
+            logger.debug("RCON TX {} #{}: {}", name, request.id, command);
+            queueWrite(packet(request.id, SERVERDATA_EXECCOMMAND, command));
+            queueWrite(packet(request.markerId, SERVERDATA_RESPONSE_VALUE, ""));
+        });
+        return result;
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    public void close() {
+        loop.execute(() -> shutdown(new IOException("RCON connection to " + name + " closed")));
+    }
+
+    private void open(InetSocketAddress address, String password, Duration timeout, CompletableFuture<RconClient> result) {
+        authenticated = result;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            boolean connected = channel.connect(address);
+            key = loop.register(channel, connected ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+            connectTimer = loop.schedule(timeout, () -> {
+                if (!result.isDone()) {
+                    shutdown(new SocketTimeoutException("RCON login to " + name + " timed out"));
+                }
+            });
+            authId = nextId();
+            // Queued now, sent as soon as the socket is connected
+            outbound.add(packet(authId, SERVERDATA_AUTH, password));
+            if (connected) {
+                flush();
+            }
+        } catch (IOException e) {
+            shutdown(e);
+        }
+    }
+
+    @Override
+    public void ready(SelectionKey key) {
+        try {
+            if (key.isConnectable()) {
+                channel.finishConnect();
+                key.interestOps(SelectionKey.OP_READ);
+                flush();
+            }
+            if (key.isValid() && key.isWritable()) {
+                flush();
+            }
+            if (key.isValid() && key.isReadable()) {
+                receive();
+            }
+        } catch (IOException e) {
+            shutdown(e);
+        }
+    }
+
+    private void receive() throws IOException {
+        int read = channel.read(inbound);
+        if (read < 0) {
+            shutdown(new IOException("RCON connection to " + name + " closed by the server"));
+            return;
+        }
+        inbound.flip();
+        while (inbound.remaining() >= 4) {
+            int size = inbound.getInt(inbound.position());
+            if (size < MIN_PACKET_SIZE || size > MAX_PACKET_SIZE) {
+                throw new IOException("Invalid RCON packet size " + size + " from " + name);
+            }
+            if (inbound.remaining() < 4 + size) {
+                if (inbound.capacity() < 4 + size) {
+                    // Grow to fit the packet that is still arriving
+                    ByteBuffer larger = ByteBuffer.allocate(4 + size).order(ByteOrder.LITTLE_ENDIAN);
+                    larger.put(inbound);
+                    larger.flip();
+                    inbound = larger;
+                }
+                break;
+            }
+            inbound.getInt();
+            int id = inbound.getInt();
+            int type = inbound.getInt();
+            byte[] body = new byte[size - MIN_PACKET_SIZE];
+            inbound.get(body);
+            inbound.position(inbound.position() + 2);
+            onPacket(id, type, body);
+            if (closed) {
+                return;
+            }
+        }
+        inbound.compact();
+    }
+
+    private void onPacket(int id, int type, byte[] body) throws IOException {
+        if (!authenticated.isDone()) {
+            if (type != SERVERDATA_AUTH_RESPONSE) {
+                return; // Servers send an empty response value ahead of the auth result
+            }
+            if (id == -1 || id != authId) {
+                throw new IOException("RCON authentication to " + name + " failed");
+            }
+            connectTimer.cancel();
+            logger.debug("Logged in to RCON at {}", name);
+            authenticated.complete(this);
+            return;
+        }
+        Pending request = pending.get(id);
+        if (request != null) {
+            if (request.response.size() + body.length > MAX_RESPONSE_BYTES) {
+                pending.remove(id);
+                markers.remove(request.markerId);
+                request.timer.cancel();
+                request.result.completeExceptionally(new IOException("RCON response from " + name + " exceeds " + MAX_RESPONSE_BYTES + " bytes"));
+                return;
+            }
+            request.response.writeBytes(body);
+            return;
+        }
+        request = markers.remove(id);
+        if (request != null) {
+            // Everything for the command has arrived
+            pending.remove(request.id);
+            request.timer.cancel();
+            String response = request.response.toString(StandardCharsets.UTF_8);
+            logger.debug("RCON RX {} #{}: {}", name, request.id, response.trim());
+            request.result.complete(response);
+        }
+    }
+
+    private int nextId() {
+        // Positive IDs only; -1 means a failed login
+        int id = nextId;
+        nextId = nextId == Integer.MAX_VALUE ? 1 : nextId + 1;
+        return id;
+    }
+
+    private void queueWrite(ByteBuffer packet) {
+        outbound.add(packet);
+        try {
+            flush();
+        } catch (IOException e) {
+            shutdown(e);
+        }
+    }
+
+    private void flush() throws IOException {
+        if (!channel.isConnected()) {
+            return;
+        }
+        while (!outbound.isEmpty()) {
+            ByteBuffer buffer = outbound.peek();
+            channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                return;
+            }
+            outbound.poll();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+    }
+
+    static ByteBuffer packet(int id, int type, String body) {
+        byte[] text = body.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer packet = ByteBuffer.allocate(4 + MIN_PACKET_SIZE + text.length).order(ByteOrder.LITTLE_ENDIAN);
+        packet.putInt(MIN_PACKET_SIZE + text.length);
+        packet.putInt(id);
+        packet.putInt(type);
+        packet.put(text);
+        packet.put((byte) 0);
+        packet.put((byte) 0);
+        packet.flip();
+        return packet;
+    }
+
+    private void shutdown(IOException cause) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (key != null) {
+            key.cancel();
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignore close errors
+            }
+        }
+        if (connectTimer != null) {
+            connectTimer.cancel();
+        }
+        if (authenticated != null) {
+            authenticated.completeExceptionally(cause);
+        }
+        for (Pending request : pending.values()) {
+            request.timer.cancel();
+            request.result.completeExceptionally(cause);
+        }
+        pending.clear();
+        markers.clear();
+    }
+
+    private static final class Pending {
+        final int id;
+        final int markerId;
+        final CompletableFuture<String> result;
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        NioEventLoop.Timer timer;
+
+        Pending(int id, int markerId, CompletableFuture<String> result) {
+            this.id = id;
+            this.markerId = markerId;
+            this.result = result;
+        }
+    }
+}
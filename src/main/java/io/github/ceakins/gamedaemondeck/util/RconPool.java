@@ -0,0 +1,84 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// One authenticated RCON connection per host, port and password, shared by every caller. A
+// connection that drops or fails to log in is replaced on the next command, so callers never
+// handle reconnects themselves; commands in flight when it drops fail and are not resent. Callers
+// that hold a connection open retain it and release it when done; it closes with the last release.
+public class RconPool {
+
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+    private final NioEventLoop loop;
+    private final Duration connectTimeout;
+    private final Map<Endpoint, CompletableFuture<RconClient>> connections = new HashMap<>();
+    private final Map<Endpoint, Integer> users = new HashMap<>();
+
+    public RconPool(NioEventLoop loop) {
+        this(loop, DEFAULT_CONNECT_TIMEOUT);
+    }
+
+    public RconPool(NioEventLoop loop, Duration connectTimeout) {
+        this.loop = loop;
+        this.connectTimeout = connectTimeout;
+    }
+
+    // The pool shared by the daemon, on the shared console event loop
+    public static RconPool shared() {
+        return Shared.POOL;
+    }
+
+    // Completes once the pooled connection is logged in
+    public CompletableFuture<Void> connect(String host, int port, String password) {
+        return connection(new Endpoint(host, port, password)).thenAccept(client -> { });
+    }
+
+    public CompletableFuture<String> send(String host, int port, String password, String command, Duration timeout) {
+        return connection(new Endpoint(host, port, password))
+                .thenCompose(client -> client.send(command, timeout));
+    }
+
+    public synchronized void retain(String host, int port, String password) {
+        users.merge(new Endpoint(host, port, password), 1, Integer::sum);
+    }
+
+    // Closes the connection once no caller retains it any more
+    public synchronized void release(String host, int port, String password) {
+        Endpoint endpoint = new Endpoint(host, port, password);
+        Integer remaining = users.computeIfPresent(endpoint, (key, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            CompletableFuture<RconClient> connection = connections.remove(endpoint);
+            if (connection != null) {
+                connection.thenAccept(RconClient::close);
+            }
+        }
+    }
+
+    public synchronized void closeAll() {
+        connections.values().forEach(connection -> connection.thenAccept(RconClient::close));
+        connections.clear();
+        users.clear();
+    }
+
+    // Callers asking while a login is under way share it
+    private synchronized CompletableFuture<RconClient> connection(Endpoint endpoint) {
+        CompletableFuture<RconClient> connection = connections.get(endpoint);
+        if (connection == null || connection.isCompletedExceptionally()
+                || (connection.isDone() && !connection.join().isOpen())) {
+            connection = RconClient.connect(loop, endpoint.host, endpoint.port, endpoint.password, connectTimeout);
+            connections.put(endpoint, connection);
+        }
+        return connection;
+    }
+
+    private record Endpoint(String host, int port, String password) {
+    }
+
+    private static final class Shared {
+        static final RconPool POOL = new RconPool(NioEventLoop.shared());
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Follows SteamCMD's output as it runs: reports download progress and picks out the lines that
+// tell whether the update worked. SteamCMD does not always exit non-zero when an update fails, so
+// the outcome is read from these lines as well as from the exit code.
+public class SteamCmdOutput {
+
+    public interface Listener {
+        void line(String line);
+
+        void progress(String state, double percent);
+    }
+
+    // Update state (0x61) downloading, progress: 45.12 (1234 / 5678)
+    private static final Pattern PROGRESS = Pattern.compile("Update state \\((0x[0-9a-fA-F]+)\\) ([^,]+), progress: ([0-9]+(?:\\.[0-9]+)?)");
+    // Error! App '294420' state is 0x202 after update job.
+    private static final Pattern APP_STATE_ERROR = Pattern.compile("Error! App '(\\d+)' state is (0x[0-9a-fA-F]+)");
+    // ERROR! Failed to install app '294420' (No subscription)
+    private static final Pattern INSTALL_ERROR = Pattern.compile("ERROR! (.+)");
+    // Logging in user 'anonymous' to Steam Public...FAILED (No Connection)
+    // FAILED login with result code Invalid Password
+    private static final Pattern LOGIN_FAILED = Pattern.compile("(?:\\.\\.\\.|^)FAILED (?:login with result code (.+)|\\(([^)]*)\\))");
+    // Success! App '294420' fully installed. / Success! App '294420' already up to date.
+    private static final Pattern SUCCESS = Pattern.compile("Success! App '(\\d+)'");
+    private static final Map<String, String> APP_STATES = Map.of("0x202", "not enough disk space");
+
+    private final Listener listener;
+    private String error;
+    private boolean succeeded;
+
+    public SteamCmdOutput(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Called from the stdout and stderr readers alike
+    public synchronized void accept(String line) {
+        if (listener != null) {
+            listener.line(line);
+        }
+        Matcher matcher = PROGRESS.matcher(line);
+        if (matcher.find()) {
+            if (listener != null) {
+                listener.progress(matcher.group(2).trim(), Double.parseDouble(matcher.group(3)));
+            }
+            return;
+        }
+        if (SUCCESS.matcher(line).find()) {
+            succeeded = true;
+            return;
+        }
+        if (error != null) {
+            return; // The first error is the one worth reporting
+        }
+        matcher = APP_STATE_ERROR.matcher(line);
+        if (matcher.find()) {
+            String state = matcher.group(2).toLowerCase();
+            String reason = APP_STATES.get(state);
+            error = "App " + matcher.group(1) + " state is " + state + (reason != null ? " (" + reason + ")" : "") + " after update";
+            return;
+        }
+        matcher = INSTALL_ERROR.matcher(line);
+        if (matcher.find()) {
+            error = matcher.group(1).trim();
+            return;
+        }
+        matcher = LOGIN_FAILED.matcher(line);
+        if (matcher.find()) {
+            String reason = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            error = "Steam login failed: " + reason.trim();
+        }
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public synchronized boolean isSucceeded() {
+        return succeeded;
+    }
+}
@@ -2,12 +2,26 @@ package io.github.ceakins.gamedaemondeck.util;
 
 import io.github.ceakins.gamedaemondeck.db.ConfigStore;
 import io.github.ceakins.gamedaemondeck.db.Configuration;
+import io.github.ceakins.gamedaemondeck.db.JournalEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SteamManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(SteamManager.class);
+    // Longer lines are cut; the rest of the line is skipped
+    static final int MAX_LINE_LENGTH = 4096;
+
     private final ConfigStore configStore;
     private final ProcessBuilder processBuilder;
 
@@ -21,6 +35,18 @@ public class SteamManager {
     }
 
     public void installOrUpdateGame(String appId, String installDir) throws IOException, InterruptedException {
+        installOrUpdateGame(null, appId, installDir, null);
+    }
+
+    public void installOrUpdateGame(String appId, String installDir, SteamCmdOutput.Listener listener) throws IOException, InterruptedException {
+        installOrUpdateGame(null, appId, installDir, listener);
+    }
+
+    // Streams SteamCMD's output to the listener line by line as it runs. Throws an IOException if
+    // SteamCMD exits non-zero or its output reports a failure. The outcome is journalled under
+    // serverName, which may be null for an update not tied to a server.
+    public void installOrUpdateGame(String serverName, String appId, String installDir, SteamCmdOutput.Listener listener)
+            throws IOException, InterruptedException {
         Configuration config = configStore.getConfiguration()
                 .orElseThrow(() -> new IllegalStateException("Application is not configured."));
 
@@ -33,23 +59,58 @@ public class SteamManager {
         );
         processBuilder.directory(Path.of(installDir).toFile());
 
+        long updateStart = System.currentTimeMillis();
         Process process = processBuilder.start();
-        try (var executor = java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor()) {
-            executor.submit(() -> {
-                try {
-                    new String(process.getInputStream().readAllBytes());
-                } catch (IOException e) {
-                    // Handle exception
-                }
-            });
-            executor.submit(() -> {
-                try {
-                    new String(process.getErrorStream().readAllBytes());
-                } catch (IOException e) {
-                    // Handle exception
+        SteamCmdOutput output = new SteamCmdOutput(listener);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> readLines(process.getInputStream(), output));
+            executor.submit(() -> readLines(process.getErrorStream(), output));
+        }
+        int exitCode = process.waitFor();
+
+        String error = output.getError();
+        if (error == null && exitCode != 0) {
+            error = "SteamCMD exited with code " + exitCode;
+        }
+        configStore.journal(JournalEntry.of(serverName, JournalEntry.Operation.STEAM_UPDATE, error == null,
+                System.currentTimeMillis() - updateStart,
+                "App " + appId + " exit code " + exitCode + (error != null ? ": " + error : "")));
+        if (error != null) {
+            throw new IOException("SteamCMD update of app " + appId + " failed: " + error);
+        }
+        if (!output.isSucceeded()) {
+            logger.warn("SteamCMD exited cleanly for app {} without reporting success", appId);
+        }
+    }
+
+    // Reads until the stream ends, holding at most one line in memory
+    private static void readLines(InputStream stream, SteamCmdOutput output) {
+        try (Reader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            StringBuilder line = new StringBuilder();
+            boolean cut = false;
+            int c;
+            while ((c = reader.read()) >= 0) {
+                if (c == '\n' || c == '\r') {
+                    if (!cut && !line.isEmpty()) {
+                        output.accept(line.toString());
+                    }
+                    line.setLength(0);
+                    cut = false;
+                } else if (cut) {
+                    continue;
+                } else if (line.length() < MAX_LINE_LENGTH) {
+                    line.append((char) c);
+                } else {
+                    output.accept(line.toString());
+                    line.setLength(0);
+                    cut = true;
                 }
-            });
+            }
+            if (!line.isEmpty()) {
+                output.accept(line.toString());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read SteamCMD output: {}", e.getMessage());
         }
-        process.waitFor();
     }
 }
@@ -7,13 +7,32 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.net.SocketTimeoutException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class TelnetClientManager {
 
     private static final Logger logger = LoggerFactory.getLogger(TelnetClientManager.class);
+    private static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DEFAULT_MAX_RESPONSE_BYTES = 1024 * 1024;
+    // Silence after which a response without an end marker counts as complete
+    private static final Duration DEFAULT_IDLE_GAP = Duration.ofMillis(250);
+    private static final int END_OF_STREAM = -1;
+    private static final int TIMED_OUT = 0;
+
     private final TelnetClient telnetClient;
+    private final Charset charset;
+    private int maxResponseBytes = DEFAULT_MAX_RESPONSE_BYTES;
+    // Bytes received but not consumed yet, e.g. whatever followed a matched prompt
+    private final byte[] buffer = new byte[8192];
+    private int bufferPos;
+    private int bufferLimit;
     InputStream in;
     PrintStream out;
 
@@ -22,14 +41,28 @@ public class TelnetClientManager {
     }
 
     public TelnetClientManager(TelnetClient telnetClient) {
+        this(telnetClient, StandardCharsets.UTF_8);
+    }
+
+    public TelnetClientManager(TelnetClient telnetClient, Charset charset) {
         this.telnetClient = telnetClient;
+        this.charset = charset;
     }
 
     public void connect(String server, int port) throws IOException {
         logger.debug("Connecting to Telnet server at {}:{}", server, port);
+        // Read on the caller's thread so that socket timeouts apply to our reads
+        telnetClient.setReaderThread(false);
         telnetClient.connect(server, port);
         in = telnetClient.getInputStream();
-        out = new PrintStream(telnetClient.getOutputStream());
+        out = new PrintStream(telnetClient.getOutputStream(), false, charset);
+        bufferPos = 0;
+        bufferLimit = 0;
+    }
+
+    // Responses larger than this fail instead of growing without bound
+    public void setMaxResponseBytes(int maxResponseBytes) {
+        this.maxResponseBytes = maxResponseBytes;
     }
 
     public void disconnect() throws IOException {
@@ -58,75 +91,163 @@ public class TelnetClientManager {
             logger.debug("Sending Telnet command: {}", command);
         }
 
-        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
-            Future<String> future = executor.submit(() -> {
-                write(command);
-                if (expectedPrompt == null) {
-                    return ""; // Don't wait for response
-                }
-                return readUntil(expectedPrompt);
-            });
-            String response = future.get();
+        // Reads are bounded by socket timeouts, so this runs on the caller's thread
+        try {
+            write(command);
+            if (expectedPrompt == null) {
+                return ""; // Don't wait for response
+            }
+            String response = readUntil(expectedPrompt);
             logger.debug("Telnet response: {}", response);
             return response;
-        } catch (Exception e) {
+        } catch (IOException e) {
             logger.error("Failed to send command", e);
             throw new IOException("Failed to send command", e);
         }
     }
 
-    public String readUntil(String pattern) throws IOException {
-        char lastChar = pattern.charAt(pattern.length() - 1);
-        StringBuilder sb = new StringBuilder();
-        int i;
-        while ((i = in.read()) != -1) {
-            char ch = (char) i;
-            sb.append(ch);
-            
-            // Log lines as they are read
-            if (ch == '\n') {
-                logger.debug("Telnet RX: {}", sb.toString().trim());
+    // Pipelines the commands: all of them are written at once, then the responses are split at
+    // the prompt that ends each one. One round trip instead of one per command.
+    public List<String> sendCommands(List<String> commands, String expectedPrompt) throws IOException {
+        if (telnetClient == null || !telnetClient.isConnected()) {
+            throw new IOException("Not connected to server.");
+        }
+        logger.debug("Sending {} pipelined Telnet commands: {}", commands.size(), commands);
+
+        try {
+            StringBuilder lines = new StringBuilder();
+            for (String command : commands) {
+                lines.append(command).append("\r\n");
             }
-            
-            if (ch == lastChar) {
-                if (sb.toString().endsWith(pattern)) {
-                    String result = sb.toString();
-                    logger.debug("Read until '{}': {}", pattern, result);
-                    return result;
-                }
+            out.print(lines);
+            out.flush();
+            if (out.checkError()) {
+                throw new IOException("Connection to Telnet server lost");
             }
+            List<String> responses = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                responses.add(readUntil(expectedPrompt));
+            }
+            return responses;
+        } catch (IOException e) {
+            logger.error("Failed to send commands", e);
+            throw new IOException("Failed to send commands", e);
         }
-        String result = sb.toString();
-        logger.debug("Read stream ended. Content: {}", result);
-        return result;
+    }
+
+    public String readUntil(String pattern) throws IOException {
+        return readUntil(DEFAULT_READ_TIMEOUT, pattern);
+    }
+
+    // Reads until one of the terminators arrives and returns everything up to and including it;
+    // anything after it is kept for the next read. Throws SocketTimeoutException if no terminator
+    // arrives in time. If the stream ends first, returns what was received.
+    public String readUntil(Duration timeout, String... terminators) throws IOException {
+        return read(timeout, null, true, terminators);
+    }
+
+    // Reads one response and returns as soon as it is complete: an end marker has arrived, or the
+    // server has gone quiet for idleGap after it started answering, or the stream ended. Returns
+    // whatever arrived by the deadline otherwise. Never polls; every wait is a blocking read.
+    public String readResponse(Duration deadline, Duration idleGap, String... endMarkers) throws IOException {
+        return read(deadline, idleGap, false, endMarkers);
     }
 
     public String read(long timeoutMillis) throws IOException {
-        StringBuilder sb = new StringBuilder();
-        long startTime = System.currentTimeMillis();
-        byte[] buffer = new byte[1024];
-        
-        while ((System.currentTimeMillis() - startTime) < timeoutMillis) {
-            if (in.available() > 0) {
-                int len = in.read(buffer);
-                if (len > 0) {
-                    String chunk = new String(buffer, 0, len);
-                    sb.append(chunk);
-                    logger.debug("Telnet RX: {}", chunk.trim());
+        return readResponse(Duration.ofMillis(timeoutMillis), DEFAULT_IDLE_GAP);
+    }
+
+    private String read(Duration timeout, Duration idleGap, boolean failOnTimeout, String... terminators) throws IOException {
+        PromptMatcher matcher = terminators.length > 0 ? new PromptMatcher(charset, terminators) : null;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        byte[] response = new byte[Math.min(maxResponseBytes, 1024)];
+        int length = 0;
+        int lineStart = 0;
+        while (true) {
+            if (bufferPos == bufferLimit) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    if (failOnTimeout) {
+                        throw new SocketTimeoutException("No prompt received in time");
+                    }
+                    break;
+                }
+                boolean started = idleGap != null && length > 0;
+                int read = fill(started ? Math.min(remainingMillis, idleGap.toMillis()) : remainingMillis);
+                if (read == END_OF_STREAM) {
+                    logger.debug("Read stream ended");
+                    break;
+                }
+                if (read == TIMED_OUT) {
+                    if (started) {
+                        break; // Quiet for the idle gap: the response is complete
+                    }
+                    continue;
+                }
+            }
+
+            int end = bufferPos;
+            boolean matched = false;
+            if (matcher == null) {
+                end = bufferLimit;
+            } else {
+                while (end < bufferLimit && !matched) {
+                    matched = matcher.feed(buffer[end++]) >= 0;
+                }
+            }
+            int count = end - bufferPos;
+            if (length + count > maxResponseBytes) {
+                throw new IOException("Telnet response exceeds " + maxResponseBytes + " bytes");
+            }
+            if (length + count > response.length) {
+                response = Arrays.copyOf(response, Math.min(maxResponseBytes, Math.max(length + count, response.length * 2)));
+            }
+            System.arraycopy(buffer, bufferPos, response, length, count);
+            bufferPos = end;
+            length += count;
+
+            if (logger.isDebugEnabled()) {
+                // Log lines as they are read
+                for (int i = length - count; i < length; i++) {
+                    if (response[i] == '\n') {
+                        logger.debug("Telnet RX: {}", new String(response, lineStart, i - lineStart, charset).trim());
+                        lineStart = i + 1;
+                    }
                 }
             }
-            try {
-                Thread.sleep(50);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+            if (matched) {
                 break;
             }
         }
-        return sb.toString();
+        return new String(response, 0, length, charset);
+    }
+
+    // Refills the read buffer, blocking for at most waitMillis. Returns the number of bytes read,
+    // END_OF_STREAM or TIMED_OUT.
+    private int fill(long waitMillis) throws IOException {
+        if (telnetClient.isConnected()) {
+            telnetClient.setSoTimeout((int) Math.max(1, Math.min(Integer.MAX_VALUE, waitMillis)));
+        }
+        int read;
+        try {
+            read = in.read(buffer, 0, buffer.length);
+        } catch (SocketTimeoutException e) {
+            return TIMED_OUT;
+        }
+        if (read < 0) {
+            return END_OF_STREAM;
+        }
+        bufferPos = 0;
+        bufferLimit = read;
+        return read;
     }
 
-    public void write(String value) {
+    public void write(String value) throws IOException {
         out.print(value + "\r\n"); // Explicitly send CRLF
         out.flush();
+        // PrintStream swallows write errors; a dropped connection shows up here
+        if (out.checkError()) {
+            throw new IOException("Connection to Telnet server lost");
+        }
     }
 }
@@ -0,0 +1,110 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AutoStarterTest {
+
+    private ExecutorService workers;
+
+    @BeforeMethod
+    public void setUp() {
+        workers = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private static GameServer server(String name, int group, boolean autoStart, boolean running) {
+        GameServer server = new GameServer();
+        server.setName(name);
+        server.setStartGroup(group);
+        server.setAutoStart(autoStart);
+        server.setRunning(running);
+        return server;
+    }
+
+    @Test
+    public void testGroupsInOrderWithConcurrencyLimit() throws InterruptedException {
+        List<String> events = new CopyOnWriteArrayList<>();
+        AtomicInteger starting = new AtomicInteger();
+        AtomicInteger maxStarting = new AtomicInteger();
+        Set<String> slow = ConcurrentHashMap.newKeySet();
+        slow.add("db");
+
+        AutoStarter autoStarter = new AutoStarter(new AutoStarter.Launcher() {
+            @Override
+            public void start(String serverName) {
+                maxStarting.accumulateAndGet(starting.incrementAndGet(), Math::max);
+                events.add("start:" + serverName);
+            }
+
+            @Override
+            public boolean awaitReady(String serverName, Duration timeout) throws InterruptedException {
+                Thread.sleep(slow.contains(serverName) ? 150 : 30);
+                events.add("ready:" + serverName);
+                starting.decrementAndGet();
+                return !serverName.equals("broken");
+            }
+        }, workers);
+
+        Map<String, Boolean> results = autoStarter.startAll(List.of(
+                server("b1", 1, true, false),
+                server("db", 0, true, false),
+                server("b2", 1, true, false),
+                server("broken", 1, true, false),
+                server("b3", 1, true, false),
+                server("manual", 0, false, false),
+                server("up", 0, true, true)), 2, Duration.ofSeconds(5));
+
+        assertEquals(results.keySet().stream().toList(), List.of("db", "b1", "b2", "broken", "b3"));
+        assertTrue(results.get("b3"));
+        assertFalse(results.get("broken"));
+        assertEquals(maxStarting.get(), 2);
+        // The second group waits for the first one to be ready
+        assertTrue(events.indexOf("ready:db") < events.indexOf("start:b1"));
+        assertFalse(events.contains("start:manual"));
+        assertFalse(events.contains("start:up"));
+    }
+
+    @Test
+    public void testFailedStartDoesNotHoldUpLaterGroups() throws InterruptedException {
+        AutoStarter autoStarter = new AutoStarter(new AutoStarter.Launcher() {
+            @Override
+            public void start(String serverName) {
+                if (serverName.equals("first")) {
+                    throw new IllegalStateException("Server path not configured");
+                }
+            }
+
+            @Override
+            public boolean awaitReady(String serverName, Duration timeout) {
+                return true;
+            }
+        }, workers);
+
+        Map<String, Boolean> results = autoStarter.startAll(List.of(
+                server("first", 0, true, false),
+                server("second", 1, true, false)), 1, Duration.ofSeconds(5));
+
+        assertEquals(results, Map.of("first", false, "second", true));
+    }
+}
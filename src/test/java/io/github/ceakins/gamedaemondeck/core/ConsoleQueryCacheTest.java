@@ -0,0 +1,145 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class ConsoleQueryCacheTest {
+
+    @Mock
+    private PluginManager pluginManager;
+    @Mock
+    private GamePlugin plugin;
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private MutableClock clock;
+    private GameServer server;
+
+    @BeforeMethod
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        server = new GameServer();
+        server.setName("alpha");
+        server.setPluginName("7 Days to Die");
+        when(pluginManager.getPlugin("7 Days to Die")).thenReturn(plugin);
+        when(plugin.getReadOnlyQueries()).thenReturn(Map.of("lp", Duration.ofSeconds(5)));
+        clock = new MutableClock();
+        executions.set(0);
+    }
+
+    @Test
+    public void testConcurrentQueriesShareOneCommand() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ConsoleQueryCache cache = cache((serverName, command) -> {
+            executions.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            return "Total of 3 in the game";
+        });
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService viewers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++) {
+                results.add(viewers.submit(() -> cache.query("alpha", "lp")));
+            }
+            // Let every viewer reach the cache before the command answers
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals(result.get(5, TimeUnit.SECONDS), "Total of 3 in the game");
+            }
+        }
+        assertEquals(executions.get(), 1);
+    }
+
+    @Test
+    public void testServesFromCacheWithinTtl() throws IOException {
+        ConsoleQueryCache cache = cache((serverName, command) -> "players " + executions.incrementAndGet());
+
+        assertEquals(cache.query("alpha", "lp"), "players 1");
+        clock.advance(Duration.ofSeconds(4));
+        assertEquals(cache.query("alpha", "lp"), "players 1");
+        clock.advance(Duration.ofSeconds(2));
+        assertEquals(cache.query("alpha", "lp"), "players 2");
+
+        cache.invalidate("alpha");
+        assertEquals(cache.query("alpha", "lp"), "players 3");
+    }
+
+    @Test
+    public void testOtherCommandsPassThrough() throws IOException {
+        ConsoleQueryCache cache = cache((serverName, command) -> command + " " + executions.incrementAndGet());
+
+        assertEquals(cache.query("alpha", "kickall"), "kickall 1");
+        assertEquals(cache.query("alpha", "kickall"), "kickall 2");
+    }
+
+    @Test
+    public void testFailuresAreNotCached() throws IOException {
+        ConsoleQueryCache cache = cache((serverName, command) -> {
+            if (executions.incrementAndGet() == 1) {
+                throw new IOException("Connection reset");
+            }
+            return "Total of 0 in the game";
+        });
+
+        assertThrows(IOException.class, () -> cache.query("alpha", "lp"));
+        assertEquals(cache.query("alpha", "lp"), "Total of 0 in the game");
+        assertEquals(executions.get(), 2);
+    }
+
+    private ConsoleQueryCache cache(ConsoleQueryCache.Console console) {
+        return new ConsoleQueryCache(pluginManager, name -> Optional.of(server), console, clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.plugins.GameConsole;
+import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
+import io.github.ceakins.gamedaemondeck.util.CommandNotSentException;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class ConsoleSessionManagerTest {
+
+    @Mock
+    private PluginManager pluginManager;
+    @Mock
+    private GamePlugin plugin;
+    @Mock
+    private GameConsole console;
+    @Mock
+    private GameConsole secondConsole;
+
+    private GameServer server;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        server = new GameServer();
+        server.setName("alpha");
+        server.setPluginName("7 Days to Die");
+        server.setRunning(true);
+        when(pluginManager.getPlugin("7 Days to Die")).thenReturn(plugin);
+        when(plugin.getKeepaliveCommand()).thenReturn("gettime");
+        when(plugin.openConsole(server)).thenReturn(console, secondConsole);
+    }
+
+    private ConsoleSessionManager manager(long baseBackoffMillis, long keepaliveIdleMillis) {
+        return new ConsoleSessionManager(pluginManager, name -> Optional.of(server), null, Runnable::run,
+                baseBackoffMillis, keepaliveIdleMillis);
+    }
+
+    @Test
+    public void testCommandsShareOneLoggedInConnection() throws IOException {
+        when(console.execute("version")).thenReturn("Game version: 1.0");
+        ConsoleSessionManager consoles = manager(0, 60_000);
+
+        assertEquals(consoles.execute("alpha", "version"), "Game version: 1.0");
+        try (ConsoleSessionManager.Lease lease = consoles.lease("alpha", Duration.ofSeconds(1))) {
+            lease.execute("say \"hello\"");
+            lease.execute("saveworld");
+        }
+
+        verify(plugin, times(1)).openConsole(server);
+        verify(console, never()).close();
+
+        consoles.close("alpha");
+        verify(console).close();
+    }
+
+    @Test
+    public void testLeaseIsExclusive() throws Exception {
+        ConsoleSessionManager consoles = manager(0, 60_000);
+        CountDownLatch leased = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> {
+            try (ConsoleSessionManager.Lease lease = consoles.lease("alpha", Duration.ofSeconds(1))) {
+                leased.countDown();
+                release.await();
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(leased.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IOException.class, () -> consoles.lease("alpha", Duration.ofMillis(50)));
+
+        release.countDown();
+        holder.join();
+        consoles.lease("alpha", Duration.ofSeconds(1)).close();
+    }
+
+    @Test
+    public void testStaleConnectionIsReopenedAndCommandRetried() throws IOException {
+        when(console.execute(anyString())).thenReturn("").thenThrow(new CommandNotSentException("Console connection closed"));
+        when(secondConsole.execute("shutdown")).thenReturn("Shutting down");
+        ConsoleSessionManager consoles = manager(0, 60_000);
+
+        consoles.execute("alpha", "gettime");
+        assertEquals(consoles.execute("alpha", "shutdown"), "Shutting down");
+
+        verify(console).close();
+        verify(plugin, times(2)).openConsole(server);
+    }
+
+    @Test
+    public void testCommandThatMayHaveBeenSentIsNotRetried() throws IOException {
+        when(console.execute(anyString())).thenReturn("").thenThrow(new IOException("Connection reset while reading the response"));
+        ConsoleSessionManager consoles = manager(0, 60_000);
+
+        consoles.execute("alpha", "gettime");
+        assertThrows(IOException.class, () -> consoles.execute("alpha", "kick Alice"));
+
+        verify(console).close();
+        verify(plugin, times(1)).openConsole(server);
+        verify(secondConsole, never()).execute(anyString());
+        // The next call gets a fresh connection without waiting for a backoff
+        when(secondConsole.execute("version")).thenReturn("Game version: 1.0");
+        assertEquals(consoles.execute("alpha", "version"), "Game version: 1.0");
+    }
+
+    @Test
+    public void testFailedLoginBacksOff() throws IOException {
+        when(plugin.openConsole(server)).thenThrow(new IOException("Telnet login failed"));
+        ConsoleSessionManager consoles = manager(60_000, 60_000);
+
+        assertThrows(IOException.class, () -> consoles.execute("alpha", "version"));
+        // Still within the backoff: fails fast without another login attempt
+        assertThrows(IOException.class, () -> consoles.execute("alpha", "version"));
+        consoles.keepAlive();
+
+        verify(plugin, times(1)).openConsole(server);
+    }
+
+    @Test
+    public void testKeepAlivePingsIdleConnections() throws IOException {
+        ConsoleSessionManager consoles = manager(0, 0);
+        consoles.execute("alpha", "version");
+
+        consoles.keepAlive();
+        verify(console).execute("gettime");
+
+        // A keepalive that fails drops the connection and the next pass reopens it
+        when(console.execute("gettime")).thenThrow(new IOException("Connection reset"));
+        consoles.keepAlive();
+        verify(console).close();
+        consoles.keepAlive();
+        verify(plugin, times(2)).openConsole(server);
+    }
+
+    @Test
+    public void testStoppedServerHasNoConsole() throws IOException {
+        server.setRunning(false);
+        ConsoleSessionManager consoles = manager(0, 60_000);
+
+        assertThrows(IOException.class, () -> consoles.execute("alpha", "version"));
+        verify(plugin, never()).openConsole(server);
+    }
+
+    @Test
+    public void testFollowStreamsTheLogOfAServerStartedElsewhere() throws IOException {
+        server.setRunning(false);
+        when(console.followLog(any())).thenReturn(true);
+        ConsoleSessionManager consoles = manager(0, 60_000);
+        List<String> lines = new ArrayList<>();
+
+        consoles.follow("alpha", lines::add);
+        verify(plugin).openConsole(server);
+        ArgumentCaptor<Consumer<String>> follower = ArgumentCaptor.forClass(Consumer.class);
+        verify(console).followLog(follower.capture());
+        follower.getValue().accept("INF Time: 1.0m FPS: 60");
+        assertEquals(lines, List.of("INF Time: 1.0m FPS: 60"));
+
+        consoles.unfollow("alpha");
+        verify(console).followLog(null);
+    }
+}
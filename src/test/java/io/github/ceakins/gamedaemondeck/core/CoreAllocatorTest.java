@@ -0,0 +1,47 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.expectThrows;
+
+public class CoreAllocatorTest {
+
+    private static List<GameServer> servers(String... names) {
+        return Stream.of(names).map(name -> {
+            GameServer server = new GameServer();
+            server.setName(name);
+            return server;
+        }).toList();
+    }
+
+    @Test
+    public void testParseAndFormatCpuList() {
+        assertEquals(CoreAllocator.formatCpuList(CoreAllocator.parseCpuList("0-3, 8,10-11")), "0-3,8,10-11");
+        assertEquals(CoreAllocator.formatCpuList(CoreAllocator.parseCpuList("5")), "5");
+        expectThrows(IllegalArgumentException.class, () -> CoreAllocator.parseCpuList("3-1"));
+        expectThrows(IllegalArgumentException.class, () -> CoreAllocator.parseCpuList("a-b"));
+    }
+
+    @Test
+    public void testSpreadsServersAcrossNumaNodes() {
+        CoreAllocator allocator = new CoreAllocator(List.of(
+                CoreAllocator.parseCpuList("0-3"), CoreAllocator.parseCpuList("4-7")));
+
+        Map<String, String> allocation = allocator.allocate(servers("a", "b", "c", "d", "e"), 2);
+
+        assertEquals(allocation, Map.of("a", "0-1", "b", "4-5", "c", "2-3", "d", "6-7", "e", "0-1"));
+    }
+
+    @Test
+    public void testRequestLargerThanNodeIsCapped() {
+        CoreAllocator allocator = new CoreAllocator(List.of(CoreAllocator.parseCpuList("0-1")));
+
+        assertEquals(allocator.allocate(servers("a"), 8), Map.of("a", "0-1"));
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.ConfigStore;
+import io.github.ceakins.gamedaemondeck.db.DiscordWebhook;
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.db.JournalEntry;
+import io.github.ceakins.gamedaemondeck.util.WebhookSender;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class CrashSupervisorTest {
+
+    @Mock
+    private ConfigStore configStore;
+
+    @Mock
+    private WebhookSender webhookSender;
+
+    private ScheduledExecutorService timer;
+    private final List<String> restarted = new CopyOnWriteArrayList<>();
+    private CrashSupervisor supervisor;
+    private GameServer server;
+
+    @BeforeMethod
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        timer = Executors.newSingleThreadScheduledExecutor();
+        restarted.clear();
+        supervisor = new CrashSupervisor(configStore, timer, Runnable::run, webhookSender, restarted::add, 20);
+
+        server = new GameServer();
+        server.setName("alpha");
+        server.setPluginName("7 Days to Die");
+        server.setAutoRestart(true);
+        server.setMaxCrashes(3);
+        server.setCrashWindowSeconds(60);
+
+        DiscordWebhook webhook = new DiscordWebhook();
+        webhook.setName("ops");
+        webhook.setUrl("http://hooks.example/ops");
+        when(configStore.getWebhook("ops")).thenReturn(Optional.of(webhook));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    public void testRequestedStopIsNotACrash() throws InterruptedException {
+        supervisor.expectStop("alpha");
+
+        assertFalse(supervisor.onExit(server, 0, List.of()));
+        Thread.sleep(100);
+        assertTrue(restarted.isEmpty());
+        assertNull(supervisor.getStatus("alpha"));
+    }
+
+    @Test
+    public void testCrashRestartsWithBackoffAndRecordsExit() throws InterruptedException {
+        assertTrue(supervisor.onExit(server, 139, List.of("loading", "Segmentation fault")));
+
+        ArgumentCaptor<JournalEntry> entry = ArgumentCaptor.forClass(JournalEntry.class);
+        verify(configStore).journal(entry.capture());
+        assertEquals(entry.getValue().getOperation(), JournalEntry.Operation.CRASH);
+        assertEquals(entry.getValue().getDetail(), "Exit code 139\nloading\nSegmentation fault");
+        assertEquals(supervisor.getStatus("alpha").get("lastExitCode"), 139);
+
+        Thread.sleep(200);
+        assertEquals(restarted, List.of("alpha"));
+    }
+
+    @Test
+    public void testBreakerTripsAndAlerts() throws Exception {
+        server.setCrashWebhook("ops");
+
+        supervisor.onExit(server, 1, List.of());
+        supervisor.onExit(server, 1, List.of());
+        supervisor.onExit(server, 1, List.of());
+
+        Map<String, Object> status = supervisor.getStatus("alpha");
+        assertEquals(status.get("recentCrashes"), 3);
+        assertEquals(status.get("tripped"), true);
+        verify(webhookSender, timeout(1000)).sendWebhookMessage(eq("http://hooks.example/ops"), contains("crashed 3 times"));
+
+        // Each crash cancelled the previous pending restart and the breaker stopped the last one
+        Thread.sleep(200);
+        assertTrue(restarted.isEmpty());
+
+        supervisor.reset("alpha");
+        assertNull(supervisor.getStatus("alpha"));
+    }
+
+    @Test
+    public void testNoAutoRestartWhenDisabled() throws Exception {
+        server.setAutoRestart(false);
+
+        assertTrue(supervisor.onExit(server, 1, List.of()));
+        Thread.sleep(100);
+        assertTrue(restarted.isEmpty());
+        verify(webhookSender, never()).sendWebhookMessage(anyString(), anyString());
+    }
+}
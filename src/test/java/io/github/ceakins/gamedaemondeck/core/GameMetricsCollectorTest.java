@@ -0,0 +1,94 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.db.MetricStore;
+import io.github.ceakins.gamedaemondeck.plugins.SevenDaysToDiePlugin;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class GameMetricsCollectorTest {
+
+    @Mock
+    private PluginManager pluginManager;
+    @Mock
+    private MetricStore metricStore;
+
+    private final AtomicBoolean ready = new AtomicBoolean(true);
+    private final AtomicInteger queries = new AtomicInteger();
+    private GameMetricsCollector collector;
+
+    @BeforeMethod
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        GameServer server = new GameServer();
+        server.setName("alpha");
+        server.setPluginName("7 Days to Die");
+        when(pluginManager.getPlugin("7 Days to Die")).thenReturn(new SevenDaysToDiePlugin());
+        ready.set(true);
+        queries.set(0);
+        collector = new GameMetricsCollector(pluginManager, name -> Optional.of(server), () -> metricStore,
+                (serverName, command) -> {
+                    queries.incrementAndGet();
+                    if (!command.equals("lp")) {
+                        throw new IOException("Unexpected command " + command);
+                    }
+                    return "1. id=171, Alice\n2. id=172, Bob\nTotal of 2 in the game\n";
+                },
+                () -> Set.of("alpha"), name -> ready.get(), null, () -> 10);
+    }
+
+    @Test
+    public void testRecordsFpsFromTheLog() {
+        collector.onLogLine("alpha", "2024-01-01T12:00:00 123.456 INF Time: 1.00m FPS: 59.87 Heap: 1024.0MB Max: 1100.0MB");
+        collector.onLogLine("alpha", "2024-01-01T12:00:01 124.000 INF Player connected");
+
+        verify(metricStore).record(eq("alpha"), eq(MetricStore.FPS), anyLong(), eq(59.87));
+    }
+
+    @Test
+    public void testRecordsPlayerCountWhenReady() {
+        collector.sampleAll();
+        verify(metricStore).record(eq("alpha"), eq(MetricStore.PLAYERS), anyLong(), eq(2.0));
+
+        ready.set(false);
+        collector.sampleAll();
+        assertEquals(queries.get(), 1);
+    }
+
+    @Test
+    public void testRecordsErrorRatePerMinute() throws Exception {
+        // Errors before the first sample are not counted
+        collector.onLogLine("alpha", "2024-01-01T12:00:00 1.0 ERR Before sampling");
+        collector.sampleAll();
+        verify(metricStore, never()).record(eq("alpha"), eq(MetricStore.LOG_ERRORS), anyLong(), anyDouble());
+
+        collector.onLogLine("alpha", "2024-01-01T12:00:01 2.0 ERR Could not load asset");
+        collector.onLogLine("alpha", "NullReferenceException: Object reference not set to an instance of an object");
+        collector.onLogLine("alpha", "2024-01-01T12:00:02 3.0 INF ERRATIC is not an error");
+        Thread.sleep(20);
+        collector.sampleAll();
+
+        ArgumentCaptor<Double> rate = ArgumentCaptor.forClass(Double.class);
+        verify(metricStore).record(eq("alpha"), eq(MetricStore.LOG_ERRORS), anyLong(), rate.capture());
+        // Two errors in at most a few seconds
+        assertTrue(rate.getValue() >= 2 * 60_000.0 / 5_000);
+    }
+}
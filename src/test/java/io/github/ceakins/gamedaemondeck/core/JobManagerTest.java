@@ -0,0 +1,118 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class JobManagerTest {
+
+    private ExecutorService workers;
+    private JobManager jobManager;
+
+    @BeforeMethod
+    public void setUp() {
+        workers = Executors.newCachedThreadPool();
+        jobManager = new JobManager(workers);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private static void awaitFinished(JobManager.Job job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.isFinished());
+    }
+
+    @Test
+    public void testDuplicateSubmissionsCoalesce() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        JobManager.Task task = job -> {
+            runs.incrementAndGet();
+            release.await();
+        };
+
+        JobManager.Job first = jobManager.submit("alpha", JobManager.Type.STOP, task);
+        JobManager.Job second = jobManager.submit("alpha", JobManager.Type.STOP, task);
+        JobManager.Job other = jobManager.submit("beta", JobManager.Type.STOP, task);
+        assertSame(second, first);
+        assertNotEquals(other.getId(), first.getId());
+
+        // A different operation on a busy server gets the running job back
+        JobManager.Job conflicting = jobManager.submit("alpha", JobManager.Type.START, job -> { });
+        assertEquals(conflicting.getType(), JobManager.Type.STOP);
+
+        release.countDown();
+        awaitFinished(first);
+        awaitFinished(other);
+        assertEquals(runs.get(), 2);
+        assertEquals(first.getStatus(), JobManager.Status.SUCCEEDED);
+
+        // Once finished, the next request starts a new job
+        JobManager.Job next = jobManager.submit("alpha", JobManager.Type.START, job -> { });
+        assertNotEquals(next.getId(), first.getId());
+        awaitFinished(next);
+        assertEquals(jobManager.list().get(0).getId(), next.getId());
+    }
+
+    @Test
+    public void testFailureProgressAndListeners() throws InterruptedException {
+        List<String> events = new CopyOnWriteArrayList<>();
+        jobManager.addListener(job -> events.add(job.getStatus() + ":" + job.getProgress()));
+
+        JobManager.Job job = jobManager.submit("alpha", JobManager.Type.UPDATE, running -> {
+            running.progress("Downloading");
+            throw new IllegalStateException("Disk full");
+        });
+        awaitFinished(job);
+
+        assertEquals(job.getStatus(), JobManager.Status.FAILED);
+        assertEquals(job.getError(), "Disk full");
+        assertEquals(job.getProgress(), "Downloading");
+        assertTrue(job.getFinishedAt() >= job.getStartedAt());
+        assertEquals(jobManager.get(job.getId()).orElseThrow(), job);
+        // The final notification may still be on its way when the status flips
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(events, List.of("PENDING:null", "RUNNING:null", "RUNNING:Downloading", "FAILED:Downloading"));
+    }
+
+    @Test
+    public void testPercentAndLog() throws InterruptedException {
+        List<String> events = new CopyOnWriteArrayList<>();
+        jobManager.addListener(job -> events.add(job.getStatus() + ":" + job.getPercent()));
+
+        JobManager.Job job = jobManager.submit("alpha", JobManager.Type.UPDATE, running -> {
+            running.log("Update state (0x61) downloading, progress: 45.12 (1 / 2)");
+            running.progress("Downloading", 45.12);
+            running.log("Success! App '294420' fully installed.");
+        });
+        awaitFinished(job);
+
+        assertEquals(job.getPercent(), 45.12);
+        assertEquals(job.logLines(), List.of("Update state (0x61) downloading, progress: 45.12 (1 / 2)",
+                "Success! App '294420' fully installed."));
+        workers.shutdown();
+        assertTrue(workers.awaitTermination(5, TimeUnit.SECONDS));
+        // Log lines alone are not announced
+        assertEquals(events, List.of("PENDING:null", "RUNNING:null", "RUNNING:45.12", "SUCCEEDED:45.12"));
+    }
+}
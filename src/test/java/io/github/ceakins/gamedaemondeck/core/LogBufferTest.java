@@ -0,0 +1,33 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+
+public class LogBufferTest {
+
+    @Test
+    public void testKeepsTheMostRecentLines() {
+        LogBuffer buffer = new LogBuffer(3, 100);
+        assertEquals(buffer.snapshot(), List.of());
+
+        buffer.add("one");
+        buffer.add("two");
+        assertEquals(buffer.snapshot(), List.of("one", "two"));
+
+        buffer.add("three");
+        buffer.add("four");
+        buffer.add("five");
+        assertEquals(buffer.snapshot(), List.of("three", "four", "five"));
+        assertEquals(buffer.size(), 3);
+    }
+
+    @Test
+    public void testCutsLongLines() {
+        LogBuffer buffer = new LogBuffer(3, 5);
+        buffer.add("INF Chunk loading took too long");
+        assertEquals(buffer.snapshot(), List.of("INF C"));
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.expectThrows;
+
+public class ProcessPlacementTest {
+
+    @Test
+    public void testWrapsCommandWithPlacementTools() {
+        if (!System.getProperty("os.name").toLowerCase().contains("linux")) {
+            throw new SkipException("Placement is Linux only");
+        }
+        GameServer server = new GameServer();
+        List<String> command = List.of("/opt/7dtd/7DaysToDieServer.x86_64", "-quit");
+        assertEquals(ProcessPlacement.wrap(server, command), command);
+
+        server.setCpuAffinity("2-3");
+        server.setNiceLevel(-5);
+        server.setIoniceClass(2);
+        server.setIoniceLevel(1);
+        assertEquals(ProcessPlacement.wrap(server, command), List.of(
+                "taskset", "--cpu-list", "2-3",
+                "nice", "-n", "-5",
+                "ionice", "-t", "-c", "2", "-n", "1",
+                "/opt/7dtd/7DaysToDieServer.x86_64", "-quit"));
+    }
+
+    @Test
+    public void testValidate() {
+        GameServer server = new GameServer();
+        server.setNiceLevel(25);
+        expectThrows(IllegalArgumentException.class, () -> ProcessPlacement.validate(server));
+
+        server.setNiceLevel(10);
+        server.setIoniceClass(4);
+        expectThrows(IllegalArgumentException.class, () -> ProcessPlacement.validate(server));
+
+        server.setIoniceClass(3);
+        server.setCpuAffinity("0-1,x");
+        expectThrows(IllegalArgumentException.class, () -> ProcessPlacement.validate(server));
+
+        server.setCpuAffinity("0-1");
+        ProcessPlacement.validate(server);
+    }
+}
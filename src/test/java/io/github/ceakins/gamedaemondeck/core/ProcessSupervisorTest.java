@@ -0,0 +1,146 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class ProcessSupervisorTest {
+
+    private Path logDirectory;
+    private ProcessSupervisor supervisor;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        if (System.getProperty("os.name").toLowerCase().contains("win")) {
+            throw new SkipException("Uses a POSIX shell");
+        }
+        logDirectory = Files.createTempDirectory("supervisor-test");
+        supervisor = new ProcessSupervisor(logDirectory);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        if (supervisor != null) {
+            supervisor.getNames().forEach(supervisor::kill);
+            supervisor.close();
+        }
+        if (logDirectory != null) {
+            try (var paths = Files.walk(logDirectory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void awaitSize(List<String> lines, int size) throws InterruptedException {
+        // The log is followed by polling, so output may trail the exit slightly
+        long deadline = System.currentTimeMillis() + 5000;
+        while (lines.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static ProcessBuilder shell(String script) {
+        return new ProcessBuilder("sh", "-c", script).redirectErrorStream(true);
+    }
+
+    @Test
+    public void testPumpsOutputAndReportsExit() throws Exception {
+        List<String> lines = new CopyOnWriteArrayList<>();
+        CompletableFuture<Integer> exited = new CompletableFuture<>();
+
+        supervisor.start("alpha", shell("echo one; echo two >&2; exit 3"), lines::add, exited::complete);
+
+        assertEquals(exited.get(5, TimeUnit.SECONDS), Integer.valueOf(3));
+        assertTrue(supervisor.awaitExit("alpha", Duration.ofSeconds(5)));
+        assertFalse(supervisor.isRunning("alpha"));
+        assertTrue(supervisor.getNames().isEmpty());
+        awaitSize(lines, 2);
+        assertEquals(lines, List.of("one", "two"));
+        assertEquals(Files.readAllLines(supervisor.logFile("alpha")), List.of("one", "two"));
+    }
+
+    @Test
+    public void testAdoptsProcessLeftByPreviousInstance() throws Exception {
+        ProcessSupervisor.ManagedProcess started = supervisor.start("gamma", shell("echo ready; sleep 30"), line -> { }, code -> { });
+        long startedAt = started.getStartedAt().toEpochMilli();
+        // Simulate the daemon going away while the server keeps running
+        supervisor.close();
+        supervisor = new ProcessSupervisor(logDirectory);
+
+        ProcessHandle handle = ProcessHandle.of(started.getPid()).orElseThrow();
+        // "sh" is usually a symlink, so compare against what the OS reports
+        String executable = handle.info().command().orElseThrow();
+        assertTrue(ProcessSupervisor.matches(handle, startedAt, executable));
+        assertFalse(ProcessSupervisor.matches(handle, startedAt - 60_000, executable));
+        assertFalse(ProcessSupervisor.matches(handle, startedAt, "/opt/game/server"));
+
+        List<String> lines = new CopyOnWriteArrayList<>();
+        CompletableFuture<Integer> exited = new CompletableFuture<>();
+        supervisor.adopt("gamma", handle, lines::add, exited::complete);
+        awaitSize(lines, 1);
+        assertEquals(lines, List.of("ready"));
+        assertTrue(supervisor.isRunning("gamma"));
+
+        assertTrue(supervisor.kill("gamma"));
+        assertEquals(exited.get(5, TimeUnit.SECONDS), Integer.valueOf(-1));
+    }
+
+    @Test
+    public void testRotatesTheLogWhileTheServerRuns() throws Exception {
+        supervisor.close();
+        supervisor = new ProcessSupervisor(logDirectory, 1024);
+        List<String> lines = new CopyOnWriteArrayList<>();
+        // Writes well past the limit, then stays up so the rotation happens while it runs
+        supervisor.start("delta", shell("i=0; while [ $i -lt 100 ]; do echo \"line $i of the server log\"; i=$((i+1)); done; "
+                + "sleep 1; echo after; sleep 30"), lines::add, code -> { });
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!lines.contains("after") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(lines.contains("after"));
+        Path logFile = supervisor.logFile("delta");
+        assertTrue(Files.exists(logFile.resolveSibling(logFile.getFileName() + ".1")));
+        assertTrue(Files.size(logFile) < 1024);
+        assertEquals(Files.readAllLines(logFile), List.of("after"));
+    }
+
+    @Test
+    public void testLogFileNamesDoNotCollide() {
+        assertEquals(supervisor.logFile("alpha").getFileName().toString(), "alpha.log");
+        assertFalse(supervisor.logFile("a b").equals(supervisor.logFile("a_b")));
+        assertFalse(supervisor.logFile("a/b").equals(supervisor.logFile("a b")));
+    }
+
+    @Test
+    public void testTerminateAndDuplicateStart() throws Exception {
+        CompletableFuture<Integer> exited = new CompletableFuture<>();
+        supervisor.start("beta", shell("sleep 30"), line -> { }, exited::complete);
+
+        assertTrue(supervisor.isRunning("beta"));
+        expectThrows(IllegalStateException.class,
+                () -> supervisor.start("beta", shell("true"), line -> { }, code -> { }));
+        assertFalse(supervisor.awaitExit("beta", Duration.ofMillis(100)));
+
+        assertTrue(supervisor.terminate("beta"));
+        assertTrue(supervisor.awaitExit("beta", Duration.ofSeconds(5)));
+        exited.get(5, TimeUnit.SECONDS);
+        assertFalse(supervisor.terminate("beta"));
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.MetricStore;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.regex.Pattern;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ReadinessTrackerTest {
+
+    @Mock
+    private MetricStore metricStore;
+
+    private ScheduledExecutorService timer;
+    private ReadinessTracker tracker;
+
+    @BeforeMethod
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        timer = Executors.newSingleThreadScheduledExecutor();
+        tracker = new ReadinessTracker(timer, Runnable::run, () -> metricStore);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLogPatternMarksReadyAndRecordsHistogram() throws InterruptedException {
+        tracker.starting("alpha", Pattern.compile("GameServer\\.LogOn successful"), null);
+        assertEquals(tracker.getState("alpha"), ReadinessTracker.State.STARTING);
+        assertFalse(tracker.awaitReady("alpha", Duration.ofMillis(50)));
+
+        tracker.onLogLine("alpha", "INF Loading world");
+        tracker.onLogLine("alpha", "INF [Steamworks.NET] GameServer.LogOn successful, SteamID=1");
+
+        assertEquals(tracker.getState("alpha"), ReadinessTracker.State.READY);
+        assertTrue(tracker.awaitReady("alpha", Duration.ofMillis(50)));
+        Map<String, Object> histogram = (Map<String, Object>) tracker.getStatus("alpha").get("timeToReady");
+        assertEquals(histogram.get("count"), 1L);
+        assertEquals(((Map<String, Long>) histogram.get("buckets")).get("le15s"), Long.valueOf(1));
+        verify(metricStore).record(eq("alpha"), eq(MetricStore.STARTUP_SECONDS), anyLong(), anyDouble());
+    }
+
+    @Test
+    public void testPortProbe() throws Exception {
+        try (ServerSocket listener = new ServerSocket(0)) {
+            tracker.starting("beta", null, listener.getLocalPort());
+            assertTrue(tracker.awaitReady("beta", Duration.ofSeconds(5)));
+        }
+    }
+
+    @Test
+    public void testNoSignalsAndStop() throws InterruptedException {
+        tracker.starting("gamma", null, null);
+        assertEquals(tracker.getState("gamma"), ReadinessTracker.State.READY);
+        // Servers without a readiness signal are not measured
+        verify(metricStore, never()).record(eq("gamma"), eq(MetricStore.STARTUP_SECONDS), anyLong(), anyDouble());
+
+        tracker.starting("delta", Pattern.compile("ready"), null);
+        tracker.stopped("delta");
+        assertNull(tracker.getState("delta"));
+        assertFalse(tracker.awaitReady("delta", Duration.ofMillis(10)));
+    }
+}
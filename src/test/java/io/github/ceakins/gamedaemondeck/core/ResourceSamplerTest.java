@@ -0,0 +1,91 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.MetricStore;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ResourceSamplerTest {
+
+    private Path procRoot;
+    private Path processDir;
+    @Mock
+    private MetricStore metricStore;
+
+    private ResourceSampler sampler;
+    private final ProcessHandle self = ProcessHandle.current();
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        procRoot = Files.createTempDirectory("proc-test");
+        processDir = Files.createDirectories(procRoot.resolve(Long.toString(self.pid())));
+        MockitoAnnotations.openMocks(this);
+        sampler = new ResourceSampler(new ProcessSupervisor(procRoot.resolve("logs")), () -> metricStore, null, () -> 10, procRoot);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        try (var paths = Files.walk(procRoot)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void writeProc(long utime, long stime, long rssKb, long readBytes) throws IOException {
+        // The command name deliberately contains spaces and a parenthesis
+        Files.writeString(processDir.resolve("stat"), self.pid() + " (my (game) server) S 1 2 3 4 5 6 7 8 9 10 "
+                + utime + " " + stime + " 0 0 20 0 42 0 100 200\n");
+        Files.writeString(processDir.resolve("status"), "Name:\tserver\nState:\tS (sleeping)\nVmPeak:\t  999999 kB\n"
+                + "VmRSS:\t  " + rssKb + " kB\nThreads:\t42\n");
+        Files.writeString(processDir.resolve("io"), "rchar: 1\nwchar: 2\nread_bytes: " + readBytes + "\nwrite_bytes: 4096\n");
+    }
+
+    @Test
+    public void testParsesProcFilesAndRecordsMetrics() throws Exception {
+        writeProc(150, 50, 2048, 1000);
+        sampler.sample("alpha", self);
+
+        ResourceSampler.ResourceUsage usage = sampler.getUsage("alpha");
+        assertEquals(usage.getRssBytes(), 2048L * 1024);
+        assertEquals(usage.getThreads(), 42);
+        assertEquals(usage.getReadBytes(), 1000);
+        assertEquals(usage.getWriteBytes(), 4096);
+        assertEquals(usage.getCpuPercent(), 0.0);
+
+        Thread.sleep(100);
+        writeProc(160, 60, 4096, 5000);
+        sampler.sample("alpha", self);
+
+        usage = sampler.getUsage("alpha");
+        // 20 ticks (0.2 s of CPU) in roughly 0.1 s of wall time
+        assertTrue(usage.getCpuPercent() > 50 && usage.getCpuPercent() <= 200, "cpu " + usage.getCpuPercent());
+
+        verify(metricStore).record(eq("alpha"), eq(MetricStore.RSS), anyLong(), eq(2048.0 * 1024));
+        verify(metricStore).record(eq("alpha"), eq(MetricStore.RSS), anyLong(), eq(4096.0 * 1024));
+        verify(metricStore, times(2)).record(eq("alpha"), eq(MetricStore.THREADS), anyLong(), eq(42.0));
+        // Rates need two samples, so CPU and disk are only recorded from the second one on
+        verify(metricStore, times(1)).record(eq("alpha"), eq(MetricStore.CPU), anyLong(), anyDouble());
+        verify(metricStore, times(1)).record(eq("alpha"), eq(MetricStore.DISK_READ), anyLong(), anyDouble());
+    }
+
+    @Test
+    public void testMissingProcessIsSkipped() {
+        sampler.sample("gone", self);
+        assertNull(sampler.getUsage("gone"));
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.plugins.GameConsole;
+import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class RestartCountdownTest {
+
+    @Mock
+    private PluginManager pluginManager;
+    @Mock
+    private GamePlugin plugin;
+    @Mock
+    private GameConsole console;
+
+    private GameServer server;
+    private RestartCountdown countdown;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        server = new GameServer();
+        server.setName("alpha");
+        server.setPluginName("7 Days to Die");
+        server.setRunning(true);
+        when(pluginManager.getPlugin("7 Days to Die")).thenReturn(plugin);
+        when(plugin.getBroadcastCommand(anyString())).thenAnswer(invocation -> "say \"" + invocation.getArgument(0) + "\"");
+        when(plugin.getSaveCommand()).thenReturn("saveworld");
+        when(plugin.openConsole(server)).thenReturn(console);
+        ConsoleSessionManager consoles = new ConsoleSessionManager(pluginManager, name -> Optional.of(server),
+                null, Runnable::run, 0, 60_000);
+        countdown = new RestartCountdown(consoles, pluginManager, name -> Optional.of(server), Runnable::run);
+    }
+
+    @Test
+    public void testWarningsReuseOneSessionAndFinishSaves() throws IOException {
+        countdown.warn("alpha", Duration.ofMinutes(10));
+        countdown.warn("alpha", Duration.ofSeconds(10));
+        countdown.finish("alpha");
+
+        verify(plugin, times(1)).openConsole(server);
+        InOrder order = inOrder(console);
+        order.verify(console).execute("say \"Server restart in 10 minutes\"");
+        order.verify(console).execute("say \"Server restart in 10 seconds\"");
+        // The goodbye and the save go out as one batch
+        order.verify(console).executeAll(List.of("say \"Server is restarting now\"", "saveworld"));
+        // The session stays open for the shutdown that follows
+        verify(console, never()).close();
+    }
+
+    @Test
+    public void testFailedCommandDropsSessionAndReconnects() throws IOException {
+        when(console.execute(anyString())).thenThrow(new IOException("Connection reset")).thenReturn("");
+
+        countdown.warn("alpha", Duration.ofMinutes(5));
+        countdown.warn("alpha", Duration.ofMinutes(1));
+
+        verify(console).close();
+        verify(plugin, times(2)).openConsole(server);
+    }
+
+    @Test
+    public void testSkipsStoppedServers() throws IOException {
+        server.setRunning(false);
+
+        countdown.warn("alpha", Duration.ofMinutes(1));
+        countdown.finish("alpha");
+
+        verify(plugin, never()).openConsole(any());
+    }
+
+    @Test
+    public void testDescribe() {
+        assertEquals(RestartCountdown.describe(Duration.ofMinutes(1)), "1 minute");
+        assertEquals(RestartCountdown.describe(Duration.ofSeconds(600)), "10 minutes");
+        assertEquals(RestartCountdown.describe(Duration.ofSeconds(90)), "90 seconds");
+    }
+}
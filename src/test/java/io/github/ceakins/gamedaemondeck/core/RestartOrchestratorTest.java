@@ -0,0 +1,151 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.ConfigStore;
+import io.github.ceakins.gamedaemondeck.db.Configuration;
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+public class RestartOrchestratorTest {
+
+    @Mock
+    private ConfigStore configStore;
+
+    private final Configuration config = new Configuration();
+    private ScheduledExecutorService timer;
+    private ExecutorService workers;
+
+    @BeforeMethod
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        config.setRestartStaggerSeconds(0);
+        config.setRestartJitterSeconds(0);
+        when(configStore.getConfiguration()).thenReturn(Optional.of(config));
+        timer = Executors.newSingleThreadScheduledExecutor();
+        workers = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        timer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private static GameServer server(String name, int priority) {
+        GameServer server = new GameServer();
+        server.setName(name);
+        server.setRestartPriority(priority);
+        return server;
+    }
+
+    @Test
+    public void testConcurrencyLimitAndStartGate() throws InterruptedException {
+        config.setMaxConcurrentRestarts(2);
+        AtomicInteger stopping = new AtomicInteger();
+        AtomicInteger starting = new AtomicInteger();
+        AtomicInteger maxStopping = new AtomicInteger();
+        AtomicInteger maxStarting = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(4);
+
+        RestartOrchestrator orchestrator = new RestartOrchestrator(configStore, timer, workers, new RestartOrchestrator.RestartAction() {
+            @Override
+            public void stop(String serverName) throws Exception {
+                maxStopping.accumulateAndGet(stopping.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                stopping.decrementAndGet();
+            }
+
+            @Override
+            public void start(String serverName) throws Exception {
+                maxStarting.accumulateAndGet(starting.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                starting.decrementAndGet();
+                done.countDown();
+            }
+        });
+
+        for (int i = 0; i < 4; i++) {
+            orchestrator.submit(server("s" + i, 0), true);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(maxStopping.get(), 2);
+        assertEquals(maxStarting.get(), 1);
+    }
+
+    @Test
+    public void testPriorityOrderingQueuePositionAndCoalescing() throws InterruptedException {
+        config.setMaxConcurrentRestarts(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+
+        RestartOrchestrator orchestrator = new RestartOrchestrator(configStore, timer, workers, new RestartOrchestrator.RestartAction() {
+            @Override
+            public void stop(String serverName) throws Exception {
+                release.await();
+                order.add(serverName);
+            }
+
+            @Override
+            public void start(String serverName) {
+                done.countDown();
+            }
+        });
+
+        orchestrator.submit(server("first", 0), true);
+        CompletableFuture<Void> lowDone = orchestrator.submit(server("low", 0), true);
+        orchestrator.submit(server("high", 10), true);
+        assertSame(orchestrator.submit(server("low", 0), true), lowDone); // Already queued
+
+        Map<String, Object> high = orchestrator.getStatus("high");
+        Map<String, Object> low = orchestrator.getStatus("low");
+        assertEquals(high.get("position"), 1);
+        assertEquals(low.get("position"), 2);
+        assertTrue((Long) low.get("eta") >= (Long) high.get("eta"));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(order, List.of("first", "high", "low"));
+    }
+
+    @Test
+    public void testQuickFailureReachesTheSubmitter() throws Exception {
+        RestartOrchestrator orchestrator = new RestartOrchestrator(configStore, timer, workers, new RestartOrchestrator.RestartAction() {
+            @Override
+            public void stop(String serverName) {
+            }
+
+            @Override
+            public void start(String serverName) {
+                throw new IllegalStateException("Executable not found");
+            }
+        });
+
+        CompletableFuture<Void> done = orchestrator.submit(server("broken", 0), false);
+        ExecutionException e = expectThrows(ExecutionException.class, () -> done.get(5, TimeUnit.SECONDS));
+        assertEquals(e.getCause().getMessage(), "Executable not found");
+    }
+}
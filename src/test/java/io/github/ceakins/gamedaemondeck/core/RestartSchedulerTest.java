@@ -0,0 +1,103 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class RestartSchedulerTest {
+
+    private ScheduledExecutorService executor;
+    private final List<String> fired = new CopyOnWriteArrayList<>();
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        fired.clear();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private GameServer server(String name, String timeZone, String... times) {
+        GameServer server = new GameServer();
+        server.setName(name);
+        server.setRestartTimes(List.of(times));
+        server.setRestartTimeZone(timeZone);
+        return server;
+    }
+
+    @Test
+    public void testPlansNextFireInServerTimeZone() {
+        Instant now = LocalDateTime.of(2026, 6, 1, 12, 0).toInstant(ZoneOffset.UTC);
+        RestartScheduler scheduler = new RestartScheduler(executor, Clock.fixed(now, ZoneOffset.UTC), fired::add, (name, remaining) -> { }, List::of);
+
+        scheduler.reschedule(server("berlin", "Europe/Berlin", "04:00", "0 16 * * *"));
+
+        // 16:00 in Berlin (UTC+2 in June) comes before 04:00 the next day
+        assertEquals(scheduler.getNextFire("berlin"), LocalDateTime.of(2026, 6, 1, 16, 0).atZone(ZoneId.of("Europe/Berlin")).toInstant());
+    }
+
+    @Test
+    public void testFiresAtPlannedInstantAndReplans() throws InterruptedException {
+        // Wall clock says it is one second before 04:00 UTC
+        Instant beforeFire = LocalDateTime.of(2026, 6, 1, 3, 59, 59).toInstant(ZoneOffset.UTC);
+        long offset = beforeFire.toEpochMilli() - System.currentTimeMillis();
+        Clock clock = Clock.offset(Clock.systemUTC(), Duration.ofMillis(offset));
+        RestartScheduler scheduler = new RestartScheduler(executor, clock, fired::add, (name, remaining) -> { }, List::of);
+
+        scheduler.reschedule(server("alpha", "UTC", "04:00"));
+        Thread.sleep(1500);
+
+        assertEquals(fired, List.of("alpha"));
+        assertEquals(scheduler.getNextFire("alpha"), LocalDateTime.of(2026, 6, 2, 4, 0).toInstant(ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testSendsDueWarningsBeforeFiring() throws InterruptedException {
+        // Two seconds before 04:00 UTC: the 10 minute warning has passed, 1 s is still to come
+        Instant now = LocalDateTime.of(2026, 6, 1, 3, 59, 58).toInstant(ZoneOffset.UTC);
+        long offset = now.toEpochMilli() - System.currentTimeMillis();
+        Clock clock = Clock.offset(Clock.systemUTC(), Duration.ofMillis(offset));
+        List<Duration> warnings = new CopyOnWriteArrayList<>();
+        RestartScheduler scheduler = new RestartScheduler(executor, clock, fired::add,
+                (name, remaining) -> warnings.add(remaining), () -> List.of(Duration.ofMinutes(10), Duration.ofSeconds(1)));
+
+        scheduler.reschedule(server("alpha", "UTC", "04:00"));
+        Thread.sleep(2500);
+
+        assertEquals(warnings, List.of(Duration.ofSeconds(1)));
+        assertEquals(fired, List.of("alpha"));
+    }
+
+    @Test
+    public void testCancelAndEmptySchedule() {
+        RestartScheduler scheduler = new RestartScheduler(executor, fired::add);
+
+        scheduler.reschedule(server("alpha", null, "04:00"));
+        assertTrue(scheduler.getNextFire("alpha") != null);
+
+        scheduler.reschedule(server("alpha", null));
+        assertNull(scheduler.getNextFire("alpha"));
+
+        scheduler.reschedule(server("beta", null, "not a time"));
+        assertNull(scheduler.getNextFire("beta"));
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class ServerActorsTest {
+
+    private ExecutorService executor;
+    private ServerActors actors;
+
+    @BeforeMethod
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        actors = new ServerActors(executor);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCommandsForOneServerRunInOrderOneAtATime() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> order = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            int index = i;
+            results.add(actors.tell("alpha", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                order.add(index);
+                running.decrementAndGet();
+                return index;
+            }));
+        }
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(results.get(i).get(5, TimeUnit.SECONDS), Integer.valueOf(i));
+        }
+        assertEquals(maxRunning.get(), 1);
+        assertEquals(order.size(), 50);
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(order.get(i), Integer.valueOf(i));
+        }
+    }
+
+    @Test
+    public void testServersRunInParallel() throws Exception {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        CompletableFuture<Boolean> alpha = actors.tell("alpha", () -> {
+            bothRunning.countDown();
+            return bothRunning.await(5, TimeUnit.SECONDS);
+        });
+        CompletableFuture<Boolean> beta = actors.tell("beta", () -> {
+            bothRunning.countDown();
+            return bothRunning.await(5, TimeUnit.SECONDS);
+        });
+        assertTrue(alpha.get(5, TimeUnit.SECONDS));
+        assertTrue(beta.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAskIsReentrantAndRethrows() throws Exception {
+        assertEquals(actors.ask("alpha", () -> actors.ask("alpha", () -> "inner")), "inner");
+
+        try {
+            actors.ask("alpha", () -> {
+                throw new IllegalStateException("Server is already running");
+            });
+            fail("Expected the command's exception");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "Server is already running");
+        }
+
+        // A failed command does not block the mailbox
+        assertEquals(actors.ask("alpha", () -> 42), Integer.valueOf(42));
+    }
+}
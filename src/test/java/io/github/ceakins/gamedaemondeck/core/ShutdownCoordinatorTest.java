@@ -0,0 +1,125 @@
+package io.github.ceakins.gamedaemondeck.core;
+
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class ShutdownCoordinatorTest {
+
+    private Path logDirectory;
+    private ProcessSupervisor supervisor;
+    private ExecutorService workers;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        if (System.getProperty("os.name").toLowerCase().contains("win")) {
+            throw new SkipException("Uses a POSIX shell");
+        }
+        logDirectory = Files.createTempDirectory("shutdown-test");
+        supervisor = new ProcessSupervisor(logDirectory);
+        workers = Executors.newCachedThreadPool();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        if (supervisor != null) {
+            supervisor.getNames().forEach(supervisor::kill);
+            supervisor.close();
+            workers.shutdownNow();
+            try (var paths = Files.walk(logDirectory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private GameServer launch(String name, String script) throws IOException {
+        supervisor.start(name, new ProcessBuilder("sh", "-c", script), line -> { }, code -> { });
+        GameServer server = new GameServer();
+        server.setName(name);
+        server.setRunning(true);
+        return server;
+    }
+
+    @Test
+    public void testEscalatesStragglersWithinDeadline() throws IOException {
+        GameServer polite = launch("polite", "sleep 30");
+        GameServer stubborn = launch("stubborn", "trap '' TERM; while true; do sleep 0.1; done");
+        GameServer stale = new GameServer();
+        stale.setName("stale");
+
+        long start = System.currentTimeMillis();
+        List<ShutdownCoordinator.Result> results = new ShutdownCoordinator(supervisor, workers).stopAll(
+                List.of(polite, stubborn, stale),
+                server -> {
+                    // Only the polite server honours the graceful request
+                    if (server.getName().equals("polite")) {
+                        supervisor.terminate("polite");
+                    }
+                },
+                Duration.ofSeconds(2));
+        long elapsed = System.currentTimeMillis() - start;
+
+        Map<String, ShutdownCoordinator.Outcome> outcomes = results.stream()
+                .collect(Collectors.toMap(ShutdownCoordinator.Result::getServerName, ShutdownCoordinator.Result::getOutcome));
+        assertEquals(outcomes.get("polite"), ShutdownCoordinator.Outcome.GRACEFUL);
+        assertEquals(outcomes.get("stubborn"), ShutdownCoordinator.Outcome.KILLED);
+        assertEquals(outcomes.get("stale"), ShutdownCoordinator.Outcome.NOT_RUNNING);
+        assertTrue(elapsed < 3000, "took " + elapsed + " ms");
+    }
+
+    @Test
+    public void testUnverifiablePidIsNotSignalled() throws IOException {
+        // Stands in for an unrelated process that reused a legacy record's PID
+        Process unrelated = new ProcessBuilder("sleep", "30").start();
+        try {
+            GameServer legacy = new GameServer();
+            legacy.setName("legacy");
+            legacy.setRunning(true);
+            legacy.setPid(unrelated.pid());
+
+            List<ShutdownCoordinator.Result> results = new ShutdownCoordinator(supervisor, workers).stopAll(
+                    List.of(legacy), server -> { }, Duration.ofSeconds(1));
+
+            assertEquals(results.get(0).getOutcome(), ShutdownCoordinator.Outcome.NOT_RUNNING);
+            assertTrue(unrelated.isAlive());
+        } finally {
+            unrelated.destroyForcibly();
+        }
+    }
+
+    @Test
+    public void testUntrackedPidIsCheckedAgainstTheExecutable() throws IOException {
+        Process other = new ProcessBuilder("sleep", "30").start();
+        try {
+            GameServer server = new GameServer();
+            server.setName("other");
+            server.setRunning(true);
+            server.setPid(other.pid());
+            server.setServerPath("/opt/games/7DaysToDieServer.x86_64");
+
+            List<ShutdownCoordinator.Result> results = new ShutdownCoordinator(supervisor, workers).stopAll(
+                    List.of(server), s -> { }, Duration.ofSeconds(1));
+
+            assertEquals(results.get(0).getOutcome(), ShutdownCoordinator.Outcome.NOT_RUNNING);
+            assertTrue(other.isAlive());
+        } finally {
+            other.destroyForcibly();
+        }
+    }
+}
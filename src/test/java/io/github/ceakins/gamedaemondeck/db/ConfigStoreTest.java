@@ -129,4 +129,64 @@ public class ConfigStoreTest {
         assertTrue(actualBot.isPresent());
         assertEquals(actualBot.get().getName(), "test-bot");
     }
+
+    @Test
+    public void testJournalRangeQueriesAndPaging() {
+        ConfigStore journalStore = new ConfigStore(MVStore.open(null), objectMapper);
+        for (int i = 0; i < 5; i++) {
+            JournalEntry entry = JournalEntry.of(i % 2 == 0 ? "alpha" : "beta", JournalEntry.Operation.START, true, (long) i, null);
+            entry.setTimestamp(1_000L + i);
+            journalStore.journal(entry);
+        }
+
+        List<JournalEntry> alpha = journalStore.getJournal("alpha", 0, Long.MAX_VALUE >> 12, null, 10);
+        assertEquals(alpha.size(), 3);
+
+        List<JournalEntry> firstPage = journalStore.getJournal(null, 1_001L, 1_004L, null, 2);
+        assertEquals(firstPage.size(), 2);
+        assertEquals(firstPage.get(0).getDurationMillis().longValue(), 1L);
+
+        List<JournalEntry> secondPage = journalStore.getJournal(null, 1_001L, 1_004L, firstPage.get(1).getId(), 2);
+        assertEquals(secondPage.size(), 2);
+        assertEquals(secondPage.get(1).getDurationMillis().longValue(), 4L);
+        assertTrue(secondPage.get(0).getId() > firstPage.get(1).getId());
+        journalStore.close();
+    }
+
+    @Test
+    public void testJournalIdsSurviveAClockStepBackAcrossRestarts() {
+        MVStore journalMvStore = MVStore.open(null);
+        ConfigStore before = new ConfigStore(journalMvStore, objectMapper);
+        JournalEntry first = JournalEntry.of("alpha", JournalEntry.Operation.START, true, 1L, null);
+        first.setTimestamp(5_000L);
+        before.journal(first);
+        before.flushJournal();
+
+        // A new daemon on the same store whose clock is now behind the stored entry
+        ConfigStore after = new ConfigStore(journalMvStore, objectMapper);
+        JournalEntry second = JournalEntry.of("alpha", JournalEntry.Operation.STOP, true, 2L, null);
+        second.setTimestamp(4_000L);
+        after.journal(second);
+
+        assertTrue(second.getId() > first.getId());
+        List<JournalEntry> entries = after.getJournal("alpha", 0, Long.MAX_VALUE, null, 10);
+        assertEquals(entries.size(), 2);
+        after.close();
+    }
+
+    @Test
+    public void testDeleteServerDropsItsMetrics() {
+        ConfigStore metricsStore = new ConfigStore(MVStore.open(null), objectMapper);
+        GameServer server = new GameServer();
+        server.setName("alpha");
+        metricsStore.saveServer(server);
+        long now = System.currentTimeMillis();
+        metricsStore.getMetricStore().record("alpha", MetricStore.PLAYERS, now, 3);
+        metricsStore.getMetricStore().flush();
+
+        metricsStore.deleteServer("alpha");
+
+        assertTrue(metricsStore.getMetricStore().query("alpha", MetricStore.PLAYERS, now - 60_000, now + 60_000).isEmpty());
+        metricsStore.close();
+    }
 }
@@ -0,0 +1,104 @@
+package io.github.ceakins.gamedaemondeck.db;
+
+import org.h2.mvstore.MVStore;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class MetricStoreTest {
+
+    // Start of the current day, so flushed blocks fall inside every tier's retention
+    private static final long BASE = System.currentTimeMillis() - (System.currentTimeMillis() % 86_400_000L);
+
+    private MVStore mvStore;
+    private MetricStore metricStore;
+
+    @BeforeMethod
+    public void setUp() {
+        mvStore = MVStore.open(null); // In-memory store
+        metricStore = new MetricStore(mvStore);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        mvStore.close();
+    }
+
+    @Test
+    public void testBlockEncodeDecodeRoundTrip() {
+        TimeSeriesBlock block = new TimeSeriesBlock();
+        double[] values = {0.0, 12.5, 12.5, 13.0, -4.25, 1e9, 1e9 + 1, Double.MIN_VALUE};
+        for (int i = 0; i < values.length; i++) {
+            block.add(BASE + i * 10_000L + (i % 3), values[i]);
+        }
+
+        TimeSeriesBlock decoded = TimeSeriesBlock.decode(block.encode());
+
+        assertEquals(decoded.size(), values.length);
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(decoded.timestampAt(i), BASE + i * 10_000L + (i % 3));
+            assertEquals(decoded.valueAt(i), values[i]);
+        }
+    }
+
+    @Test
+    public void testRegularSamplesCompressWell() {
+        TimeSeriesBlock block = new TimeSeriesBlock();
+        for (int i = 0; i < 360; i++) {
+            block.add(BASE + i * 10_000L, 8.0);
+        }
+        // Constant interval and value cost two bytes per sample after the header
+        assertTrue(block.encode().length < 360 * 2 + 24);
+    }
+
+    @Test
+    public void testRawSamplesAreAveragedIntoTenSecondBuckets() {
+        metricStore.record("srv", MetricStore.CPU, BASE, 10);
+        metricStore.record("srv", MetricStore.CPU, BASE + 5_000, 20);
+        metricStore.record("srv", MetricStore.CPU, BASE + 10_000, 40); // Closes the first bucket
+
+        List<MetricSample> samples = metricStore.query("srv", MetricStore.CPU, BASE, BASE + 60_000, MetricResolution.RAW);
+
+        assertEquals(samples.size(), 1);
+        assertEquals(samples.get(0).getTimestamp(), BASE);
+        assertEquals(samples.get(0).getValue(), 15.0);
+    }
+
+    @Test
+    public void testRollUpIntoMinuteTierAfterFlush() {
+        for (int i = 0; i <= 12; i++) {
+            metricStore.record("srv", MetricStore.PLAYERS, BASE + i * 10_000L, i < 6 ? 2 : 4);
+        }
+        metricStore.flush();
+
+        List<MetricSample> minutes = metricStore.query("srv", MetricStore.PLAYERS, BASE, BASE + 120_000, MetricResolution.MINUTE);
+        List<MetricSample> raw = metricStore.query("srv", MetricStore.PLAYERS, BASE, BASE + 120_000, MetricResolution.RAW);
+
+        assertEquals(minutes.size(), 1);
+        assertEquals(minutes.get(0).getValue(), 2.0);
+        assertEquals(raw.size(), 12);
+
+        // A fresh store over the same MVStore reads the persisted blocks back
+        MetricStore reopened = new MetricStore(mvStore);
+        assertEquals(reopened.query("srv", MetricStore.PLAYERS, BASE, BASE + 120_000, MetricResolution.RAW).size(), 12);
+    }
+
+    @Test
+    public void testSeriesAreIsolatedPerServer() {
+        metricStore.record("a", MetricStore.RSS, BASE, 1);
+        metricStore.record("ab", MetricStore.RSS, BASE, 2);
+        metricStore.record("a", MetricStore.RSS, BASE + 10_000, 1);
+        metricStore.record("ab", MetricStore.RSS, BASE + 10_000, 2);
+        metricStore.flush();
+
+        List<MetricSample> samples = metricStore.query("a", MetricStore.RSS, BASE, BASE + 60_000, MetricResolution.RAW);
+
+        assertEquals(samples.size(), 1);
+        assertEquals(samples.get(0).getValue(), 1.0);
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.ceakins.gamedaemondeck.testing;
+
+import io.github.ceakins.gamedaemondeck.core.ConsoleSessionManager;
+import io.github.ceakins.gamedaemondeck.util.RCONClientManager;
+import io.github.ceakins.gamedaemondeck.util.TelnetClientManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+// Drives console clients at high concurrency: every session runs on its own thread and sends its
+// commands back to back, timing each one. Reports throughput and latency percentiles.
+public class ConsoleLoadHarness {
+
+    public interface Session extends Closeable {
+        String send(String command) throws IOException;
+    }
+
+    public interface SessionFactory {
+        Session open() throws IOException;
+    }
+
+    // One blocking TelnetClientManager connection and login per session. The daemon itself talks
+    // to consoles through NioConsoleClient behind ConsoleSessionManager, so these numbers are not
+    // production console latency; consoleSessions measures that path.
+    public static SessionFactory telnet(String host, int port, String password, String prompt) {
+        return () -> {
+            TelnetClientManager telnet = new TelnetClientManager();
+            telnet.connect(host, port);
+            if (password != null) {
+                telnet.readUntil(Duration.ofSeconds(5), FakeTelnetServer.PASSWORD_PROMPT);
+                telnet.write(password);
+                String login = telnet.readUntil(Duration.ofSeconds(5), FakeTelnetServer.LOGON_SUCCESSFUL, FakeTelnetServer.PASSWORD_INCORRECT);
+                if (!login.endsWith(FakeTelnetServer.LOGON_SUCCESSFUL)) {
+                    telnet.disconnect();
+                    throw new IOException("Telnet login failed");
+                }
+            }
+            telnet.readUntil(Duration.ofSeconds(5), prompt);
+            return new Session() {
+                @Override
+                public String send(String command) throws IOException {
+                    String response = telnet.sendCommand(command, prompt);
+                    if (!response.endsWith(prompt)) {
+                        throw new IOException("Connection closed before the prompt");
+                    }
+                    return response;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    telnet.disconnect();
+                }
+            };
+        };
+    }
+
+    // Goes through the daemon's own console path: every session borrows the server's one
+    // connection from the ConsoleSessionManager, so commands queue behind each other as they do
+    // for the web console, restart warnings and shutdowns
+    public static SessionFactory consoleSessions(ConsoleSessionManager consoles, String serverName) {
+        return () -> new Session() {
+            @Override
+            public String send(String command) throws IOException {
+                return consoles.execute(serverName, command);
+            }
+
+            @Override
+            public void close() {
+                // The connection stays with the manager
+            }
+        };
+    }
+
+    // Sessions share the connected manager and with it the pooled RCON connection
+    public static SessionFactory rcon(RCONClientManager rcon) {
+        return () -> new Session() {
+            @Override
+            public String send(String command) throws IOException {
+                return rcon.sendCommand(command);
+            }
+
+            @Override
+            public void close() {
+                // The caller disconnects the shared manager
+            }
+        };
+    }
+
+    public static Result run(SessionFactory factory, int sessions, int commandsPerSession, IntFunction<String> commands)
+            throws InterruptedException {
+        long[] latencies = new long[sessions * commandsPerSession];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.nanoTime();
+        // Platform threads: commons-net blocks on socket reads inside synchronized blocks, which
+        // pins virtual threads and starves the fake servers of carrier threads
+        try (ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofPlatform().daemon().factory())) {
+            List<Future<?>> running = new ArrayList<>(sessions);
+            for (int s = 0; s < sessions; s++) {
+                int offset = s * commandsPerSession;
+                running.add(executor.submit(() -> {
+                    Session session;
+                    try {
+                        session = factory.open();
+                    } catch (IOException e) {
+                        // Counts every command of a session that could not open
+                        failures.addAndGet(commandsPerSession);
+                        return null;
+                    }
+                    for (int i = 0; i < commandsPerSession; i++) {
+                        long sent = System.nanoTime();
+                        try {
+                            session.send(commands.apply(offset + i));
+                            latencies[completed.getAndIncrement()] = System.nanoTime() - sent;
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    try {
+                        session.close();
+                    } catch (IOException e) {
+                        // The server may have closed it already
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : running) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        long[] sorted = Arrays.copyOf(latencies, completed.get());
+        Arrays.sort(sorted);
+        return new Result(sorted, failures.get(), elapsed);
+    }
+
+    public static final class Result {
+        private final long[] latencies;
+        private final int failures;
+        private final Duration elapsed;
+
+        Result(long[] latencies, int failures, Duration elapsed) {
+            this.latencies = latencies;
+            this.failures = failures;
+            this.elapsed = elapsed;
+        }
+
+        public int getCompleted() {
+            return latencies.length;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        // Completed commands per second
+        public double getThroughput() {
+            return latencies.length / Math.max(1e-9, elapsed.toNanos() / 1e9);
+        }
+
+        // Nearest-rank percentile of the completed commands, e.g. 99 for p99
+        public Duration percentile(double percentile) {
+            if (latencies.length == 0) {
+                return Duration.ZERO;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+            return Duration.ofNanos(latencies[Math.max(0, Math.min(latencies.length, rank) - 1)]);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d commands (%d failed) in %d ms: %.0f/s, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    latencies.length, failures, elapsed.toMillis(), getThroughput(),
+                    millis(percentile(50)), millis(percentile(90)), millis(percentile(99)), millis(percentile(100)));
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1e6;
+        }
+    }
+}
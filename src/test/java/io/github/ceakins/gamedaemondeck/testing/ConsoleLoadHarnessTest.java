@@ -0,0 +1,159 @@
+package io.github.ceakins.gamedaemondeck.testing;
+
+import io.github.ceakins.gamedaemondeck.core.ConsoleSessionManager;
+import io.github.ceakins.gamedaemondeck.core.PluginManager;
+import io.github.ceakins.gamedaemondeck.db.GameServer;
+import io.github.ceakins.gamedaemondeck.plugins.GameConsole;
+import io.github.ceakins.gamedaemondeck.plugins.GamePlugin;
+import io.github.ceakins.gamedaemondeck.util.NioConsoleClient;
+import io.github.ceakins.gamedaemondeck.util.NioEventLoop;
+import io.github.ceakins.gamedaemondeck.util.RCONClientManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+// Runs offline against the fakes on localhost. Raise console.load.sessions and
+// console.load.commands for a heavier run, e.g. -Dconsole.load.sessions=500.
+public class ConsoleLoadHarnessTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConsoleLoadHarnessTest.class);
+    private static final int SESSIONS = Integer.getInteger("console.load.sessions", 20);
+    private static final int COMMANDS = Integer.getInteger("console.load.commands", 25);
+
+    @Test
+    public void testTelnetLoad() throws Exception {
+        try (FakeTelnetServer server = new FakeTelnetServer("secret")) {
+            server.respond("lp", "Total of 0 in the game");
+            ConsoleLoadHarness.Result result = ConsoleLoadHarness.run(
+                    ConsoleLoadHarness.telnet("127.0.0.1", server.getPort(), "secret", "> "),
+                    SESSIONS, COMMANDS, i -> i % 2 == 0 ? "lp" : "gettime");
+            logger.info("Telnet: {}", result);
+
+            assertEquals(result.getFailures(), 0);
+            assertEquals(result.getCompleted(), SESSIONS * COMMANDS);
+            assertEquals(server.getConnections(), SESSIONS);
+            assertEquals(server.getCommands(), SESSIONS * COMMANDS);
+            assertTrue(result.percentile(50).compareTo(result.percentile(99)) <= 0);
+        }
+    }
+
+    @Test
+    public void testTelnetLoadWithLatencyAndLogSpam() throws Exception {
+        try (FakeTelnetServer server = new FakeTelnetServer("secret")) {
+            server.setLatency(Duration.ofMillis(20));
+            server.setLogSpam(Duration.ofMillis(5), "2024 INF Time: 1.0m FPS: 60 Heap: 1024MB");
+            ConsoleLoadHarness.Result result = ConsoleLoadHarness.run(
+                    ConsoleLoadHarness.telnet("127.0.0.1", server.getPort(), "secret", "> "),
+                    10, 5, i -> "gettime");
+            logger.info("Telnet with 20 ms latency and log spam: {}", result);
+
+            assertEquals(result.getFailures(), 0);
+            assertTrue(result.percentile(50).compareTo(Duration.ofMillis(20)) >= 0);
+        }
+    }
+
+    @Test
+    public void testTelnetDisconnectsCountAsFailures() throws Exception {
+        try (FakeTelnetServer server = new FakeTelnetServer("secret")) {
+            server.setDisconnectAfter(3);
+            ConsoleLoadHarness.Result result = ConsoleLoadHarness.run(
+                    ConsoleLoadHarness.telnet("127.0.0.1", server.getPort(), "secret", "> "),
+                    4, 5, i -> "gettime");
+
+            assertEquals(result.getCompleted(), 12);
+            assertEquals(result.getFailures(), 8);
+        }
+    }
+
+    @Test
+    public void testTelnetWrongPasswordFailsEverySession() throws Exception {
+        try (FakeTelnetServer server = new FakeTelnetServer("secret")) {
+            ConsoleLoadHarness.Result result = ConsoleLoadHarness.run(
+                    ConsoleLoadHarness.telnet("127.0.0.1", server.getPort(), "wrong", "> "),
+                    3, 4, i -> "gettime");
+
+            assertEquals(result.getCompleted(), 0);
+            assertEquals(result.getFailures(), 12);
+        }
+    }
+
+    @Test
+    public void testConsoleSessionManagerLoadSharesOneConnection() throws Exception {
+        try (FakeTelnetServer server = new FakeTelnetServer("secret");
+             NioEventLoop loop = new NioEventLoop("harness-console-io")) {
+            server.respond("lp", "Total of 0 in the game");
+            GameServer gameServer = new GameServer();
+            gameServer.setName("alpha");
+            gameServer.setPluginName("fake");
+            gameServer.setRunning(true);
+            GamePlugin plugin = mock(GamePlugin.class);
+            when(plugin.openConsole(gameServer)).thenAnswer(invocation -> openConsole(loop, server.getPort(), "secret", "> "));
+            PluginManager plugins = mock(PluginManager.class);
+            when(plugins.getPlugin("fake")).thenReturn(plugin);
+            ConsoleSessionManager consoles = new ConsoleSessionManager(plugins, name -> Optional.of(gameServer), null, Runnable::run);
+            try {
+                ConsoleLoadHarness.Result result = ConsoleLoadHarness.run(ConsoleLoadHarness.consoleSessions(consoles, "alpha"),
+                        SESSIONS, COMMANDS, i -> i % 2 == 0 ? "lp" : "gettime");
+                logger.info("Console sessions: {}", result);
+
+                assertEquals(result.getFailures(), 0);
+                assertEquals(result.getCompleted(), SESSIONS * COMMANDS);
+                assertEquals(server.getConnections(), 1);
+                assertEquals(server.getCommands(), SESSIONS * COMMANDS);
+            } finally {
+                consoles.closeAll();
+            }
+        }
+    }
+
+    // A prompt-terminated console on the NIO client, as a game plugin would open it
+    private static GameConsole openConsole(NioEventLoop loop, int port, String password, String prompt) throws IOException {
+        Duration timeout = Duration.ofSeconds(5);
+        NioConsoleClient client = NioConsoleClient.await(NioConsoleClient.connect(loop, "127.0.0.1", port, StandardCharsets.UTF_8, timeout));
+        NioConsoleClient.await(client.readUntil(timeout, FakeTelnetServer.PASSWORD_PROMPT));
+        client.write(password, true);
+        NioConsoleClient.await(client.readUntil(timeout, FakeTelnetServer.LOGON_SUCCESSFUL));
+        NioConsoleClient.await(client.readUntil(timeout, prompt));
+        return new GameConsole() {
+            @Override
+            public String execute(String command) throws IOException {
+                return NioConsoleClient.await(client.send(command, timeout, null, prompt));
+            }
+
+            @Override
+            public void close() {
+                client.close();
+            }
+        };
+    }
+
+    @Test
+    public void testRconLoadSharesOneConnection() throws Exception {
+        try (FakeRconServer server = new FakeRconServer("secret")) {
+            server.respond("listplayers", "x".repeat(10_000));
+            RCONClientManager rcon = new RCONClientManager("127.0.0.1", server.getPort(), "secret");
+            rcon.connect();
+            try {
+                ConsoleLoadHarness.Result result = ConsoleLoadHarness.run(ConsoleLoadHarness.rcon(rcon),
+                        SESSIONS, COMMANDS, i -> i % 5 == 0 ? "listplayers" : "status " + i);
+                logger.info("RCON: {}", result);
+
+                assertEquals(result.getFailures(), 0);
+                assertEquals(result.getCompleted(), SESSIONS * COMMANDS);
+                assertEquals(server.getConnections(), 1);
+            } finally {
+                rcon.disconnect();
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.ceakins.gamedaemondeck.testing;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// A local stand-in for a Source RCON server. Like the real ones it answers the login with an empty
+// response value ahead of the auth result, splits long responses into 4 KB packets and mirrors the
+// empty packet clients send to find the end of a response. Commands on one connection are answered
+// in order. Listens on the loopback address only.
+public class FakeRconServer implements AutoCloseable {
+
+    private static final int SERVERDATA_AUTH = 3;
+    private static final int SERVERDATA_AUTH_RESPONSE = 2;
+    private static final int SERVERDATA_EXECCOMMAND = 2;
+    private static final int SERVERDATA_RESPONSE_VALUE = 0;
+    private static final int MAX_BODY_BYTES = 4096;
+
+    private final ServerSocket serverSocket;
+    private final String password;
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger commands = new AtomicInteger();
+    private volatile Function<String, String> responder = command -> "ok " + command;
+    private volatile Duration latency = Duration.ZERO;
+    private volatile int disconnectAfter;
+
+    public FakeRconServer(String password) throws IOException {
+        this.password = password;
+        this.serverSocket = new ServerSocket(0, 200, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("fake-rcon-accept").start(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getCommands() {
+        return commands.get();
+    }
+
+    public void respond(String command, String response) {
+        responses.put(command, response);
+    }
+
+    // Answers commands without a scripted response; "ok <command>" by default
+    public void setResponder(Function<String, String> responder) {
+        this.responder = responder;
+    }
+
+    // Delay before every response
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    // Closes each connection once it has answered this many commands; 0 never does
+    public void setDisconnectAfter(int commands) {
+        this.disconnectAfter = commands;
+    }
+
+    public void dropConnections() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sockets.add(socket);
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            int answered = 0;
+            while (true) {
+                int size = Integer.reverseBytes(in.readInt());
+                int id = Integer.reverseBytes(in.readInt());
+                int type = Integer.reverseBytes(in.readInt());
+                byte[] body = new byte[size - 10];
+                in.readFully(body);
+                in.readFully(new byte[2]);
+                String text = new String(body, StandardCharsets.UTF_8);
+                if (type == SERVERDATA_AUTH) {
+                    write(out, id, SERVERDATA_RESPONSE_VALUE, new byte[0]);
+                    write(out, text.equals(password) ? id : -1, SERVERDATA_AUTH_RESPONSE, new byte[0]);
+                } else if (type == SERVERDATA_EXECCOMMAND) {
+                    commands.incrementAndGet();
+                    if (!latency.isZero()) {
+                        Thread.sleep(latency);
+                    }
+                    String response = responses.containsKey(text) ? responses.get(text) : responder.apply(text);
+                    byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+                    int start = 0;
+                    do {
+                        int end = Math.min(bytes.length, start + MAX_BODY_BYTES);
+                        write(out, id, SERVERDATA_RESPONSE_VALUE, Arrays.copyOfRange(bytes, start, end));
+                        start = end;
+                    } while (start < bytes.length);
+                    if (disconnectAfter > 0 && ++answered >= disconnectAfter) {
+                        return;
+                    }
+                } else {
+                    // Mirrors the empty packet that marks the end of a response
+                    write(out, id, SERVERDATA_RESPONSE_VALUE, new byte[0]);
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    private static void write(OutputStream out, int id, int type, byte[] body) throws IOException {
+        ByteBuffer packet = ByteBuffer.allocate(14 + body.length).order(ByteOrder.LITTLE_ENDIAN);
+        packet.putInt(10 + body.length);
+        packet.putInt(id);
+        packet.putInt(type);
+        packet.put(body);
+        packet.put((byte) 0);
+        packet.put((byte) 0);
+        out.write(packet.array());
+        out.flush();
+    }
+}
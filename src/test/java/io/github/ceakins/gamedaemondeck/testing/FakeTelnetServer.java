@@ -0,0 +1,207 @@
+package io.github.ceakins.gamedaemondeck.testing;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// A local stand-in for a game's telnet console, modelled on 7 Days to Die: a password prompt,
+// then one response per command line followed by the prompt. Responses, latency, unsolicited log
+// lines and dropped connections can be scripted. Listens on the loopback address only.
+public class FakeTelnetServer implements AutoCloseable {
+
+    public static final String PASSWORD_PROMPT = "Please enter password:";
+    public static final String LOGON_SUCCESSFUL = "Logon successful.";
+    public static final String PASSWORD_INCORRECT = "Password incorrect, please enter password:";
+    private static final int IAC = 255;
+
+    private final ServerSocket serverSocket;
+    private final String password;
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger commands = new AtomicInteger();
+    private volatile Function<String, String> responder = command -> "ok " + command;
+    private volatile String prompt = "> ";
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration logInterval;
+    private volatile String logLine;
+    private volatile int disconnectAfter;
+
+    // A null password skips the login
+    public FakeTelnetServer(String password) throws IOException {
+        this.password = password;
+        this.serverSocket = new ServerSocket(0, 200, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("fake-telnet-accept").start(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    public int getCommands() {
+        return commands.get();
+    }
+
+    // Sent after the login and after every response; null for consoles without a prompt
+    public void setPrompt(String prompt) {
+        this.prompt = prompt;
+    }
+
+    public void respond(String command, String response) {
+        responses.put(command, response);
+    }
+
+    // Answers commands without a scripted response; "ok <command>" by default
+    public void setResponder(Function<String, String> responder) {
+        this.responder = responder;
+    }
+
+    // Delay before every response
+    public void setLatency(Duration latency) {
+        this.latency = latency;
+    }
+
+    // Writes the line on every connection at the interval, interleaved with responses
+    public void setLogSpam(Duration interval, String line) {
+        this.logInterval = interval;
+        this.logLine = line;
+    }
+
+    // Closes each connection once it has answered this many commands; 0 never does
+    public void setDisconnectAfter(int commands) {
+        this.disconnectAfter = commands;
+    }
+
+    public void dropConnections() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sockets.add(socket);
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Thread spammer = null;
+        try (socket) {
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            if (password != null && !login(in, out)) {
+                return;
+            }
+            if (prompt != null) {
+                write(out, prompt);
+            }
+            if (logInterval != null) {
+                spammer = Thread.ofVirtual().start(() -> spam(socket, out, logInterval, logLine));
+            }
+            int answered = 0;
+            while (true) {
+                String command = readLine(in);
+                if (command == null) {
+                    return;
+                }
+                commands.incrementAndGet();
+                if (!latency.isZero()) {
+                    Thread.sleep(latency);
+                }
+                String response = responses.containsKey(command) ? responses.get(command) : responder.apply(command);
+                write(out, response + "\r\n" + (prompt != null ? prompt : ""));
+                if (disconnectAfter > 0 && ++answered >= disconnectAfter) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sockets.remove(socket);
+            if (spammer != null) {
+                spammer.interrupt();
+            }
+        }
+    }
+
+    private boolean login(InputStream in, OutputStream out) throws IOException {
+        while (true) {
+            write(out, PASSWORD_PROMPT + "\r\n");
+            String attempt = readLine(in);
+            if (attempt == null) {
+                return false;
+            }
+            if (attempt.equals(password)) {
+                write(out, LOGON_SUCCESSFUL + "\r\n");
+                return true;
+            }
+            write(out, PASSWORD_INCORRECT + "\r\n");
+        }
+    }
+
+    private static void spam(Socket socket, OutputStream out, Duration interval, String line) {
+        try {
+            while (!socket.isClosed()) {
+                Thread.sleep(interval);
+                write(out, line + "\r\n");
+            }
+        } catch (IOException | InterruptedException e) {
+            // Connection closed
+        }
+    }
+
+    // Log lines and responses come from different threads
+    private static void write(OutputStream out, String text) throws IOException {
+        synchronized (out) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    // Returns null once the client has gone; telnet option negotiation is skipped
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return null;
+            }
+            if (b == IAC) {
+                in.readNBytes(2);
+                continue;
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8).trim();
+    }
+}
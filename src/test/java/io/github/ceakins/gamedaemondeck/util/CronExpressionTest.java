@@ -0,0 +1,88 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import org.testng.annotations.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class CronExpressionTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Test
+    public void testDailyShorthand() {
+        CronExpression cron = CronExpression.parse("04:00");
+        ZonedDateTime after = ZonedDateTime.of(LocalDateTime.of(2026, 3, 1, 3, 59, 30), NEW_YORK);
+
+        assertEquals(cron.next(after).toLocalDateTime(), LocalDateTime.of(2026, 3, 1, 4, 0));
+        // Firing exactly at the scheduled instant plans the next day, never the same minute again
+        assertEquals(cron.next(cron.next(after)).toLocalDateTime(), LocalDateTime.of(2026, 3, 2, 4, 0));
+    }
+
+    @Test
+    public void testStepsListsAndRanges() {
+        CronExpression cron = CronExpression.parse("*/15 6-8,20 * * 1-5");
+        ZonedDateTime friday = ZonedDateTime.of(LocalDateTime.of(2026, 10, 16, 20, 50), NEW_YORK);
+
+        // Saturday and Sunday are skipped
+        assertEquals(cron.next(friday).toLocalDateTime(), LocalDateTime.of(2026, 10, 19, 6, 0));
+        assertEquals(cron.next(cron.next(friday)).toLocalDateTime(), LocalDateTime.of(2026, 10, 19, 6, 15));
+    }
+
+    @Test
+    public void testDayOfMonthOrDayOfWeek() {
+        // The 1st of the month or any Sunday
+        CronExpression cron = CronExpression.parse("0 4 1 * 0");
+        ZonedDateTime after = ZonedDateTime.of(LocalDateTime.of(2026, 10, 19, 12, 0), NEW_YORK);
+
+        assertEquals(cron.next(after).toLocalDateTime(), LocalDateTime.of(2026, 10, 25, 4, 0));
+    }
+
+    @Test
+    public void testSpringForwardGapFiresAfterGap() {
+        CronExpression cron = CronExpression.parse("02:30");
+        ZonedDateTime after = ZonedDateTime.of(LocalDateTime.of(2026, 3, 8, 1, 0), NEW_YORK);
+
+        ZonedDateTime next = cron.next(after);
+
+        // Clocks jump from 02:00 to 03:00, so 02:30 fires as soon as the gap ends
+        assertEquals(next.toLocalDateTime(), LocalDateTime.of(2026, 3, 8, 3, 0));
+        assertEquals(cron.next(next).toLocalDateTime(), LocalDateTime.of(2026, 3, 9, 2, 30));
+    }
+
+    @Test
+    public void testTimesSwallowedByTheGapFireOnce() {
+        CronExpression cron = CronExpression.parse("*/15 2 * * *");
+        ZonedDateTime after = ZonedDateTime.of(LocalDateTime.of(2026, 3, 8, 1, 0), NEW_YORK);
+
+        ZonedDateTime first = cron.next(after);
+        ZonedDateTime second = cron.next(first);
+
+        assertEquals(first.toLocalDateTime(), LocalDateTime.of(2026, 3, 8, 3, 0));
+        assertEquals(second.toLocalDateTime(), LocalDateTime.of(2026, 3, 9, 2, 0));
+    }
+
+    @Test
+    public void testFallBackOverlapFiresOnce() {
+        CronExpression cron = CronExpression.parse("01:30");
+        ZonedDateTime after = ZonedDateTime.of(LocalDateTime.of(2026, 11, 1, 0, 0), NEW_YORK);
+
+        ZonedDateTime first = cron.next(after);
+        ZonedDateTime second = cron.next(first);
+
+        assertEquals(first.toLocalDateTime(), LocalDateTime.of(2026, 11, 1, 1, 30));
+        assertEquals(second.toLocalDateTime(), LocalDateTime.of(2026, 11, 2, 1, 30));
+    }
+
+    @Test
+    public void testInvalidExpressions() {
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("25:00"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 4 * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("61 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("a b c d e"));
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class NioConsoleClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private interface Script {
+        void run(Socket socket) throws Exception;
+    }
+
+    private NioEventLoop loop;
+    private final List<ServerSocket> servers = new ArrayList<>();
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        loop = new NioEventLoop("test-console-io");
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        loop.close();
+        for (ServerSocket server : servers) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testLoginAndCommand() throws Exception {
+        CompletableFuture<byte[]> negotiation = new CompletableFuture<>();
+        int port = serve(socket -> {
+            // Ask the client to echo, then prompt for the password
+            socket.getOutputStream().write(new byte[]{(byte) 255, (byte) 253, 1});
+            socket.getOutputStream().write("Please enter password:".getBytes(StandardCharsets.UTF_8));
+            negotiation.complete(socket.getInputStream().readNBytes(3));
+            assertEquals(readLine(socket.getInputStream()), "secret");
+            socket.getOutputStream().write("Logon successful.\r\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals(readLine(socket.getInputStream()), "gettime");
+            socket.getOutputStream().write("Day 7, 12:00\r\n".getBytes(StandardCharsets.UTF_8));
+            readLine(socket.getInputStream()); // Hold the connection open
+        });
+
+        NioConsoleClient client = connect(port);
+        assertEquals(NioConsoleClient.await(client.readUntil(TIMEOUT, "Please enter password:")), "Please enter password:");
+        client.write("secret", true);
+        assertTrue(NioConsoleClient.await(client.readUntil(TIMEOUT, "Logon successful.", "Password incorrect"))
+                .endsWith("Logon successful."));
+        assertEquals(NioConsoleClient.await(client.send("gettime", TIMEOUT, Duration.ofMillis(100))), "Day 7, 12:00\r\n");
+        // The option is refused
+        assertEquals(negotiation.get(5, TimeUnit.SECONDS), new byte[]{(byte) 255, (byte) 252, 1});
+        client.close();
+    }
+
+    @Test
+    public void testManyConnectionsShareTheLoop() throws Exception {
+        int count = 20;
+        List<NioConsoleClient> clients = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int id = i;
+            clients.add(connect(serve(socket -> {
+                while (true) {
+                    String command = readLine(socket.getInputStream());
+                    socket.getOutputStream().write((command + " from " + id + "\r\n>").getBytes(StandardCharsets.UTF_8));
+                }
+            })));
+        }
+
+        List<CompletableFuture<String>> players = new ArrayList<>();
+        List<CompletableFuture<String>> memory = new ArrayList<>();
+        for (NioConsoleClient client : clients) {
+            // Queued behind each other on the same connection
+            players.add(client.send("lp", TIMEOUT, null, ">"));
+            memory.add(client.send("mem", TIMEOUT, null, ">"));
+        }
+        CompletableFuture.allOf(players.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        CompletableFuture.allOf(memory.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        for (int i = 0; i < count; i++) {
+            assertEquals(players.get(i).get(), "lp from " + i + "\r\n>");
+            assertEquals(memory.get(i).get(), "mem from " + i + "\r\n>");
+            clients.get(i).close();
+        }
+    }
+
+    @Test
+    public void testPipelineSplitsOnPrompts() throws Exception {
+        int port = serve(socket -> {
+            // Only answers once every command has arrived, which a client waiting per command never gets to
+            List<String> commands = List.of(readLine(socket.getInputStream()), readLine(socket.getInputStream()),
+                    readLine(socket.getInputStream()));
+            for (String command : commands) {
+                socket.getOutputStream().write(("done " + command + "\r\n> ").getBytes(StandardCharsets.UTF_8));
+            }
+            readLine(socket.getInputStream());
+        });
+        NioConsoleClient client = connect(port);
+
+        List<CompletableFuture<String>> responses = client.pipeline(List.of("saveworld", "kickall", "shutdown"), TIMEOUT, "> ");
+        assertEquals(NioConsoleClient.await(responses.get(0)), "done saveworld\r\n> ");
+        assertEquals(NioConsoleClient.await(responses.get(1)), "done kickall\r\n> ");
+        assertEquals(NioConsoleClient.await(responses.get(2)), "done shutdown\r\n> ");
+        client.close();
+    }
+
+    @Test
+    public void testPipelineByEchoSplitsOnCommandLines() throws Exception {
+        int port = serve(socket -> {
+            List<String> commands = List.of(readLine(socket.getInputStream()), readLine(socket.getInputStream()),
+                    readLine(socket.getInputStream()));
+            for (String command : commands) {
+                socket.getOutputStream().write(("2024 INF Executing command '" + command + "' by Telnet\r\n"
+                        + "ok " + command + "\r\n").getBytes(StandardCharsets.UTF_8));
+            }
+            readLine(socket.getInputStream());
+        });
+        NioConsoleClient client = connect(port);
+
+        List<CompletableFuture<String>> responses = client.pipelineByEcho(List.of("say hi", "say hi", "saveworld"),
+                TIMEOUT, Duration.ofMillis(100), command -> "Executing command '" + command + "'");
+        assertEquals(NioConsoleClient.await(responses.get(0)), "2024 INF Executing command 'say hi' by Telnet\r\nok say hi\r\n");
+        assertEquals(NioConsoleClient.await(responses.get(1)), "2024 INF Executing command 'say hi' by Telnet\r\nok say hi\r\n");
+        assertEquals(NioConsoleClient.await(responses.get(2)), "2024 INF Executing command 'saveworld' by Telnet\r\nok saveworld\r\n");
+        client.close();
+    }
+
+    @Test
+    public void testFollowLinesStreamsTheLog() throws Exception {
+        CountDownLatch following = new CountDownLatch(1);
+        int port = serve(socket -> {
+            following.await(5, TimeUnit.SECONDS);
+            // A line split across writes, a carriage return, and one far too long
+            socket.getOutputStream().write("2024 INF Time: 1.0m FPS: 60".getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().flush();
+            socket.getOutputStream().write(" Players: 2\r\n".getBytes(StandardCharsets.UTF_8));
+            socket.getOutputStream().write(("x".repeat(20_000) + "\nINF Saved\n").getBytes(StandardCharsets.UTF_8));
+            readLine(socket.getInputStream());
+        });
+        NioConsoleClient client = connect(port);
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        client.followLines(lines::add);
+        // Runs after the listener is in place
+        NioConsoleClient.await(client.readResponse(Duration.ZERO, null));
+        following.countDown();
+
+        assertEquals(lines.poll(5, TimeUnit.SECONDS), "2024 INF Time: 1.0m FPS: 60 Players: 2");
+        assertEquals(lines.poll(5, TimeUnit.SECONDS).length(), 8192);
+        assertEquals(lines.poll(5, TimeUnit.SECONDS), "INF Saved");
+        client.close();
+    }
+
+    @Test
+    public void testResponseCompletesWhenServerCloses() throws Exception {
+        int port = serve(socket -> {
+            readLine(socket.getInputStream());
+            socket.getOutputStream().write("Shutting down\r\n".getBytes(StandardCharsets.UTF_8));
+        });
+        NioConsoleClient client = connect(port);
+
+        long start = System.nanoTime();
+        assertEquals(NioConsoleClient.await(client.send("shutdown", Duration.ofSeconds(30), Duration.ofSeconds(10))),
+                "Shutting down\r\n");
+        assertTrue(System.nanoTime() - start < TIMEOUT.toNanos());
+        // Nothing was written to the closed connection, so it is safe to resend elsewhere
+        assertThrows(CommandNotSentException.class, () -> NioConsoleClient.await(client.send("gettime", TIMEOUT, null)));
+    }
+
+    @Test
+    public void testReadUntilTimesOut() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        NioConsoleClient client = connect(serve(socket -> done.await()));
+        assertThrows(SocketTimeoutException.class,
+                () -> NioConsoleClient.await(client.readUntil(Duration.ofMillis(100), ">")));
+        done.countDown();
+        client.close();
+    }
+
+    private NioConsoleClient connect(int port) throws IOException {
+        return NioConsoleClient.await(NioConsoleClient.connect(loop, "127.0.0.1", port, StandardCharsets.UTF_8, TIMEOUT));
+    }
+
+    private int serve(Script script) throws IOException {
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        servers.add(server);
+        Thread.ofVirtual().start(() -> {
+            try (Socket socket = server.accept()) {
+                script.run(socket);
+            } catch (Exception e) {
+                // Connection closed by the client
+            }
+        });
+        return server.getLocalPort();
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new IOException("Connection closed");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8).trim();
+    }
+}
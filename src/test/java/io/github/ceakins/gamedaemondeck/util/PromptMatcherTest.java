@@ -0,0 +1,53 @@
+package io.github.ceakins.gamedaemondeck.util;
+
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+
+public class PromptMatcherTest {
+
+    // Feeds the text and returns the offset just past the first match, or -1
+    private static int matchEnd(PromptMatcher matcher, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            if (matcher.feed(bytes[i]) >= 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void testOverlappingPrefixes() {
+        // "aab" needs the KMP fallback after "aa" is followed by another "a"
+        assertEquals(matchEnd(new PromptMatcher(StandardCharsets.UTF_8, "aab"), "aaaab"), 5);
+        assertEquals(matchEnd(new PromptMatcher(StandardCharsets.UTF_8, "abab"), "abaabab"), 7);
+        assertEquals(matchEnd(new PromptMatcher(StandardCharsets.UTF_8, "abab"), "abaab"), -1);
+    }
+
+    @Test
+    public void testFirstOfSeveralTerminatorsWins() {
+        PromptMatcher matcher = new PromptMatcher(StandardCharsets.UTF_8, "Password incorrect", "Logon successful.");
+        byte[] bytes = "*** Connected\r\nLogon successful.\r\n".getBytes(StandardCharsets.UTF_8);
+        int matched = -1;
+        int end = 0;
+        while (matched < 0) {
+            matched = matcher.feed(bytes[end++]);
+        }
+        assertEquals(matched, 1);
+        assertEquals(end, "*** Connected\r\nLogon successful.".length());
+    }
+
+    @Test
+    public void testMultiByteTerminatorAndReset() {
+        PromptMatcher matcher = new PromptMatcher(StandardCharsets.UTF_8, "ünd>");
+        assertEquals(matcher.length(0), 5);
+        assertEquals(matchEnd(matcher, "Spieler ünd>"), "Spieler ünd>".getBytes(StandardCharsets.UTF_8).length);
+        // Starts over after a match
+        assertEquals(matchEnd(matcher, "nd>"), -1);
+        assertThrows(IllegalArgumentException.class, () -> new PromptMatcher(StandardCharsets.UTF_8, ""));
+    }
+}
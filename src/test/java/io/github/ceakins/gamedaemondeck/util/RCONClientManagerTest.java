@@ -1,67 +1,141 @@
 package io.github.ceakins.gamedaemondeck.util;
 
-import org.glavo.rcon.AuthenticationException;
-import org.glavo.rcon.Rcon;
-import org.mockito.Mock;
-import org.mockito.Mockito;
-import org.mockito.MockitoAnnotations;
+import io.github.ceakins.gamedaemondeck.testing.FakeRconServer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.doThrow;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertThrows;
 
 public class RCONClientManagerTest {
 
-    @Mock
-    private Rcon mockRcon;
-
+    private NioEventLoop loop;
+    private FakeRconServer server;
+    private RconPool pool;
     private RCONClientManager rconClientManager;
 
+    @BeforeClass
+    public void startLoop() throws IOException {
+        loop = new NioEventLoop("test-rcon-io");
+    }
+
+    @AfterClass
+    public void stopLoop() {
+        loop.close();
+    }
+
     @BeforeMethod
-    public void setUp() {
-        MockitoAnnotations.openMocks(this);
-        // Inject the mockRcon instance into the RCONClientManager for testing
-        rconClientManager = new RCONClientManager("localhost", 27015, "password", mockRcon);
+    public void setUp() throws IOException {
+        server = new FakeRconServer("password");
+        pool = new RconPool(loop, Duration.ofSeconds(5));
+        rconClientManager = new RCONClientManager("127.0.0.1", server.getPort(), "password", pool);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        pool.closeAll();
+        server.close();
     }
 
     @Test
-    public void testConnect() throws IOException, AuthenticationException {
+    public void testSendCommand_connected() throws IOException {
         rconClientManager.connect();
-        // Since mockRcon is injected, connect() just assigns it. No actual Rcon.open() call.
-        // The implicit check is that no exception is thrown during connection.
+        assertEquals(rconClientManager.sendCommand("status"), "ok status");
     }
 
     @Test
-    public void testDisconnect() throws IOException, AuthenticationException {
-        rconClientManager.connect(); // Ensure 'rcon' field is set to mockRcon
-        rconClientManager.disconnect();
-        verify(mockRcon).close();
+    public void testSendCommand_notConnected() {
+        assertThrows(IOException.class, () -> rconClientManager.sendCommand("status"));
     }
 
     @Test
-    public void testSendCommand_notConnected() {
-        // Here, the 'rcon' field is null because connect() was not called
-        rconClientManager = new RCONClientManager("localhost", 27015, "password", null); // Ensure rcon is null
+    public void testConnectWithWrongPassword() {
+        RCONClientManager wrong = new RCONClientManager("127.0.0.1", server.getPort(), "wrong", pool);
+        assertThrows(IOException.class, wrong::connect);
+    }
+
+    @Test
+    public void testMultiPacketResponse() throws IOException {
+        rconClientManager.connect();
+        // Larger than one 4 KB packet
+        String response = rconClientManager.sendCommand("cvarlist " + "x".repeat(10_000));
+        assertEquals(response, "ok cvarlist " + "x".repeat(10_000));
+    }
+
+    @Test
+    public void testConcurrentCommandsShareOneConnection() throws Exception {
+        rconClientManager.connect();
+        List<Future<String>> responses = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 50; i++) {
+                String command = "players " + i;
+                responses.add(callers.submit(() -> rconClientManager.sendCommand(command)));
+            }
+            for (int i = 0; i < 50; i++) {
+                assertEquals(responses.get(i).get(5, TimeUnit.SECONDS), "ok players " + i);
+            }
+        }
+        assertEquals(server.getConnections(), 1);
+    }
+
+    @Test
+    public void testReconnectsAfterTheConnectionDrops() throws Exception {
+        rconClientManager.connect();
+        assertEquals(rconClientManager.sendCommand("status"), "ok status");
+
+        server.dropConnections();
+        // Give the client a moment to see the connection close
+        Thread.sleep(200);
+
+        assertEquals(rconClientManager.sendCommand("status"), "ok status");
+        assertEquals(server.getConnections(), 2);
+    }
+
+    @Test
+    public void testDisconnect() throws IOException {
+        rconClientManager.connect();
+        rconClientManager.disconnect();
         assertThrows(IOException.class, () -> rconClientManager.sendCommand("status"));
     }
 
     @Test
-    public void testSendCommand_connected() throws IOException, AuthenticationException {
-        rconClientManager.connect(); // Set the internal 'rcon' field to mockRcon
-        String expectedResponse = "players: 5";
-        when(mockRcon.command("status")).thenReturn(expectedResponse);
+    public void testDisconnectLeavesOtherManagersConnected() throws Exception {
+        RCONClientManager other = new RCONClientManager("127.0.0.1", server.getPort(), "password", pool);
+        rconClientManager.connect();
+        other.connect();
+
+        rconClientManager.disconnect();
+        // Disconnecting twice must not release the other manager's hold
+        rconClientManager.disconnect();
+        Thread.sleep(200);
+
+        assertEquals(other.sendCommand("status"), "ok status");
+        assertEquals(server.getConnections(), 1);
+    }
 
-        String actualResponse = rconClientManager.sendCommand("status");
+    @Test
+    public void testLastDisconnectClosesTheConnection() throws Exception {
+        RCONClientManager other = new RCONClientManager("127.0.0.1", server.getPort(), "password", pool);
+        rconClientManager.connect();
+        other.connect();
+        rconClientManager.disconnect();
+        other.disconnect();
 
-        assertEquals(actualResponse, expectedResponse);
-        verify(mockRcon).command("status");
+        other.connect();
+        assertEquals(other.sendCommand("status"), "ok status");
+        assertEquals(server.getConnections(), 2);
     }
+
 }
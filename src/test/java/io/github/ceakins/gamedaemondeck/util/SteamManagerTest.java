@@ -11,14 +11,21 @@ import org.testng.annotations.Test;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
 
 public class SteamManagerTest {
 
@@ -74,4 +81,89 @@ public class SteamManagerTest {
         verify(processBuilder).directory(Path.of(expectedInstallDirPath).toFile());
         verify(process).waitFor();
     }
+
+    @Test
+    public void testInstallOrUpdateGame_streamsProgressAndLines() throws IOException, InterruptedException {
+        mockProcess("Loading Steam API...OK\r\n"
+                + " Update state (0x61) downloading, progress: 45.12 (1073741824 / 2379743845)\n"
+                + " Update state (0x81) verifying update, progress: 99.50 (2367845123 / 2379743845)\n"
+                + "Success! App '294420' fully installed.\n", "", 0);
+        List<String> lines = new ArrayList<>();
+        List<String> progress = new ArrayList<>();
+
+        steamManager.installOrUpdateGame("7dtd", "294420", "/path/to/game", new SteamCmdOutput.Listener() {
+            @Override
+            public void line(String line) {
+                lines.add(line);
+            }
+
+            @Override
+            public void progress(String state, double percent) {
+                progress.add(state + " " + percent);
+            }
+        });
+
+        assertEquals(lines.size(), 4);
+        assertEquals(lines.get(0), "Loading Steam API...OK");
+        assertEquals(progress, List.of("downloading 45.12", "verifying update 99.5"));
+        verify(configStore).journal(argThat(entry -> entry.isSuccess() && "7dtd".equals(entry.getServerName())));
+    }
+
+    @Test
+    public void testInstallOrUpdateGame_failureInOutput() throws IOException, InterruptedException {
+        // SteamCMD exits cleanly even though the update failed
+        mockProcess("Error! App '294420' state is 0x202 after update job.\n", "", 0);
+
+        IOException e = expectThrows(IOException.class, () -> steamManager.installOrUpdateGame("294420", "/path/to/game"));
+        assertTrue(e.getMessage().contains("not enough disk space"));
+        verify(configStore).journal(argThat(entry -> !entry.isSuccess()));
+    }
+
+    @Test
+    public void testInstallOrUpdateGame_loginFailure() throws IOException, InterruptedException {
+        mockProcess("Logging in user 'anonymous' to Steam Public...FAILED (No Connection)\n", "", 0);
+
+        IOException e = expectThrows(IOException.class, () -> steamManager.installOrUpdateGame("294420", "/path/to/game"));
+        assertTrue(e.getMessage().contains("No Connection"));
+    }
+
+    @Test
+    public void testInstallOrUpdateGame_nonZeroExit() throws IOException, InterruptedException {
+        mockProcess("", "steamcmd: crashed\n", 8);
+
+        IOException e = expectThrows(IOException.class, () -> steamManager.installOrUpdateGame("294420", "/path/to/game"));
+        assertTrue(e.getMessage().contains("exited with code 8"));
+    }
+
+    @Test
+    public void testInstallOrUpdateGame_longLinesAreCut() throws IOException, InterruptedException {
+        mockProcess("x".repeat(100_000) + "\nSuccess! App '294420' already up to date.\n", "", 0);
+        List<String> lines = new ArrayList<>();
+
+        steamManager.installOrUpdateGame("294420", "/path/to/game", new SteamCmdOutput.Listener() {
+            @Override
+            public void line(String line) {
+                lines.add(line);
+            }
+
+            @Override
+            public void progress(String state, double percent) {
+            }
+        });
+
+        assertEquals(lines.size(), 2);
+        assertEquals(lines.get(0).length(), SteamManager.MAX_LINE_LENGTH);
+    }
+
+    private void mockProcess(String stdout, String stderr, int exitCode) throws IOException, InterruptedException {
+        Configuration config = new Configuration();
+        config.setSteamCmdPath("/path/to/steamcmd");
+        when(configStore.getConfiguration()).thenReturn(Optional.of(config));
+        when(processBuilder.command(any(String[].class))).thenReturn(processBuilder);
+        when(processBuilder.directory(any())).thenReturn(processBuilder);
+        when(processBuilder.start()).thenReturn(process);
+        when(process.getInputStream()).thenReturn(new ByteArrayInputStream(stdout.getBytes(StandardCharsets.UTF_8)));
+        when(process.getErrorStream()).thenReturn(new ByteArrayInputStream(stderr.getBytes(StandardCharsets.UTF_8)));
+        when(process.waitFor()).thenReturn(exitCode);
+    }
 }
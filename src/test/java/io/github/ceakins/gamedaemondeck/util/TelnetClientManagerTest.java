@@ -11,10 +11,15 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -76,4 +81,102 @@ public class TelnetClientManagerTest {
         assertTrue(outputStream.toString().contains("status"));
         assertEquals(response, "response>");
     }
+
+    @Test
+    public void testSendCommandsPipelines() throws IOException {
+        telnetClientManager.in = new ByteArrayInputStream("saved\r\n>kicked\r\n>".getBytes(StandardCharsets.UTF_8));
+
+        List<String> responses = telnetClientManager.sendCommands(List.of("saveworld", "kickall"), ">");
+        assertEquals(outputStream.toString(), "saveworld\r\nkickall\r\n");
+        assertEquals(responses, List.of("saved\r\n>", "kicked\r\n>"));
+    }
+
+    @Test
+    public void testReadUntilKeepsBytesAfterThePrompt() throws IOException {
+        telnetClientManager.in = new ByteArrayInputStream(
+                "Please enter password:\r\nLogon successful.\r\nDay 7, 12:00".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(telnetClientManager.readUntil(Duration.ofSeconds(1), "Please enter password:"), "Please enter password:");
+        assertEquals(telnetClientManager.readUntil(Duration.ofSeconds(1), "Password incorrect", "Logon successful."),
+                "\r\nLogon successful.");
+        assertEquals(telnetClientManager.read(0), "\r\nDay 7, 12:00");
+    }
+
+    @Test
+    public void testReadUntilDecodesWithCharsetAcrossBufferBoundaries() throws IOException {
+        StringBuilder players = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            players.append(i).append(". id=171, Spieler Jürgen, pos=(1, 2, 3)\n");
+        }
+        players.append("Total of 2000 in the game\n");
+        telnetClientManager.in = new ByteArrayInputStream(players.toString().getBytes(StandardCharsets.UTF_8));
+
+        String response = telnetClientManager.readUntil(Duration.ofSeconds(1), "in the game\n");
+        assertEquals(response, players.toString());
+    }
+
+    @Test
+    public void testReadUntilEnforcesMaxResponseSize() {
+        telnetClientManager.in = new ByteArrayInputStream(new byte[4096]);
+        telnetClientManager.setMaxResponseBytes(1024);
+        assertThrows(IOException.class, () -> telnetClientManager.readUntil(Duration.ofSeconds(1), ">"));
+    }
+
+    @Test
+    public void testReadUntilDeadline() throws IOException {
+        telnetClientManager.in = new InputStream() {
+            // Stands in for the socket timeout the real client applies
+            @Override
+            public int read() throws IOException {
+                throw new SocketTimeoutException("Read timed out");
+            }
+        };
+        assertThrows(SocketTimeoutException.class, () -> telnetClientManager.readUntil(Duration.ofMillis(100), ">"));
+        verify(telnetClient, atLeastOnce()).setSoTimeout(anyInt());
+    }
+
+    @Test
+    public void testReadResponseReturnsOnEndMarker() throws IOException {
+        telnetClientManager.in = new ByteArrayInputStream(
+                "Please enter password:\r\nDay 7".getBytes(StandardCharsets.UTF_8));
+        assertEquals(telnetClientManager.readResponse(Duration.ofSeconds(1), Duration.ofMillis(250), "Please enter password:"),
+                "Please enter password:");
+    }
+
+    @Test
+    public void testReadResponseReturnsAfterIdleGap() throws IOException {
+        telnetClientManager.in = new InputStream() {
+            private final byte[] data = "Day 7, 12:00\r\n".getBytes(StandardCharsets.UTF_8);
+            private boolean sent;
+
+            @Override
+            public int read() throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (sent) {
+                    throw new SocketTimeoutException("Read timed out");
+                }
+                sent = true;
+                System.arraycopy(data, 0, b, off, data.length);
+                return data.length;
+            }
+        };
+        long start = System.nanoTime();
+        assertEquals(telnetClientManager.readResponse(Duration.ofSeconds(10), Duration.ofMillis(250)), "Day 7, 12:00\r\n");
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+    }
+
+    @Test
+    public void testReadResponseReturnsEmptyAtDeadline() throws IOException {
+        telnetClientManager.in = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new SocketTimeoutException("Read timed out");
+            }
+        };
+        assertEquals(telnetClientManager.readResponse(Duration.ofMillis(100), Duration.ofMillis(50)), "");
+    }
 }